@@ -0,0 +1,126 @@
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Closed-loop load generator for scripts/server-benchmark.sh, run as a single source file:
+ * <pre>
+ * java scripts/LoadGenerator.java BASE_URL PROTOCOL CONNECTIONS SECONDS IDS PATH...
+ * </pre>
+ * {@code CONNECTIONS} virtual threads each send GETs back to back for {@code SECONDS} (after as long a warm-up),
+ * to a random {@code PATH} with {@code %d} replaced by a random id from the comma-separated {@code IDS}.
+ * {@code PROTOCOL} is {@code h1} (one keep-alive connection per thread) or {@code h2c} (every thread multiplexed
+ * over a connection upgraded from HTTP/1.1). Prints one line: requests per second, p50/p99/max latency in
+ * milliseconds and the number of non-2xx responses or failures.
+ */
+public class LoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        if (args.length < 6) {
+            System.err.println("usage: LoadGenerator BASE_URL h1|h2c CONNECTIONS SECONDS IDS PATH...");
+            System.exit(2);
+        }
+        String baseUrl = args[0];
+        HttpClient.Version version = switch (args[1]) {
+            case "h1" -> HttpClient.Version.HTTP_1_1;
+            case "h2c" -> HttpClient.Version.HTTP_2;
+            default -> throw new IllegalArgumentException("protocol must be h1 or h2c: " + args[1]);
+        };
+        int connections = Integer.parseInt(args[2]);
+        Duration duration = Duration.ofSeconds(Long.parseLong(args[3]));
+        long[] ids = Arrays.stream(args[4].split(",")).mapToLong(Long::parseLong).toArray();
+        List<String> paths = List.of(args).subList(5, args.length);
+
+        HttpClient client = HttpClient.newBuilder().version(version).connectTimeout(Duration.ofSeconds(5)).build();
+        checkProtocol(client, URI.create(baseUrl + paths.getFirst().formatted(ids[0])), version);
+
+        run(client, baseUrl, paths, ids, connections, duration, null);
+        Result result = new Result();
+        run(client, baseUrl, paths, ids, connections, duration, result);
+        System.out.println(result.summary(duration));
+    }
+
+    private static void run(HttpClient client, String baseUrl, List<String> paths, long[] ids, int connections,
+                            Duration duration, Result result) throws InterruptedException {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Thread> threads = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            threads.add(Thread.ofVirtual().start(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                long[] latencies = new long[1024];
+                int count = 0;
+                while (System.nanoTime() < deadline) {
+                    String path = paths.get(random.nextInt(paths.size())).formatted(ids[random.nextInt(ids.length)]);
+                    HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+                    long start = System.nanoTime();
+                    boolean ok;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        ok = status >= 200 && status < 300;
+                    } catch (Exception e) {
+                        ok = false;
+                    }
+                    if (count == latencies.length) {
+                        latencies = Arrays.copyOf(latencies, count * 2);
+                    }
+                    latencies[count++] = System.nanoTime() - start;
+                    if (!ok && result != null) {
+                        result.errors.increment();
+                    }
+                }
+                if (result != null) {
+                    result.add(latencies, count);
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static void checkProtocol(HttpClient client, URI uri, HttpClient.Version expected) throws Exception {
+        HttpResponse<Void> response =
+                client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(uri + " answered " + response.statusCode());
+        }
+        // The first request is upgraded; check the connection actually stayed on the requested protocol.
+        response = client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding());
+        if (response.version() != expected) {
+            throw new IllegalStateException("server answered over " + response.version() + ", not " + expected);
+        }
+    }
+
+    private static final class Result {
+        private final LongAdder errors = new LongAdder();
+        private long[] latencies = new long[0];
+
+        synchronized void add(long[] threadLatencies, int count) {
+            int offset = latencies.length;
+            latencies = Arrays.copyOf(latencies, offset + count);
+            System.arraycopy(threadLatencies, 0, latencies, offset, count);
+        }
+
+        synchronized String summary(Duration duration) {
+            Arrays.sort(latencies);
+            return "%,10.0f req/s   p50 %7.2f ms   p99 %7.2f ms   max %8.2f ms   errors %d".formatted(
+                    latencies.length / (duration.toNanos() / 1e9), millis(0.50), millis(0.99),
+                    millis(1.0), errors.sum());
+        }
+
+        private double millis(double quantile) {
+            if (latencies.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(quantile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1e6;
+        }
+    }
+}
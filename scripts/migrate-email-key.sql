@@ -0,0 +1,33 @@
+-- Brings a clients table created before the current schema.sql to it, once per database (every shard):
+--
+--   psql -v ON_ERROR_STOP=1 -d insurance -f scripts/migrate-email-key.sql
+--
+-- Run it before starting the application on the database. It
+--   1. adds and backfills email_key (trimmed, lower-cased email) where it is missing,
+--   2. merges persons sharing an email_key into the oldest of them: their contracts move to it and the newer
+--      duplicates are deleted (their name, phone and birthdate are dropped; the merges are listed first),
+--   3. replaces the uniqueness of email_key across all clients, as first shipped, by uniqueness among persons.
+-- Companies keep their emails; they are unique by company_identifier. Safe to re-run.
+BEGIN;
+
+LOCK TABLE clients IN SHARE ROW EXCLUSIVE MODE;
+
+ALTER TABLE clients ADD COLUMN IF NOT EXISTS email_key VARCHAR(255);
+UPDATE clients SET email_key = lower(btrim(email)) WHERE email_key IS NULL;
+
+CREATE TEMPORARY TABLE merged_persons ON COMMIT DROP AS
+SELECT id, kept_id
+FROM (SELECT id, min(id) OVER (PARTITION BY email_key) AS kept_id FROM clients WHERE client_type = 'PERSON') persons
+WHERE id <> kept_id;
+
+SELECT kept_id, array_agg(id ORDER BY id) AS merged_ids FROM merged_persons GROUP BY kept_id ORDER BY kept_id;
+
+UPDATE contracts SET client_id = merged.kept_id FROM merged_persons merged WHERE contracts.client_id = merged.id;
+DELETE FROM clients USING merged_persons merged WHERE clients.id = merged.id;
+
+ALTER TABLE clients ALTER COLUMN email_key SET NOT NULL;
+ALTER TABLE clients DROP CONSTRAINT IF EXISTS clients_email_key_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_client_person_email_key ON clients(email_key) WHERE client_type = 'PERSON';
+CREATE INDEX IF NOT EXISTS idx_client_email_key ON clients(email_key);
+
+COMMIT;
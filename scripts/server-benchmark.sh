@@ -0,0 +1,86 @@
+#!/usr/bin/env bash
+# Compares throughput and latency of the embedded servers, over HTTP/1.1 keep-alive and h2c, on the
+# many-small-requests endpoints: GET /api/contracts/client/{id}/sum and GET /api/clients/{id}.
+#
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/insurance \
+#   SPRING_DATASOURCE_USERNAME=... SPRING_DATASOURCE_PASSWORD=... scripts/server-benchmark.sh
+#
+# Each server is built once (mvn -Dserver=<server> package) into target/server-benchmark and started with its
+# tuned Spring profile, once per protocol. scripts/LoadGenerator.java then keeps CONNECTIONS requests in flight
+# for SECONDS after as long a warm-up. The schema must exist; CLIENTS clients with 5 contracts each are upserted
+# on the first run and reused afterwards.
+set -euo pipefail
+
+SERVERS=${SERVERS:-tomcat undertow jetty}
+PROTOCOLS=${PROTOCOLS:-h1 h2c}
+CONNECTIONS=${CONNECTIONS:-64}
+SECONDS_PER_RUN=${SECONDS_PER_RUN:-20}
+CLIENTS=${CLIENTS:-200}
+PORT=${PORT:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+ROOT=$(cd "$(dirname "$0")/.." && pwd)
+OUT="$ROOT/target/server-benchmark"
+BASE="http://localhost:$PORT"
+
+mkdir -p "$OUT"
+if [ -z "${SKIP_BUILD:-}" ]; then
+    for server in $SERVERS; do
+        # Tomcat is the default: its Maven profile is only active when no server is given.
+        selection=()
+        [ "$server" != tomcat ] && selection=(-Dserver="$server")
+        (cd "$ROOT" && mvn -B -q "${selection[@]}" -DskipTests package)
+        cp "$ROOT"/target/insurance-management-*[0-9].jar "$OUT/$server.jar"
+    done
+fi
+
+start() {
+    local server=$1 protocol=$2
+    local http2=false
+    [ "$protocol" = h2c ] && http2=true
+    "$JAVA" --enable-preview -jar "$OUT/$server.jar" --server.port="$PORT" \
+        --spring.profiles.active="$server" --server.http2.enabled="$http2" > "$OUT/$server-$protocol.log" 2>&1 &
+    pid=$!
+    until curl -sf -o /dev/null "$BASE/actuator/health"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "$server exited before serving a request, see $OUT/$server-$protocol.log" >&2
+            exit 1
+        fi
+        sleep 0.1
+    done
+}
+
+stop() {
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+}
+
+seed() {
+    local ids=() response status id
+    for i in $(seq "$CLIENTS"); do
+        response=$(curl -s -w '\n%{http_code}' -H 'Content-Type: application/json' \
+            -d "{\"type\":\"PERSON\",\"name\":\"Benchmark Client $i\",\"email\":\"server-benchmark-$i@example.com\",\"phone\":\"+33612345678\",\"birthdate\":\"1990-01-01\"}" \
+            "$BASE/api/clients?upsert=true")
+        status=${response##*$'\n'}
+        id=$(grep -o '"id":[0-9]*' <<< "$response" | head -1 | cut -d: -f2)
+        if [ "$status" = 201 ]; then
+            for _ in 1 2 3 4 5; do
+                curl -sf -o /dev/null -H 'Content-Type: application/json' \
+                    -d "{\"clientId\":$id,\"costAmount\":100.00}" "$BASE/api/contracts"
+            done
+        fi
+        ids+=("$id")
+    done
+    (IFS=,; echo "${ids[*]}")
+}
+
+ids=""
+for server in $SERVERS; do
+    for protocol in $PROTOCOLS; do
+        start "$server" "$protocol"
+        [ -z "$ids" ] && ids=$(seed)
+        printf '%-10s %-4s ' "$server" "$protocol"
+        "$JAVA" "$ROOT/scripts/LoadGenerator.java" "$BASE" "$protocol" "$CONNECTIONS" "$SECONDS_PER_RUN" "$ids" \
+            /api/contracts/client/%d/sum /api/clients/%d
+        stop
+    done
+done
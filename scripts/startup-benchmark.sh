@@ -0,0 +1,57 @@
+#!/usr/bin/env bash
+# Compares time-to-first-request of the regular fat jar with the AOT + AppCDS build.
+#
+#   mvn -Pfast-startup -DskipTests package
+#   SPRING_DATASOURCE_URL=jdbc:postgresql://localhost:5432/insurance \
+#   SPRING_DATASOURCE_USERNAME=... SPRING_DATASOURCE_PASSWORD=... scripts/startup-benchmark.sh [runs]
+#
+# Each run starts the JVM and polls /actuator/health until it answers 200; the reported time is
+# from process launch to that first successful response.
+set -euo pipefail
+
+RUNS=${1:-5}
+PORT=${PORT:-18080}
+JAVA=${JAVA_HOME:+$JAVA_HOME/bin/}java
+TARGET=$(cd "$(dirname "$0")/../target" && pwd)
+JAR=$(cd "$TARGET" && ls insurance-management-*.jar | grep -v original | head -1)
+
+if [ ! -f "$TARGET/fast-startup/application.jsa" ]; then
+    echo "target/fast-startup/application.jsa not found, build with: mvn -Pfast-startup -DskipTests package" >&2
+    exit 1
+fi
+
+time_to_first_request() {
+    local dir=$1; shift
+    local start end pid
+    start=$(date +%s%N)
+    (cd "$dir" && exec "$JAVA" --enable-preview "$@" --server.port="$PORT" > /dev/null 2>&1) &
+    pid=$!
+    until curl -sf -o /dev/null "http://localhost:$PORT/actuator/health"; do
+        if ! kill -0 "$pid" 2> /dev/null; then
+            echo "application exited before serving a request" >&2
+            return 1
+        fi
+        sleep 0.02
+    done
+    end=$(date +%s%N)
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    echo $(( (end - start) / 1000000 ))
+}
+
+median() {
+    sort -n | awk '{ v[NR] = $1 } END { print (NR % 2) ? v[(NR + 1) / 2] : (v[NR / 2] + v[NR / 2 + 1]) / 2 }'
+}
+
+run() {
+    local label=$1; shift
+    local times=()
+    for _ in $(seq "$RUNS"); do
+        times+=("$(time_to_first_request "$@")")
+    done
+    printf '%-22s median %6s ms   runs: %s\n' "$label" "$(printf '%s\n' "${times[@]}" | median)" "${times[*]}"
+}
+
+run "fat jar" "$TARGET" -jar "$JAR"
+run "AOT + AppCDS" "$TARGET/fast-startup" \
+    -XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -jar "$JAR"
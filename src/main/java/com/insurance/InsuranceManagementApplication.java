@@ -1,12 +1,14 @@
 package com.insurance;
 
-import com.insurance.config.DevDatabaseConfiguration;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.context.annotation.Import;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
-@Import(DevDatabaseConfiguration.class)
+// The R2DBC stack is only wired for the "reactive" profile (see ReactiveDatabaseConfiguration)
+@SpringBootApplication(exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
+@EnableScheduling
 public class InsuranceManagementApplication {
     public static void main(String[] args) {
         SpringApplication.run(InsuranceManagementApplication.class, args);
@@ -0,0 +1,212 @@
+package com.insurance.clientids;
+
+import com.insurance.repository.ClientRepository;
+import com.insurance.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.longlong.Roaring64Bitmap;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+/**
+ * The ids of the existing clients, one compressed bitmap per shard, so that requests for clients that were deleted
+ * or never existed are rejected without a query.
+ * <p>
+ * Only absence is answered from memory, and only up to the watermark of the shard: the last id its sequence had
+ * handed out at the previous reload, a full {@link LiveClientIdsProperties#getResyncInterval() resync interval}
+ * before the ids were read, so that every client inserted with a lower id has committed by then. A higher id may
+ * belong to a client created since, or still being inserted, by this instance or another, and is looked up in the
+ * database as before. The first reload only reads the watermarks, so absence is answered from the second one. Creates and
+ * deletes of this instance update the bitmaps once committed; those of other instances are caught by the next
+ * reload. A client found in a bitmap is still read from the database, so one deleted elsewhere remains a 404.
+ */
+@Slf4j
+public class LiveClientIds implements DisposableBean {
+
+    private final ClientRepository clientRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("client-ids").factory());
+    private final AtomicBoolean resyncPending = new AtomicBoolean();
+    // Held by a reload while it reads, without pinning the carrier of the virtual thread like a monitor would.
+    private final Lock resyncLock = new ReentrantLock();
+    // The last allocated ids read by the previous reload, the watermarks of the next one; guarded by resyncLock.
+    private long[] lastAllocated;
+
+    // The bitmaps are changed under the write lock and read under the read lock; a reload replaces them all.
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Loaded loaded;
+    // Creates and deletes committed during a reload, replayed onto its bitmaps; guarded by the write lock.
+    private Map<Long, Boolean> changedDuringResync;
+
+    public LiveClientIds(ClientRepository clientRepository, ShardRouter shardRouter,
+                         PlatformTransactionManager transactionManager) {
+        this.clientRepository = clientRepository;
+        this.shardRouter = shardRouter;
+        // Read-write, so on the primary: a replica may not have the latest clients yet.
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Whether there is certainly no client with this id. {@code false} means it has to be looked up.
+     */
+    public boolean isKnownAbsent(Long id) {
+        Loaded current = loaded;
+        if (current == null || id == null) {
+            return false;
+        }
+        int shard = shardRouter.shardOf(id);
+        if (id > current.watermarks()[shard]) {
+            return false;
+        }
+        lock.readLock().lock();
+        try {
+            return !current.ids()[shard].contains(id);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void clientCreated(Long id) {
+        afterCommit(() -> update(id, true));
+    }
+
+    public void clientDeleted(Long id) {
+        afterCommit(() -> update(id, false));
+    }
+
+    /**
+     * Reloads the ids in the background, unless a reload is already waiting to start.
+     */
+    public void requestResync() {
+        if (resyncPending.compareAndSet(false, true)) {
+            executor.execute(this::resync);
+        }
+    }
+
+    /**
+     * Reloads the ids now, in the caller's thread.
+     */
+    public void resync() {
+        resyncLock.lock();
+        try {
+            resyncPending.set(false);
+            reload();
+        } finally {
+            resyncLock.unlock();
+        }
+    }
+
+    private void reload() {
+        lock.writeLock().lock();
+        try {
+            changedDuringResync = new LinkedHashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        Loaded reloaded = null;
+        try {
+            long[] watermarks = lastAllocated;
+            lastAllocated = transaction.execute(status ->
+                    shardRouter.onEachShard(false, shard -> clientRepository.findLastAllocatedId()))
+                    .stream().mapToLong(Long::longValue).toArray();
+            if (watermarks != null) {
+                List<Roaring64Bitmap> ids = transaction.execute(status ->
+                        shardRouter.onEachShard(false, shard -> loadIds()));
+                reloaded = new Loaded(watermarks, ids.toArray(Roaring64Bitmap[]::new));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not reload the live client ids; the previous ones are kept", e);
+        }
+
+        lock.writeLock().lock();
+        try {
+            if (reloaded != null) {
+                Loaded current = reloaded;
+                changedDuringResync.forEach((id, live) -> set(current, id, live));
+                loaded = current;
+            }
+            changedDuringResync = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        if (reloaded != null) {
+            log.debug("Reloaded the live client ids: {} clients",
+                    Stream.of(reloaded.ids()).mapToLong(Roaring64Bitmap::getLongCardinality).sum());
+        }
+    }
+
+    private Roaring64Bitmap loadIds() {
+        Roaring64Bitmap ids = new Roaring64Bitmap();
+        try (Stream<Long> stream = clientRepository.streamAllIds()) {
+            stream.forEach(ids::addLong);
+        }
+        ids.runOptimize();
+        return ids;
+    }
+
+    private void update(Long id, boolean live) {
+        lock.writeLock().lock();
+        try {
+            if (changedDuringResync != null) {
+                changedDuringResync.put(id, live);
+            }
+            Loaded current = loaded;
+            if (current != null) {
+                set(current, id, live);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void set(Loaded loaded, long id, boolean live) {
+        Roaring64Bitmap ids = loaded.ids()[shardRouter.shardOf(id)];
+        if (live) {
+            ids.addLong(id);
+        } else {
+            ids.removeLong(id);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    /**
+     * @param watermarks per shard, the highest id whose absence from {@code ids} means the client does not exist
+     */
+    private record Loaded(long[] watermarks, Roaring64Bitmap[] ids) {}
+}
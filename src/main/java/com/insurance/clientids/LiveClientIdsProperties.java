@@ -0,0 +1,17 @@
+package com.insurance.clientids;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.client-ids")
+public class LiveClientIdsProperties {
+
+    /**
+     * How often the live client ids are reloaded, to catch the creates and deletes of other instances. A reload
+     * trusts the ids allocated before the previous one, so it must be longer than any transaction inserting clients.
+     */
+    private Duration resyncInterval = Duration.ofMinutes(5);
+}
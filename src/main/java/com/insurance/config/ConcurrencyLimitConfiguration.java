@@ -0,0 +1,65 @@
+package com.insurance.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.limiter.AdaptiveConcurrencyLimiter;
+import com.insurance.limiter.ConcurrencyLimitFilter;
+import com.insurance.limiter.ConcurrencyLimitProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+@ConditionalOnProperty(prefix = "insurance.limiter", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitConfiguration {
+
+    @Bean
+    AdaptiveConcurrencyLimiter readConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        return register(limiter("read", properties.getRead(), properties), registry);
+    }
+
+    @Bean
+    AdaptiveConcurrencyLimiter writeConcurrencyLimiter(ConcurrencyLimitProperties properties, MeterRegistry registry) {
+        return register(limiter("write", properties.getWrite(), properties), registry);
+    }
+
+    @Bean
+    FilterRegistrationBean<ConcurrencyLimitFilter> concurrencyLimitFilter(
+            @Qualifier("readConcurrencyLimiter") AdaptiveConcurrencyLimiter readLimiter,
+            @Qualifier("writeConcurrencyLimiter") AdaptiveConcurrencyLimiter writeLimiter,
+            ObjectMapper objectMapper) {
+        FilterRegistrationBean<ConcurrencyLimitFilter> registration =
+                new FilterRegistrationBean<>(new ConcurrencyLimitFilter(readLimiter, writeLimiter, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        // Shed load before any other filter spends work on the request.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(String name, ConcurrencyLimitProperties.Budget budget,
+                                                      ConcurrencyLimitProperties properties) {
+        return new AdaptiveConcurrencyLimiter(name, budget.getInitialLimit(), budget.getMinLimit(),
+                budget.getMaxLimit(), properties.getTolerance(), properties.getSmoothing(),
+                properties.getBaselineWindow());
+    }
+
+    private static AdaptiveConcurrencyLimiter register(AdaptiveConcurrencyLimiter limiter, MeterRegistry registry) {
+        Gauge.builder("insurance.limiter.limit", limiter, AdaptiveConcurrencyLimiter::getLimit)
+                .tag("budget", limiter.getName())
+                .register(registry);
+        Gauge.builder("insurance.limiter.in_flight", limiter, AdaptiveConcurrencyLimiter::getInFlight)
+                .tag("budget", limiter.getName())
+                .register(registry);
+        FunctionCounter.builder("insurance.limiter.rejected", limiter, AdaptiveConcurrencyLimiter::getRejected)
+                .tag("budget", limiter.getName())
+                .register(registry);
+        return limiter;
+    }
+}
@@ -0,0 +1,80 @@
+package com.insurance.config;
+
+import com.insurance.datasource.ReplicaRoutingDataSource;
+import com.insurance.datasource.ReplicaRoutingProperties;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.TaskScheduler;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ReplicaRoutingProperties.class)
+public class DataSourceRoutingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "insurance.datasource.routing", name = "enabled", havingValue = "true")
+    ReplicaRoutingDataSource replicaRoutingDataSource(
+            ReplicaRoutingProperties routing,
+            DataSourceProperties dataSourceProperties,
+            ObjectProvider<JdbcConnectionDetails> connectionDetails,
+            ObjectProvider<ReplicaRoutingProperties.Replica> extraReplicas,
+            Environment environment,
+            TaskScheduler taskScheduler) {
+
+        JdbcConnectionDetails primaryDetails = connectionDetails.getIfAvailable();
+        HikariDataSource primary = primaryDetails != null
+                ? hikari(environment, "primary", primaryDetails.getJdbcUrl(),
+                primaryDetails.getUsername(), primaryDetails.getPassword())
+                : hikari(environment, "primary", dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+
+        List<ReplicaRoutingProperties.Replica> configured = new ArrayList<>(routing.getReplicas());
+        extraReplicas.orderedStream().forEach(configured::add);
+
+        List<DataSource> replicas = new ArrayList<>(configured.size());
+        for (int i = 0; i < configured.size(); i++) {
+            ReplicaRoutingProperties.Replica replica = configured.get(i);
+            HikariDataSource replicaDataSource = hikari(environment, "replica-" + (i + 1),
+                    replica.getUrl(), replica.getUsername(), replica.getPassword());
+            replicaDataSource.setReadOnly(true);
+            replicas.add(replicaDataSource);
+        }
+
+        ReplicaRoutingDataSource routingDataSource =
+                new ReplicaRoutingDataSource(primary, replicas, routing.getMaxReplicationLag());
+        taskScheduler.scheduleWithFixedDelay(routingDataSource::checkReplicaHealth, routing.getHealthCheckInterval());
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "insurance.datasource.routing", name = "enabled", havingValue = "true")
+    DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    static HikariDataSource hikari(Environment environment, String poolName,
+                                           String url, String username, String password) {
+        HikariDataSource dataSource = new HikariDataSource();
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        dataSource.setPoolName(poolName);
+        dataSource.setJdbcUrl(url);
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        return dataSource;
+    }
+}
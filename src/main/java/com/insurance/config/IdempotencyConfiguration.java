@@ -0,0 +1,40 @@
+package com.insurance.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.idempotency.IdempotencyFilter;
+import com.insurance.idempotency.IdempotencyProperties;
+import com.insurance.idempotency.IdempotencyStore;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(IdempotencyProperties.class)
+@ConditionalOnProperty(prefix = "insurance.idempotency", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyConfiguration {
+
+    @Bean
+    IdempotencyStore idempotencyStore(IdempotencyProperties properties, MeterRegistry registry) {
+        IdempotencyStore store = new IdempotencyStore(properties.getTtl(), properties.getMaxEntries());
+        Gauge.builder("insurance.idempotency.keys", store, IdempotencyStore::size).register(registry);
+        return store;
+    }
+
+    @Bean
+    FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+                                                               IdempotencyProperties properties,
+                                                               ObjectMapper objectMapper,
+                                                               MeterRegistry registry) {
+        FilterRegistrationBean<IdempotencyFilter> registration = new FilterRegistrationBean<>(
+                new IdempotencyFilter(store, properties.getWaitTimeout(), objectMapper, registry));
+        registration.addUrlPatterns("/api/contracts", "/api/contracts/*");
+        // Ahead of the concurrency limiter: replays and waiting duplicates must not hold a permit.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+}
@@ -0,0 +1,39 @@
+package com.insurance.config;
+
+import com.insurance.jobs.JobProperties;
+import com.insurance.jobs.JobRunner;
+import com.insurance.repository.JobCheckpointRepository;
+import com.insurance.repository.JobRepository;
+import com.insurance.services.ContractService;
+import com.insurance.sharding.ShardRouter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(JobProperties.class)
+public class JobConfiguration {
+
+    @Bean
+    JobRunner jobRunner(JobRepository jobRepository, JobCheckpointRepository checkpointRepository,
+                        ContractService contractService, ShardRouter shardRouter,
+                        PlatformTransactionManager transactionManager, JobProperties properties) {
+        return new JobRunner(jobRepository, checkpointRepository, contractService, shardRouter, transactionManager,
+                properties);
+    }
+
+    /**
+     * Starts polling once the application is ready, not while the context is refreshed (also by the training run of
+     * {@code -Dspring.context.exit=onRefresh}, which must not query the database).
+     */
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> jobPolling(JobRunner runner, JobProperties properties,
+                                                          TaskScheduler taskScheduler) {
+        // The first poll, right away, resumes the jobs interrupted by a restart.
+        return event -> taskScheduler.scheduleWithFixedDelay(runner::pollJobs, properties.getPollInterval());
+    }
+}
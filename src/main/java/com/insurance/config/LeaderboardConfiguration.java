@@ -0,0 +1,41 @@
+package com.insurance.config;
+
+import com.insurance.leaderboard.LeaderboardProperties;
+import com.insurance.leaderboard.PremiumLeaderboard;
+import com.insurance.repository.ContractRepository;
+import com.insurance.sharding.ShardRouter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(LeaderboardProperties.class)
+public class LeaderboardConfiguration {
+
+    @Bean
+    PremiumLeaderboard premiumLeaderboard(ContractRepository contractRepository, ShardRouter shardRouter,
+                                          PlatformTransactionManager transactionManager,
+                                          LeaderboardProperties properties) {
+        return new PremiumLeaderboard(contractRepository, shardRouter, transactionManager, properties);
+    }
+
+    /**
+     * Starts the recounts once the application is ready, not while the context is refreshed (also by the training
+     * run of {@code -Dspring.context.exit=onRefresh}, which must not query the database).
+     */
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> leaderboardReconcile(PremiumLeaderboard leaderboard,
+                                                                    LeaderboardProperties properties,
+                                                                    TaskScheduler taskScheduler) {
+        return event -> {
+            // The first recount, right away, fills the leaderboard.
+            taskScheduler.scheduleWithFixedDelay(leaderboard::requestReconcile, properties.getReconcileInterval());
+            taskScheduler.schedule(leaderboard::requestReconcile, new CronTrigger(properties.getExpiryCron()));
+        };
+    }
+}
@@ -0,0 +1,37 @@
+package com.insurance.config;
+
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.clientids.LiveClientIdsProperties;
+import com.insurance.repository.ClientRepository;
+import com.insurance.sharding.ShardRouter;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(LiveClientIdsProperties.class)
+public class LiveClientIdsConfiguration {
+
+    @Bean
+    LiveClientIds liveClientIds(ClientRepository clientRepository, ShardRouter shardRouter,
+                                PlatformTransactionManager transactionManager) {
+        return new LiveClientIds(clientRepository, shardRouter, transactionManager);
+    }
+
+    /**
+     * Starts the reloads once the application is ready, not while the context is refreshed (also by the training
+     * run of {@code -Dspring.context.exit=onRefresh}, which must not query the database).
+     */
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> liveClientIdsResync(LiveClientIds liveClientIds,
+                                                                   LiveClientIdsProperties properties,
+                                                                   TaskScheduler taskScheduler) {
+        // The first reload, right away, reads the watermarks; until the second one every lookup goes to the database.
+        return event -> taskScheduler.scheduleWithFixedDelay(liveClientIds::requestResync,
+                properties.getResyncInterval());
+    }
+}
@@ -0,0 +1,69 @@
+package com.insurance.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.jdbc.JdbcConnectionDetails;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+/**
+ * R2DBC stack for the non-blocking contract read endpoints. It connects to the same database as
+ * the JPA stack (derived from the JDBC settings).
+ * <p>
+ * The connection pool is deliberately not exposed as a {@link ConnectionFactory} bean: Boot's JDBC
+ * DataSource auto-configuration backs off when one exists, and an R2DBC transaction manager would
+ * compete with JPA for {@code @Transactional}.
+ */
+@Configuration(proxyBeanMethods = false)
+@Profile("reactive")
+public class ReactiveDatabaseConfiguration implements DisposableBean {
+
+    private ConnectionPool connectionPool;
+
+    @Bean
+    DatabaseClient databaseClient(DataSourceProperties dataSourceProperties,
+                                  ObjectProvider<JdbcConnectionDetails> connectionDetails,
+                                  @Value("${insurance.reactive.pool.max-size:20}") int maxSize) {
+        JdbcConnectionDetails details = connectionDetails.getIfAvailable();
+        String jdbcUrl = details != null ? details.getJdbcUrl() : dataSourceProperties.determineUrl();
+        String username = details != null ? details.getUsername() : dataSourceProperties.determineUsername();
+        String password = details != null ? details.getPassword() : dataSourceProperties.determinePassword();
+
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(toR2dbcUrl(jdbcUrl)).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        ConnectionFactory connectionFactory = ConnectionFactories.get(options);
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .name("reactive")
+                .maxSize(maxSize)
+                .build());
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Override
+    public void destroy() {
+        if (connectionPool != null) {
+            connectionPool.dispose();
+        }
+    }
+
+    static String toR2dbcUrl(String jdbcUrl) {
+        if (jdbcUrl == null || !jdbcUrl.startsWith("jdbc:")) {
+            throw new IllegalStateException("Cannot derive an R2DBC URL from JDBC URL: " + jdbcUrl);
+        }
+        String url = "r2dbc:" + jdbcUrl.substring("jdbc:".length());
+        // JDBC-only query parameters are not understood by the R2DBC driver.
+        int query = url.indexOf('?');
+        return query < 0 ? url : url.substring(0, query);
+    }
+}
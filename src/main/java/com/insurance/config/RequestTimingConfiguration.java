@@ -0,0 +1,55 @@
+package com.insurance.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.timing.RequestTimingProperties;
+import com.insurance.timing.ServerTimingFilter;
+import com.insurance.timing.SqlTimingListener;
+import com.insurance.timing.TimedJdbcProxyFactory;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(RequestTimingProperties.class)
+@ConditionalOnProperty(prefix = "insurance.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RequestTimingConfiguration {
+
+    @Bean
+    FilterRegistrationBean<ServerTimingFilter> serverTimingFilter(RequestTimingProperties properties,
+                                                                  ObjectMapper objectMapper) {
+        FilterRegistrationBean<ServerTimingFilter> registration =
+                new FilterRegistrationBean<>(new ServerTimingFilter(properties, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        // Outermost, so the total includes idempotency waits and concurrency-limiter rejections.
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    @Bean
+    static BeanPostProcessor sqlTimingDataSourcePostProcessor() {
+        SqlTimingListener listener = new SqlTimingListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // With replica routing this is the lazy proxy: pool wait then shows up in the first statement.
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet()
+                            .jdbcProxyFactory(new TimedJdbcProxyFactory())
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package com.insurance.config;
+
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Hibernate second-level cache for clients and query cache for the active-contract reads, backed by
+ * Ehcache through JCache (regions in {@code ehcache.xml}).
+ * <p>
+ * Invalidation is Hibernate's: entity writes update the {@code clients} region, and any write to the
+ * {@code contracts} or {@code clients} tables through Hibernate (including native queries that declare
+ * their tables) discards the cached query results for that table. That only holds within one instance;
+ * on the others a cached entry lives until its TTL (30 seconds). Statistics are enabled so the hit and
+ * miss counts are published as {@code hibernate.second.level.cache.requests} and
+ * {@code hibernate.cache.query.requests} meters.
+ */
+@Configuration(proxyBeanMethods = false)
+public class SecondLevelCacheConfiguration {
+
+    @Bean
+    HibernatePropertiesCustomizer secondLevelCacheCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            properties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            properties.put(ConfigSettings.PROVIDER, "org.ehcache.jsr107.EhcacheCachingProvider");
+            properties.put(ConfigSettings.CONFIG_URI, "ehcache.xml");
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            properties.put(AvailableSettings.GENERATE_STATISTICS, true);
+        };
+    }
+}
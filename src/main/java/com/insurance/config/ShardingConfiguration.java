@@ -0,0 +1,71 @@
+package com.insurance.config;
+
+import com.insurance.sharding.ShardRouter;
+import com.insurance.sharding.ShardRoutingDataSource;
+import com.insurance.sharding.ShardingProperties;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration(proxyBeanMethods = false)
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "insurance.sharding", name = "enabled", havingValue = "true")
+    ShardRoutingDataSource shardRoutingDataSource(ShardingProperties sharding,
+                                                  ObjectProvider<ShardingProperties.Shard> extraShards,
+                                                  Environment environment) throws SQLException {
+        // Both route on the same connection; a replica of one shard would need to be chosen per shard.
+        if (environment.getProperty("insurance.datasource.routing.enabled", Boolean.class, false)) {
+            throw new IllegalStateException("Sharding cannot be combined with replica routing");
+        }
+        List<ShardingProperties.Shard> configured = new ArrayList<>(sharding.getShards());
+        extraShards.orderedStream().forEach(configured::add);
+        if (configured.isEmpty()) {
+            throw new IllegalStateException("insurance.sharding.shards must list at least one database");
+        }
+
+        List<DataSource> shards = new ArrayList<>(configured.size());
+        for (int i = 0; i < configured.size(); i++) {
+            ShardingProperties.Shard shard = configured.get(i);
+            shards.add(DataSourceRoutingConfiguration.hikari(environment, "shard-" + i,
+                    shard.getUrl(), shard.getUsername(), shard.getPassword()));
+        }
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+
+        if (sharding.isInitializeSchema()) {
+            ResourceDatabasePopulator schema = new ResourceDatabasePopulator(new ClassPathResource("schema.sql"));
+            shards.forEach(schema::execute);
+        }
+        routingDataSource.alignIdSequences();
+        return routingDataSource;
+    }
+
+    @Bean
+    @Primary
+    @ConditionalOnProperty(prefix = "insurance.sharding", name = "enabled", havingValue = "true")
+    DataSource dataSource(ShardRoutingDataSource shardRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(shardRoutingDataSource);
+    }
+
+    @Bean
+    ShardRouter shardRouter(ObjectProvider<ShardRoutingDataSource> shardRoutingDataSource,
+                            PlatformTransactionManager transactionManager) {
+        ShardRoutingDataSource sharded = shardRoutingDataSource.getIfAvailable();
+        return sharded == null ? ShardRouter.unsharded() : new ShardRouter(sharded.shardCount(), transactionManager);
+    }
+}
@@ -1,30 +1,119 @@
 package com.insurance.controllers;
 
 import com.insurance.dto.*;
+import com.insurance.services.ClientImportService;
 import com.insurance.services.ClientService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
 
 @RestController
 @RequestMapping("/api/clients")
 @RequiredArgsConstructor
 public class ClientController {
+    private static final List<String> CLIENT_FIELDS = SparseFieldset.fieldsOf(PersonDTO.class, CompanyDTO.class);
+
     private final ClientService clientService;
+    private final ClientImportService clientImportService;
 
     @PostMapping
-    public ResponseEntity<ClientDTO> createClient(@Valid @RequestBody ClientDTO clientDTO) {
+    public ResponseEntity<ClientDTO> createClient(@Valid @RequestBody ClientDTO clientDTO,
+                                                  @RequestParam(defaultValue = "false") boolean upsert) {
+        if (upsert) {
+            UpsertedClientDTO upserted = clientService.upsertClient(clientDTO);
+            HttpStatus status = upserted.created() ? HttpStatus.CREATED : HttpStatus.OK;
+            return ResponseEntity.status(status).body(upserted.client());
+        }
         ClientDTO created = clientService.createClient(clientDTO);
         return ResponseEntity.status(HttpStatus.CREATED).body(created);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkUpsertResultDTO> upsertClients(@Valid @RequestBody ClientBatchDTO batch) {
+        BulkUpsertResultDTO result = clientService.upsertClients(batch.clients());
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ClientImportResultDTO> importClientsCsv(InputStream body) throws IOException {
+        ClientImportResultDTO result = clientImportService.importCsv(body);
+        return ResponseEntity.ok(result);
+    }
+
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ClientImportResultDTO> importClientsNdjson(InputStream body) throws IOException {
+        ClientImportResultDTO result = clientImportService.importNdjson(body);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * {@code GET /api/clients?ids=1,2,3}: a page of clients in one round trip instead of one request each.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<ClientBatchResultDTO> getClients(@RequestParam List<Long> ids) {
+        ClientBatchResultDTO result = clientService.getClients(ids);
+        return ResponseEntity.ok(result);
+    }
+
+    /**
+     * {@code GET /api/clients?type=COMPANY&name=ac&hasActiveContracts=true&sort=name}: every matching client,
+     * page by page; {@code cursor} is the {@code nextCursor} of the previous page.
+     */
+    @GetMapping
+    public ResponseEntity<ClientListDTO> listClients(
+            ClientListCriteria criteria,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        ClientListDTO page = clientService.listClients(criteria, sort, cursor, size);
+        return ResponseEntity.ok(page);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<ClientPageDTO> searchClients(
+            ClientSearchCriteria criteria,
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+        ClientPageDTO page = clientService.searchClients(criteria, after, size);
+        return ResponseEntity.ok(page);
+    }
+
+    /**
+     * {@code GET /api/clients/leaderboard?size=100}: the clients with the highest active premium.
+     */
+    @GetMapping("/leaderboard")
+    public ResponseEntity<PremiumLeaderboardDTO> getPremiumLeaderboard(@RequestParam(defaultValue = "100") int size) {
+        PremiumLeaderboardDTO leaderboard = clientService.getPremiumLeaderboard(size);
+        return ResponseEntity.ok(leaderboard);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<ClientDTO> getClient(@PathVariable Long id) {
+    public ResponseEntity<?> getClient(@PathVariable Long id, @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            ClientDTO client = clientService.getClient(id);
+            return ResponseEntity.ok(client);
+        }
+        Set<String> fieldset = SparseFieldset.parse(fields, CLIENT_FIELDS);
         ClientDTO client = clientService.getClient(id);
-        return ResponseEntity.ok(client);
+        // The type discriminator is always kept; fields that do not exist on the client's type are left out.
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("type", switch (client) {
+            case PersonDTO person -> ClientDTO.PERSON;
+            case CompanyDTO company -> ClientDTO.COMPANY;
+        });
+        body.putAll(SparseFieldset.select((Record) client, fieldset));
+        return ResponseEntity.ok(body);
     }
 
     @PutMapping("/{id}")
@@ -1,10 +1,14 @@
 package com.insurance.controllers;
 
+import com.insurance.dto.ContractColumnsDTO;
 import com.insurance.dto.ContractDTO;
 import com.insurance.dto.ContractResponseDTO;
 import com.insurance.dto.ContractSumDTO;
 import com.insurance.dto.ContractUpdateDTO;
+import com.insurance.dto.PremiumScheduleDTO;
+import com.insurance.dto.SparseFieldset;
 import com.insurance.services.ContractService;
+import com.insurance.services.PremiumScheduleService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -14,12 +18,15 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @RestController
 @RequestMapping("/api/contracts")
 @RequiredArgsConstructor
 class ContractController {
     private final ContractService contractService;
+    private final PremiumScheduleService premiumScheduleService;
 
     @PostMapping
     public ResponseEntity<ContractResponseDTO> createContract(@Valid @RequestBody ContractDTO contractDTO) {
@@ -36,17 +43,58 @@ class ContractController {
     }
 
     @GetMapping("/client/{clientId}")
-    public ResponseEntity<List<ContractResponseDTO>> getActiveContracts(
+    public ResponseEntity<List<?>> getActiveContracts(
             @PathVariable Long clientId,
             @RequestParam(required = false)
-            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updateDate) {
-        List<ContractResponseDTO> contracts = contractService.getActiveContracts(clientId, updateDate);
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updateDate,
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            List<ContractResponseDTO> contracts = contractService.getActiveContracts(clientId, updateDate);
+            return ResponseEntity.ok(contracts);
+        }
+        Set<String> fieldset = SparseFieldset.parse(fields, ContractResponseDTO.FIELDS);
+        List<Map<String, Object>> contracts = contractService.getActiveContracts(clientId, updateDate, fieldset)
+                .stream()
+                .map(contract -> SparseFieldset.select(contract, fieldset))
+                .toList();
         return ResponseEntity.ok(contracts);
     }
 
+    @GetMapping(value = "/client/{clientId}", produces = ContractColumnsDTO.MEDIA_TYPE)
+    public ResponseEntity<ContractColumnsDTO> getActiveContractsColumns(
+            @PathVariable Long clientId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updateDate,
+            @RequestParam(required = false) String fields) {
+        if (fields == null) {
+            List<ContractResponseDTO> contracts = contractService.getActiveContracts(clientId, updateDate);
+            return ResponseEntity.ok(ContractColumnsDTO.from(contracts));
+        }
+        Set<String> fieldset = SparseFieldset.parse(fields, ContractResponseDTO.FIELDS);
+        List<ContractResponseDTO> contracts = contractService.getActiveContracts(clientId, updateDate, fieldset);
+        return ResponseEntity.ok(ContractColumnsDTO.from(contracts, fieldset));
+    }
+
     @GetMapping("/client/{clientId}/sum")
     public ResponseEntity<ContractSumDTO> getActiveContractsSum(@PathVariable Long clientId) {
         ContractSumDTO sum = contractService.getActiveContractsSum(clientId);
         return ResponseEntity.ok(sum);
     }
-}
\ No newline at end of file
+
+    @GetMapping("/sum")
+    public ResponseEntity<ContractSumDTO> getPortfolioSum() {
+        return ResponseEntity.ok(contractService.getPortfolioSum());
+    }
+
+    @GetMapping("/client/{clientId}/schedule")
+    public ResponseEntity<PremiumScheduleDTO> getClientPremiumSchedule(
+            @PathVariable Long clientId,
+            @RequestParam(defaultValue = "12") int months) {
+        return ResponseEntity.ok(premiumScheduleService.getClientSchedule(clientId, months));
+    }
+
+    @GetMapping("/schedule")
+    public ResponseEntity<PremiumScheduleDTO> getPremiumSchedule(@RequestParam(defaultValue = "12") int months) {
+        return ResponseEntity.ok(premiumScheduleService.getBookSchedule(months));
+    }
+}
@@ -0,0 +1,84 @@
+package com.insurance.controllers;
+
+import com.insurance.dto.ExportDTO;
+import com.insurance.dto.ExportDTO.Dataset;
+import com.insurance.dto.ExportDTO.Format;
+import com.insurance.services.ExportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Full-book exports. Downloads are handed to Tomcat's sendfile when the connector supports it, so the
+ * kernel copies the file to the socket without a request thread; otherwise the file is streamed with
+ * {@link FileChannel#transferTo} on an async thread.
+ */
+@RestController
+@RequestMapping("/api/exports")
+@RequiredArgsConstructor
+class ExportController {
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final ExportService exportService;
+
+    @PostMapping
+    public ResponseEntity<ExportDTO> startExport(@RequestParam String dataset,
+                                                 @RequestParam(defaultValue = "csv") String format) {
+        ExportDTO export = exportService.startExport(
+                ExportDTO.parse(Dataset.class, dataset), ExportDTO.parse(Format.class, format));
+        return ResponseEntity.accepted().location(URI.create("/api/exports/" + export.name())).body(export);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ExportDTO>> listExports() {
+        return ResponseEntity.ok(exportService.listExports());
+    }
+
+    @GetMapping("/{name}")
+    public ResponseEntity<StreamingResponseBody> downloadExport(@PathVariable String name,
+                                                                HttpServletRequest request) throws IOException {
+        Path file = exportService.getExportFile(name);
+        long size = Files.size(file);
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(HttpStatus.OK)
+                .contentType(GZIP)
+                .contentLength(size)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(name).build().toString());
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, 0L);
+            request.setAttribute(SENDFILE_END, size);
+            return response.build();
+        }
+        return response.body(out -> {
+            try (FileChannel channel = FileChannel.open(file)) {
+                WritableByteChannel target = Channels.newChannel(out);
+                for (long position = 0; position < size; ) {
+                    position += channel.transferTo(position, size - position, target);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+}
@@ -0,0 +1,32 @@
+package com.insurance.controllers;
+
+import com.insurance.dto.JobDTO;
+import com.insurance.dto.JobRequestDTO;
+import com.insurance.services.JobService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+
+/**
+ * Bulk contract changes, run in the background: submitting returns at once, progress is polled.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+class JobController {
+    private final JobService jobService;
+
+    @PostMapping
+    public ResponseEntity<JobDTO> submitJob(@Valid @RequestBody JobRequestDTO request) {
+        JobDTO job = jobService.submitJob(request);
+        return ResponseEntity.accepted().location(URI.create("/api/jobs/" + job.id())).body(job);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<JobDTO> getJob(@PathVariable Long id) {
+        return ResponseEntity.ok(jobService.getJob(id));
+    }
+}
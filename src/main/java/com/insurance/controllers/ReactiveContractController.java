@@ -0,0 +1,47 @@
+package com.insurance.controllers;
+
+import com.insurance.dto.ContractResponseDTO;
+import com.insurance.dto.ContractSumDTO;
+import com.insurance.services.ReactiveContractService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+/**
+ * Contract reads over R2DBC. The list is streamed as NDJSON by default: contracts are written as they are read
+ * from the database, paced by how fast the client consumes them. {@code application/json} has to be asked for
+ * and collects the whole list in memory first.
+ * <p>
+ * These endpoints run on Spring MVC, not on a reactive server: the database reads hold no thread, but each
+ * stream is written with blocking servlet I/O from an MVC async executor thread, which a slow consumer keeps busy.
+ */
+@RestController
+@RequestMapping("/api/reactive/contracts")
+@Profile("reactive")
+@RequiredArgsConstructor
+class ReactiveContractController {
+    private final ReactiveContractService contractService;
+
+    @GetMapping(value = "/client/{clientId}",
+            produces = {MediaType.APPLICATION_NDJSON_VALUE, MediaType.APPLICATION_JSON_VALUE})
+    public Mono<ResponseEntity<Flux<ContractResponseDTO>>> getActiveContracts(
+            @PathVariable Long clientId,
+            @RequestParam(required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate updateDate) {
+        // Resolve the 404 before the streaming response is committed.
+        return contractService.requireClient(clientId)
+                .then(Mono.fromSupplier(() -> ResponseEntity.ok(contractService.getActiveContracts(clientId, updateDate))));
+    }
+
+    @GetMapping("/client/{clientId}/sum")
+    public Mono<ContractSumDTO> getActiveContractsSum(@PathVariable Long clientId) {
+        return contractService.getActiveContractsSum(clientId);
+    }
+}
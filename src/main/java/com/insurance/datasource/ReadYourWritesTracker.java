@@ -0,0 +1,66 @@
+package com.insurance.datasource;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers which clients were written recently so that their reads can be pinned to the
+ * primary until the replicas have had time to catch up.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final long windowNanos;
+    private final int maxTracked;
+    private final ConcurrentHashMap<Long, Long> pinnedUntil = new ConcurrentHashMap<>();
+    private volatile long allPinnedUntil = System.nanoTime();
+
+    public ReadYourWritesTracker(ReplicaRoutingProperties properties) {
+        this.windowNanos = properties.isEnabled() ? properties.getReadYourWritesWindow().toNanos() : 0;
+        this.maxTracked = properties.getReadYourWritesMaxTracked();
+    }
+
+    public void recordWrite(Long clientId) {
+        if (windowNanos <= 0 || clientId == null) {
+            return;
+        }
+        if (pinnedUntil.size() >= maxTracked) {
+            purgeExpired();
+            if (pinnedUntil.size() >= maxTracked) {
+                // Too many concurrent writers to track individually; keep every read on the primary instead.
+                allPinnedUntil = System.nanoTime() + windowNanos;
+                return;
+            }
+        }
+        pinnedUntil.put(clientId, System.nanoTime() + windowNanos);
+    }
+
+    public boolean isRecentlyWritten(Long clientId) {
+        if (windowNanos <= 0 || clientId == null) {
+            return false;
+        }
+        long now = System.nanoTime();
+        if (allPinnedUntil - now > 0) {
+            return true;
+        }
+        Long until = pinnedUntil.get(clientId);
+        return until != null && until - now > 0;
+    }
+
+    /**
+     * Pins the current transaction to the primary if the client was written within the window.
+     */
+    public void pinIfRecentlyWritten(Long clientId) {
+        if (isRecentlyWritten(clientId)) {
+            DataSourceRoutingContext.pinToPrimary();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${insurance.datasource.routing.read-your-writes-purge-interval:PT10S}")
+    public void purgeExpired() {
+        long now = System.nanoTime();
+        pinnedUntil.values().removeIf(until -> until - now <= 0);
+    }
+}
@@ -0,0 +1,161 @@
+package com.insurance.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends connections requested inside read-only transactions to a healthy replica (round-robin)
+ * and everything else to the primary. If no replica is healthy, or a replica refuses a connection,
+ * the primary is used instead.
+ * <p>
+ * The routing decision is made when a connection is requested, so this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: the transaction's
+ * read-only flag is only known after the transaction manager has started the transaction.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private static final String REPLICATION_LAG_SQL =
+            "SELECT COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) " +
+                    "WHERE pg_is_in_recovery() " +
+                    "AND pg_last_wal_receive_lsn() IS DISTINCT FROM pg_last_wal_replay_lsn()";
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final Duration maxReplicationLag;
+    private final AtomicInteger next = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary, List<DataSource> replicas, Duration maxReplicationLag) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxReplicationLag = maxReplicationLag;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (shouldUseReplica()) {
+            Replica replica = nextHealthyReplica();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException ex) {
+                    replica.markDown(ex.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (shouldUseReplica()) {
+            Replica replica = nextHealthyReplica();
+            if (replica != null) {
+                try {
+                    return replica.dataSource.getConnection(username, password);
+                } catch (SQLException ex) {
+                    replica.markDown(ex.getMessage());
+                }
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+
+    /**
+     * Probes every replica: it must hand out a valid connection and must not lag behind
+     * the primary by more than the configured maximum.
+     */
+    public void checkReplicaHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.setQueryTimeout(2);
+                double lagSeconds = 0;
+                try (ResultSet rs = statement.executeQuery(REPLICATION_LAG_SQL)) {
+                    if (rs.next()) {
+                        lagSeconds = rs.getDouble(1);
+                    }
+                }
+                if (lagSeconds * 1000 > maxReplicationLag.toMillis()) {
+                    replica.markDown("replication lag " + lagSeconds + "s");
+                } else {
+                    replica.markUp();
+                }
+            } catch (SQLException ex) {
+                replica.markDown(ex.getMessage());
+            }
+        }
+    }
+
+    public int healthyReplicaCount() {
+        return (int) replicas.stream().filter(r -> r.healthy).count();
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        closeQuietly(primary);
+        replicas.forEach(replica -> closeQuietly(replica.dataSource));
+    }
+
+    private boolean shouldUseReplica() {
+        return !replicas.isEmpty()
+                && TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !DataSourceRoutingContext.isPrimaryPinned();
+    }
+
+    private Replica nextHealthyReplica() {
+        int size = replicas.size();
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica candidate = replicas.get((start + i) % size);
+            if (candidate.healthy) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static void closeQuietly(DataSource dataSource) {
+        if (dataSource instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception ex) {
+                log.warn("Failed to close data source {}", dataSource, ex);
+            }
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        private Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        private void markDown(String reason) {
+            if (healthy) {
+                log.warn("Read replica {} marked unhealthy, falling back to primary: {}", dataSource, reason);
+            }
+            healthy = false;
+        }
+
+        private void markUp() {
+            if (!healthy) {
+                log.info("Read replica {} is healthy again", dataSource);
+            }
+            healthy = true;
+        }
+    }
+}
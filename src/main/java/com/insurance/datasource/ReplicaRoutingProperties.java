@@ -0,0 +1,52 @@
+package com.insurance.datasource;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.datasource.routing")
+public class ReplicaRoutingProperties {
+
+    /**
+     * Route read-only transactions to the configured replicas.
+     */
+    private boolean enabled = false;
+
+    private List<Replica> replicas = new ArrayList<>();
+
+    /**
+     * How often each replica is probed; unhealthy replicas are skipped until they pass again.
+     */
+    private Duration healthCheckInterval = Duration.ofSeconds(5);
+
+    /**
+     * Replicas lagging further behind the primary than this are treated as unhealthy.
+     */
+    private Duration maxReplicationLag = Duration.ofSeconds(10);
+
+    /**
+     * After a write touching a client, reads for that client stay on the primary for this long.
+     * Zero disables read-your-writes pinning.
+     */
+    private Duration readYourWritesWindow = Duration.ofSeconds(2);
+
+    /**
+     * Upper bound on the number of clients tracked for read-your-writes at once.
+     */
+    private int readYourWritesMaxTracked = 100_000;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Replica {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
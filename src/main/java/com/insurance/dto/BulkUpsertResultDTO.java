@@ -0,0 +1,20 @@
+package com.insurance.dto;
+
+import java.util.List;
+
+/**
+ * @param received   clients in the batch
+ * @param duplicates clients dropped because a later one in the batch had the same key
+ * @param created    clients inserted
+ * @param updated    existing clients updated
+ * @param rejected   clients not upserted because the transaction of their shard was rolled back
+ * @param shards     the same counts per shard; the shards that committed stay committed when another fails
+ */
+public record BulkUpsertResultDTO(
+        int received,
+        int duplicates,
+        int created,
+        int updated,
+        int rejected,
+        List<ShardUpsertResultDTO> shards
+) {}
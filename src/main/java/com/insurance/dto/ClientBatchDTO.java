@@ -0,0 +1,13 @@
+package com.insurance.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record ClientBatchDTO(
+        @NotEmpty(message = "At least one client is required")
+        @Size(max = 10000, message = "At most 10000 clients per batch")
+        List<@Valid ClientDTO> clients
+) {}
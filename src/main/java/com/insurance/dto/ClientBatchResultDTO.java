@@ -0,0 +1,12 @@
+package com.insurance.dto;
+
+import java.util.List;
+
+/**
+ * The clients found for a list of ids, in the order the ids were given (each id once), and the ids no client
+ * has.
+ */
+public record ClientBatchResultDTO(
+        List<ClientDTO> clients,
+        List<Long> missingIds
+) {}
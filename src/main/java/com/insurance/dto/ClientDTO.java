@@ -5,10 +5,15 @@ import com.fasterxml.jackson.annotation.JsonTypeInfo;
 
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
 @JsonSubTypes({
-        @JsonSubTypes.Type(value = PersonDTO.class, name = "PERSON"),
-        @JsonSubTypes.Type(value = CompanyDTO.class, name = "COMPANY")
+        @JsonSubTypes.Type(value = PersonDTO.class, name = ClientDTO.PERSON),
+        @JsonSubTypes.Type(value = CompanyDTO.class, name = ClientDTO.COMPANY)
 })
 public sealed interface ClientDTO permits PersonDTO, CompanyDTO {
+
+    // The values of the "type" property.
+    String PERSON = "PERSON";
+    String COMPANY = "COMPANY";
+
     Long id();
     String name();
     String email();
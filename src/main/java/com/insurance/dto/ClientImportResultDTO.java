@@ -0,0 +1,30 @@
+package com.insurance.dto;
+
+import java.util.List;
+
+/**
+ * @param received   rows read, valid or not
+ * @param invalid    rows that could not be parsed or failed validation
+ * @param duplicates valid rows dropped because a later row in the same chunk had the same key
+ * @param created    clients inserted
+ * @param updated    existing clients updated
+ * @param rejected   valid rows the database rejected, e.g. for a unique violation
+ * @param errors     the invalid and rejected rows, at most {@code MAX_REPORTED_ERRORS} of them
+ */
+public record ClientImportResultDTO(
+        long received,
+        long invalid,
+        long duplicates,
+        long created,
+        long updated,
+        long rejected,
+        List<RowError> errors
+) {
+    public static final int MAX_REPORTED_ERRORS = 1000;
+
+    /**
+     * @param line   line of the row in the uploaded file (the CSV header is line 1)
+     * @param errors what is wrong with it, as {@code field: message} where a field is known
+     */
+    public record RowError(long line, List<String> errors) {}
+}
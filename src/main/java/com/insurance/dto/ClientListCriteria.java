@@ -0,0 +1,20 @@
+package com.insurance.dto;
+
+/**
+ * Filters of {@code GET /api/clients}; the given ones are combined with AND.
+ *
+ * @param type               {@code PERSON} or {@code COMPANY}
+ * @param name               case-insensitive name prefix
+ * @param hasActiveContracts whether the client has at least one active contract
+ */
+public record ClientListCriteria(
+        String type,
+        String name,
+        Boolean hasActiveContracts
+) {
+    /**
+     * Orders of {@code GET /api/clients}, each with the id as tie-breaker. Names are compared lower-cased,
+     * by code point.
+     */
+    public enum Sort { ID, NAME }
+}
@@ -0,0 +1,12 @@
+package com.insurance.dto;
+
+import java.util.List;
+
+/**
+ * One page of the client listing. {@code nextCursor} is the {@code cursor} value of the next page (with the
+ * same filters and sort), {@code null} on the last page.
+ */
+public record ClientListDTO(
+        List<ClientDTO> clients,
+        String nextCursor
+) {}
@@ -0,0 +1,12 @@
+package com.insurance.dto;
+
+import java.util.List;
+
+/**
+ * One page of clients ordered by id. {@code nextAfter} is the {@code after} value of the next page,
+ * {@code null} on the last page.
+ */
+public record ClientPageDTO(
+        List<ClientDTO> clients,
+        Long nextAfter
+) {}
@@ -0,0 +1,11 @@
+package com.insurance.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * The total cost of the active contracts of a client.
+ */
+public record ClientPremiumDTO(
+        Long clientId,
+        BigDecimal activePremium
+) {}
@@ -0,0 +1,22 @@
+package com.insurance.dto;
+
+/**
+ * Filters of {@code GET /api/clients/search}; the given ones are combined with AND.
+ *
+ * @param email             exact match, case-insensitive
+ * @param phone             exact match
+ * @param companyIdentifier exact match, companies only
+ * @param name              case-insensitive name prefix
+ * @param nameContains      case-insensitive substring of the name (at least 3 characters)
+ */
+public record ClientSearchCriteria(
+        String email,
+        String phone,
+        String companyIdentifier,
+        String name,
+        String nameContains
+) {
+    public boolean isEmpty() {
+        return email == null && phone == null && companyIdentifier == null && name == null && nameContains == null;
+    }
+}
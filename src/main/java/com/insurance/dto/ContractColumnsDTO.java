@@ -0,0 +1,78 @@
+package com.insurance.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Column-oriented form of a contract list: one array per field, aligned by index. Field names are
+ * written once instead of once per contract, which roughly halves large JSON payloads.
+ * Columns left out of a sparse fieldset are {@code null} and not serialized. Equality compares the
+ * columns' contents, not the array instances.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ContractColumnsDTO(
+        long[] ids,
+        LocalDate[] startDates,
+        LocalDate[] endDates,
+        BigDecimal[] costAmounts
+) {
+    public static final String MEDIA_TYPE = "application/vnd.insurance.columnar+json";
+
+    public static ContractColumnsDTO from(List<ContractResponseDTO> contracts) {
+        return from(contracts, Set.copyOf(ContractResponseDTO.FIELDS));
+    }
+
+    public static ContractColumnsDTO from(List<ContractResponseDTO> contracts, Set<String> fields) {
+        int size = contracts.size();
+        long[] ids = fields.contains("id") ? new long[size] : null;
+        LocalDate[] startDates = fields.contains("startDate") ? new LocalDate[size] : null;
+        LocalDate[] endDates = fields.contains("endDate") ? new LocalDate[size] : null;
+        BigDecimal[] costAmounts = fields.contains("costAmount") ? new BigDecimal[size] : null;
+        for (int i = 0; i < size; i++) {
+            ContractResponseDTO contract = contracts.get(i);
+            if (ids != null) {
+                ids[i] = contract.id();
+            }
+            if (startDates != null) {
+                startDates[i] = contract.startDate();
+            }
+            if (endDates != null) {
+                endDates[i] = contract.endDate();
+            }
+            if (costAmounts != null) {
+                costAmounts[i] = contract.costAmount();
+            }
+        }
+        return new ContractColumnsDTO(ids, startDates, endDates, costAmounts);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof ContractColumnsDTO other
+                && Arrays.equals(ids, other.ids)
+                && Arrays.equals(startDates, other.startDates)
+                && Arrays.equals(endDates, other.endDates)
+                && Arrays.equals(costAmounts, other.costAmounts);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Arrays.hashCode(ids);
+        result = 31 * result + Arrays.hashCode(startDates);
+        result = 31 * result + Arrays.hashCode(endDates);
+        return 31 * result + Arrays.hashCode(costAmounts);
+    }
+
+    @Override
+    public String toString() {
+        return "ContractColumnsDTO[ids=" + Arrays.toString(ids)
+                + ", startDates=" + Arrays.toString(startDates)
+                + ", endDates=" + Arrays.toString(endDates)
+                + ", costAmounts=" + Arrays.toString(costAmounts) + "]";
+    }
+}
@@ -2,10 +2,16 @@ package com.insurance.dto;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.List;
 
 public record ContractResponseDTO(
         Long id,
         LocalDate startDate,
         LocalDate endDate,
         BigDecimal costAmount
-) {}
+) {
+    /**
+     * Selectable with {@code ?fields=}; each name is also the {@code Contract} attribute it is read from.
+     */
+    public static final List<String> FIELDS = SparseFieldset.fieldsOf(ContractResponseDTO.class);
+}
@@ -0,0 +1,39 @@
+package com.insurance.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * A full-book export file: running, completed (downloadable) or failed.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record ExportDTO(
+        String name,
+        Dataset dataset,
+        Format format,
+        Status status,
+        Long sizeBytes,
+        LocalDateTime createdAt,
+        String error
+) {
+    public enum Dataset { CLIENTS, CONTRACTS }
+
+    public enum Format { CSV, NDJSON }
+
+    public enum Status { RUNNING, COMPLETED, FAILED }
+
+    public static <E extends Enum<E>> E parse(Class<E> type, String value) {
+        return Arrays.stream(type.getEnumConstants())
+                .filter(constant -> constant.name().equals(value.trim().toUpperCase(Locale.ROOT)))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown " + type.getSimpleName().toLowerCase(Locale.ROOT)
+                        + " '" + value + "', expected one of " + Arrays.toString(type.getEnumConstants()).toLowerCase(Locale.ROOT)));
+    }
+
+    public ExportDTO failed(String error) {
+        return new ExportDTO(name, dataset, format, Status.FAILED, null, createdAt, error);
+    }
+}
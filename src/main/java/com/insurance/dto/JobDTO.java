@@ -0,0 +1,29 @@
+package com.insurance.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.insurance.models.Job;
+import com.insurance.models.JobStatus;
+import com.insurance.models.JobType;
+
+import java.time.Instant;
+
+/**
+ * A background job and its progress: {@code processed} counts the contracts changed so far.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record JobDTO(
+        Long id,
+        JobType type,
+        JobStatus status,
+        Job.Parameters parameters,
+        long processed,
+        String error,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt
+) {
+    public static JobDTO from(Job job) {
+        return new JobDTO(job.getId(), job.getType(), job.getStatus(), job.getParameters(), job.getProcessed(),
+                job.getError(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt());
+    }
+}
@@ -0,0 +1,24 @@
+package com.insurance.dto;
+
+import com.insurance.models.JobType;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Starts a job: {@code costFactor} for {@link JobType#REPRICE_CONTRACTS}, {@code endDate} for
+ * {@link JobType#END_CONTRACTS}, and optionally a {@code clientId} to restrict it to one client.
+ */
+public record JobRequestDTO(
+        @NotNull(message = "Job type is required")
+        JobType type,
+
+        @DecimalMin(value = "0.0001", message = "Cost factor must be greater than 0")
+        BigDecimal costFactor,
+
+        LocalDate endDate,
+
+        Long clientId
+) {}
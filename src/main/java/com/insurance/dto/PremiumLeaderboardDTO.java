@@ -0,0 +1,13 @@
+package com.insurance.dto;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * The clients with the highest active premium, highest first. {@code reconciledAt} is when the leaderboard was
+ * last recounted from the contracts; writes since then are already reflected.
+ */
+public record PremiumLeaderboardDTO(
+        List<ClientPremiumDTO> clients,
+        Instant reconciledAt
+) {}
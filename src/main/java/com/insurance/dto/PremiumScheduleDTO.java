@@ -0,0 +1,15 @@
+package com.insurance.dto;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+
+/**
+ * Premiums due per calendar month, from the current month on.
+ */
+public record PremiumScheduleDTO(
+        List<MonthlyPremium> months,
+        BigDecimal totalPremium
+) {
+    public record MonthlyPremium(YearMonth month, BigDecimal premium) {}
+}
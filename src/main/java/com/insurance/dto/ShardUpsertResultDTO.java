@@ -0,0 +1,22 @@
+package com.insurance.dto;
+
+/**
+ * The part of a bulk upsert written to one shard, in its own transaction.
+ *
+ * @param shard      shard index
+ * @param received   clients of the batch placed on the shard
+ * @param duplicates clients dropped because a later one in the batch had the same key
+ * @param created    clients inserted
+ * @param updated    existing clients updated
+ * @param rejected   clients not upserted
+ * @param error      why the shard's transaction was rolled back, {@code null} if it committed
+ */
+public record ShardUpsertResultDTO(
+        int shard,
+        int received,
+        int duplicates,
+        int created,
+        int updated,
+        int rejected,
+        String error
+) {}
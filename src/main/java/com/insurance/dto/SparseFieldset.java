@@ -0,0 +1,77 @@
+package com.insurance.dto;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.RecordComponent;
+import java.util.*;
+
+/**
+ * Sparse fieldsets ({@code ?fields=id,costAmount}): parses the requested property names and narrows
+ * DTO records down to them for serialization.
+ */
+public final class SparseFieldset {
+
+    private static final ClassValue<RecordComponent[]> COMPONENTS = new ClassValue<>() {
+        @Override
+        protected RecordComponent[] computeValue(Class<?> type) {
+            return type.getRecordComponents();
+        }
+    };
+
+    private SparseFieldset() {
+    }
+
+    /**
+     * Property names of the given records, in declaration order and without duplicates.
+     */
+    @SafeVarargs
+    public static List<String> fieldsOf(Class<? extends Record>... types) {
+        Set<String> fields = new LinkedHashSet<>();
+        for (Class<? extends Record> type : types) {
+            for (RecordComponent component : COMPONENTS.get(type)) {
+                fields.add(component.getName());
+            }
+        }
+        return List.copyOf(fields);
+    }
+
+    public static Set<String> parse(String fields, List<String> allowed) {
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) {
+                continue;
+            }
+            if (!allowed.contains(name)) {
+                throw new IllegalArgumentException(
+                        "Unknown field '" + name + "', allowed fields: " + String.join(", ", allowed));
+            }
+            selected.add(name);
+        }
+        if (selected.isEmpty()) {
+            throw new IllegalArgumentException("fields must name at least one field");
+        }
+        return selected;
+    }
+
+    /**
+     * The selected properties of {@code record}, in declaration order. Selected properties that are
+     * {@code null} are kept, unselected ones are left out.
+     */
+    public static Map<String, Object> select(Record record, Set<String> fields) {
+        Map<String, Object> selected = new LinkedHashMap<>();
+        for (RecordComponent component : COMPONENTS.get(record.getClass())) {
+            if (fields.contains(component.getName())) {
+                selected.put(component.getName(), read(record, component));
+            }
+        }
+        return selected;
+    }
+
+    private static Object read(Record record, RecordComponent component) {
+        try {
+            return component.getAccessor().invoke(record);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Cannot read " + component.getName() + " of " + record.getClass(), e);
+        }
+    }
+}
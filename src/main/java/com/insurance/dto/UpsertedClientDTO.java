@@ -0,0 +1,6 @@
+package com.insurance.dto;
+
+public record UpsertedClientDTO(
+        ClientDTO client,
+        boolean created
+) {}
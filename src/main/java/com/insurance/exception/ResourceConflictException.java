@@ -0,0 +1,8 @@
+package com.insurance.exception;
+
+// Stackless: a conflict is reported to the client, not debugged from a stack trace.
+public class ResourceConflictException extends RuntimeException {
+    public ResourceConflictException(String message) {
+        super(message, null, false, false);
+    }
+}
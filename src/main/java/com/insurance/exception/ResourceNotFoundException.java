@@ -1,7 +1,39 @@
 package com.insurance.exception;
 
+/**
+ * The requested resource does not exist (404). Missing ids are an expected outcome that clients probe for
+ * in bulk, so the exception is stackless and the message of the factory-made ones is only built when read.
+ */
 public class ResourceNotFoundException extends RuntimeException {
+    private final String resource;
+    private final Object id;
+
     public ResourceNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
+        this.resource = null;
+        this.id = null;
+    }
+
+    private ResourceNotFoundException(String resource, Object id) {
+        super(null, null, false, false);
+        this.resource = resource;
+        this.id = id;
+    }
+
+    public static ResourceNotFoundException client(Long id) {
+        return new ResourceNotFoundException("Client", id);
+    }
+
+    public static ResourceNotFoundException contract(Long id) {
+        return new ResourceNotFoundException("Contract", id);
+    }
+
+    public static ResourceNotFoundException job(Long id) {
+        return new ResourceNotFoundException("Job", id);
+    }
+
+    @Override
+    public String getMessage() {
+        return resource == null ? super.getMessage() : resource + " not found with id: " + id;
     }
 }
@@ -0,0 +1,28 @@
+package com.insurance.idempotency;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.idempotency")
+public class IdempotencyProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * How long a completed response is replayed for its key, counted from the first request.
+     */
+    private Duration ttl = Duration.ofHours(24);
+
+    /**
+     * Maximum number of keys kept; beyond it the oldest keys are forgotten first.
+     */
+    private int maxEntries = 100_000;
+
+    /**
+     * How long a duplicate waits for the first request with its key to complete before getting a 409.
+     */
+    private Duration waitTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,147 @@
+package com.insurance.idempotency;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory store of idempotency keys and the responses of the requests that first used them.
+ * <p>
+ * Bounded in both time and size: keys expire {@code ttl} after they were claimed and, when more than
+ * {@code maxEntries} are held, the oldest are dropped. Keys are kept in claim order, which is also
+ * expiry order, so both are enforced by popping the head of one queue. A key whose request is still
+ * running is never dropped, since a retry would run the request again: eviction stops at it, and while
+ * the store is full new keys are refused.
+ */
+public class IdempotencyStore {
+
+    private final long ttlNanos;
+    private final int maxEntries;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> claimOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public IdempotencyStore(Duration ttl, int maxEntries) {
+        this(ttl, maxEntries, System::nanoTime);
+    }
+
+    IdempotencyStore(Duration ttl, int maxEntries, LongSupplier nanoClock) {
+        this.ttlNanos = ttl.toNanos();
+        this.maxEntries = maxEntries;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Claims {@code key} for a request with the given fingerprint. The first caller becomes the leader
+     * and must {@link #complete} or {@link #abandon} the entry; later callers get the leader's entry.
+     * Returns {@code null} when the store is full and the oldest keys still have requests running.
+     */
+    public Claim claim(String key, String fingerprint) {
+        long now = nanoClock.getAsLong();
+        Entry existing = entries.get(key);
+        if (existing != null && existing.expiresAt() - now > 0) {
+            return new Claim(existing, false);
+        }
+        evict(now);
+        if (queued.get() >= maxEntries) {
+            existing = entries.get(key);
+            return existing != null ? new Claim(existing, false) : null;
+        }
+        Entry candidate = new Entry(key, fingerprint, now + ttlNanos);
+        existing = entries.putIfAbsent(key, candidate);
+        if (existing != null) {
+            return new Claim(existing, false);
+        }
+        claimOrder.add(candidate);
+        queued.incrementAndGet();
+        return new Claim(candidate, true);
+    }
+
+    public void complete(Entry entry, StoredResponse response) {
+        entry.response().complete(response);
+    }
+
+    /**
+     * Forgets the key without a stored response (e.g. the request failed); waiting duplicates are
+     * released with {@code null} and may claim the key again. The entry stops counting towards
+     * {@code maxEntries} at once, so that abandoned keys do not push out completed ones, and is dropped
+     * from the claim order when it reaches the head.
+     */
+    public void abandon(Entry entry) {
+        entries.remove(entry.key(), entry);
+        if (entry.release()) {
+            queued.decrementAndGet();
+        }
+        entry.response().complete(null);
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    // Makes room for one more key, without dropping keys whose request is still running.
+    private void evict(long now) {
+        Entry head;
+        while ((head = claimOrder.peek()) != null) {
+            boolean abandoned = !head.counted();
+            if (!abandoned && (!head.response().isDone()
+                    || (head.expiresAt() - now > 0 && queued.get() < maxEntries))) {
+                return;
+            }
+            if (claimOrder.remove(head)) {
+                if (head.release()) {
+                    queued.decrementAndGet();
+                }
+                entries.remove(head.key(), head);
+            }
+        }
+    }
+
+    public record Claim(Entry entry, boolean leader) {}
+
+    public static final class Entry {
+        private final String key;
+        private final String fingerprint;
+        private final long expiresAt;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        // Whether the entry counts towards maxEntries; cleared once, by whoever abandons or evicts it.
+        private final AtomicBoolean counted = new AtomicBoolean(true);
+
+        Entry(String key, String fingerprint, long expiresAt) {
+            this.key = key;
+            this.fingerprint = fingerprint;
+            this.expiresAt = expiresAt;
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public String fingerprint() {
+            return fingerprint;
+        }
+
+        public long expiresAt() {
+            return expiresAt;
+        }
+
+        public CompletableFuture<StoredResponse> response() {
+            return response;
+        }
+
+        boolean counted() {
+            return counted.get();
+        }
+
+        boolean release() {
+            return counted.compareAndSet(true, false);
+        }
+    }
+
+    public record StoredResponse(int status, String contentType, byte[] body) {}
+}
@@ -0,0 +1,39 @@
+package com.insurance.jobs;
+
+import com.insurance.models.JobType;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.jobs")
+public class JobProperties {
+
+    /**
+     * Contracts changed per transaction; progress is checkpointed after each chunk.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * How long a job stays owned by an instance that stopped renewing it before another instance resumes it.
+     * Must be well above the time one chunk takes.
+     */
+    private Duration lease = Duration.ofMinutes(1);
+
+    /**
+     * How often queued jobs and jobs with an expired lease are looked for.
+     */
+    private Duration pollInterval = Duration.ofSeconds(10);
+
+    /**
+     * Jobs of each type run at the same time on one instance; types not listed run one at a time.
+     */
+    private Map<JobType, Integer> concurrency = new EnumMap<>(JobType.class);
+
+    public int concurrencyOf(JobType type) {
+        return concurrency.getOrDefault(type, 1);
+    }
+}
@@ -0,0 +1,208 @@
+package com.insurance.jobs;
+
+import com.insurance.models.Job;
+import com.insurance.models.JobCheckpoint;
+import com.insurance.models.JobStatus;
+import com.insurance.models.JobType;
+import com.insurance.repository.ContractBulkRepository.BulkChunk;
+import com.insurance.repository.JobCheckpointRepository;
+import com.insurance.repository.JobRepository;
+import com.insurance.services.ContractService;
+import com.insurance.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs background jobs on virtual threads, at most {@link JobProperties#concurrencyOf} of each type at a time.
+ * <p>
+ * Jobs are stored on the first shard. An instance leases a job before running it and renews the lease after
+ * every chunk; a job whose lease expires (its instance stopped or died) is resumed by the next poll of any
+ * instance. Contracts are changed shard by shard, in chunks of consecutive ids: each chunk runs in one
+ * transaction on its shard together with the job's checkpoint there, so a resumed job continues after the
+ * last committed chunk and never changes a contract twice.
+ */
+@Slf4j
+public class JobRunner implements DisposableBean {
+
+    public static final int JOBS_SHARD = 0;
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final JobRepository jobRepository;
+    private final JobCheckpointRepository checkpointRepository;
+    private final ContractService contractService;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+    private final JobProperties properties;
+    private final String owner = UUID.randomUUID().toString();
+    private final Map<JobType, Semaphore> permits = new EnumMap<>(JobType.class);
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final ExecutorService executor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("job-", 0).factory());
+    private volatile boolean stopping;
+
+    public JobRunner(JobRepository jobRepository, JobCheckpointRepository checkpointRepository,
+                     ContractService contractService, ShardRouter shardRouter,
+                     PlatformTransactionManager transactionManager, JobProperties properties) {
+        this.jobRepository = jobRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.contractService = contractService;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        for (JobType type : JobType.values()) {
+            permits.put(type, new Semaphore(properties.concurrencyOf(type)));
+        }
+    }
+
+    /**
+     * Starts the queued jobs and the jobs whose lease expired, as far as permits allow.
+     */
+    public void pollJobs() {
+        if (stopping) {
+            return;
+        }
+        Instant expiredBefore = Instant.now().minus(properties.getLease());
+        inTransaction(JOBS_SHARD, () -> jobRepository.findClaimable(expiredBefore))
+                .forEach(job -> dispatch(job.getId(), job.getType()));
+    }
+
+    /**
+     * Starts the job unless it already runs here or no permit of its type is free; it is then left to a
+     * later poll.
+     */
+    public void dispatch(Long jobId, JobType type) {
+        Semaphore permit = permits.get(type);
+        if (stopping || !running.add(jobId)) {
+            return;
+        }
+        if (!permit.tryAcquire()) {
+            running.remove(jobId);
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                boolean ran = false;
+                try {
+                    ran = run(jobId);
+                } catch (RuntimeException e) {
+                    log.warn("Job {} could not be run, it is retried at the next poll", jobId, e);
+                } finally {
+                    running.remove(jobId);
+                    permit.release();
+                }
+                // The permit may be what a queued job was waiting for.
+                if (ran) {
+                    pollJobs();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            running.remove(jobId);
+            permit.release();
+        }
+    }
+
+    /**
+     * @return whether the job was claimed here
+     */
+    boolean run(Long jobId) {
+        Job job = inTransaction(JOBS_SHARD, () -> {
+            Instant now = Instant.now();
+            if (jobRepository.claim(jobId, owner, now, now.minus(properties.getLease())) == 0) {
+                return null;
+            }
+            return jobRepository.findById(jobId).orElseThrow();
+        });
+        if (job == null) {
+            return false;
+        }
+        log.info("Running job {} ({})", jobId, job.getType());
+
+        long processed = 0;
+        try {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                ShardProgress progress;
+                do {
+                    if (stopping) {
+                        inTransaction(JOBS_SHARD, () -> jobRepository.release(jobId, owner));
+                        return true;
+                    }
+                    progress = processChunk(job, shard);
+                    long total = processed + progress.processed();
+                    if (inTransaction(JOBS_SHARD,
+                            () -> jobRepository.heartbeat(jobId, owner, total, Instant.now())) == 0) {
+                        log.warn("Job {} lost its lease, another instance resumes it", jobId);
+                        return true;
+                    }
+                } while (!progress.done());
+                processed += progress.processed();
+            }
+        } catch (RuntimeException e) {
+            log.error("Job {} failed", jobId, e);
+            long total = processed;
+            inTransaction(JOBS_SHARD, () -> jobRepository.finish(jobId, owner, JobStatus.FAILED, total,
+                    abbreviate(String.valueOf(e.getMessage())), Instant.now()));
+            return true;
+        }
+        long total = processed;
+        inTransaction(JOBS_SHARD,
+                () -> jobRepository.finish(jobId, owner, JobStatus.COMPLETED, total, null, Instant.now()));
+        log.info("Job {} completed, {} contracts changed", jobId, total);
+        return true;
+    }
+
+    private ShardProgress processChunk(Job job, int shard) {
+        int chunkSize = properties.getChunkSize();
+        return inTransaction(shard, () -> {
+            // Locked until commit: the chunk and the checkpoint past it are committed together.
+            JobCheckpoint checkpoint = checkpointRepository.lockByJobId(job.getId())
+                    .orElseGet(() -> new JobCheckpoint(job.getId(), 0, 0));
+            BulkChunk chunk = contractService.processBulkChunk(
+                    job.getType(), job.getParameters(), checkpoint.getLastId(), chunkSize);
+            checkpoint.setLastId(chunk.lastId());
+            checkpoint.setProcessed(checkpoint.getProcessed() + chunk.count());
+            checkpointRepository.save(checkpoint);
+            return new ShardProgress(checkpoint.getProcessed(), chunk.count() < chunkSize);
+        });
+    }
+
+    private <T> T inTransaction(int shard, Supplier<T> work) {
+        return transaction.execute(status -> {
+            shardRouter.routeToShard(shard);
+            return work.get();
+        });
+    }
+
+    private static String abbreviate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH - 3) + "...";
+    }
+
+    // Running jobs stop between chunks and give up their lease, so that another instance resumes them at once.
+    @Override
+    public void destroy() throws InterruptedException {
+        stopping = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Jobs still running at shutdown are resumed once their lease expires");
+        }
+    }
+
+    /**
+     * @param processed contracts changed by the job on the shard so far
+     */
+    private record ShardProgress(long processed, boolean done) {}
+}
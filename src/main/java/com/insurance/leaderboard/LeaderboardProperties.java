@@ -0,0 +1,32 @@
+package com.insurance.leaderboard;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.leaderboard")
+public class LeaderboardProperties {
+
+    /**
+     * Clients a leaderboard request returns at most.
+     */
+    private int size = 100;
+
+    /**
+     * Clients kept in memory. Those beyond {@code size} replace the top clients whose premium drops; once fewer
+     * than {@code size} are left, the leaderboard is recounted.
+     */
+    private int capacity = 1000;
+
+    /**
+     * How often the leaderboard is recounted from the contracts, to catch writes of other instances.
+     */
+    private Duration reconcileInterval = Duration.ofMinutes(5);
+
+    /**
+     * When the leaderboard is recounted because contracts ending the previous day are no longer active.
+     */
+    private String expiryCron = "0 0 0 * * *";
+}
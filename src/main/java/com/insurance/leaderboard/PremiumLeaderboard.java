@@ -0,0 +1,296 @@
+package com.insurance.leaderboard;
+
+import com.insurance.dto.ClientPremiumDTO;
+import com.insurance.repository.ContractRepository;
+import com.insurance.sharding.ShardRouter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * The clients with the highest active premium, kept in memory so that reading them takes no query.
+ * <p>
+ * The board holds every client whose premium is above a threshold: the premium of the first client that did not
+ * fit in {@link LeaderboardProperties#getCapacity()} at the last recount, or zero when all did. Committed contract
+ * writes move their client by the premium they add or remove. A client below the threshold whose premium grows
+ * may pass it; it is summed again in the background. Contracts expiring, bulk changes and the writes of other
+ * instances are caught by reconciliation, a recount of the top clients of every shard.
+ * <p>
+ * Refreshes and recounts run one at a time on a background thread. A client written while it is being
+ * counted is summed again afterwards, so a count never overwrites a newer write.
+ */
+@Slf4j
+public class PremiumLeaderboard implements DisposableBean {
+
+    private static final Comparator<ClientPremiumDTO> RANKING = Comparator
+            .comparing(ClientPremiumDTO::activePremium, Comparator.reverseOrder())
+            .thenComparing(ClientPremiumDTO::clientId);
+
+    private final ContractRepository contractRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LeaderboardProperties properties;
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofVirtual().name("leaderboard").factory());
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private final AtomicBoolean reconcilePending = new AtomicBoolean();
+
+    // Read without locking; replaced as a whole by a recount.
+    private volatile NavigableSet<ClientPremiumDTO> ranking = new ConcurrentSkipListSet<>(RANKING);
+    private volatile Instant reconciledAt;
+
+    // Guarded by this.
+    private final Map<Long, BigDecimal> premiums = new HashMap<>();
+    private BigDecimal threshold = BigDecimal.ZERO;
+    private final Set<Long> stale = new HashSet<>();
+    private final Set<Long> refreshing = new HashSet<>();
+    private Set<Long> writtenDuringRecount;
+
+    public PremiumLeaderboard(ContractRepository contractRepository, ShardRouter shardRouter,
+                              PlatformTransactionManager transactionManager, LeaderboardProperties properties) {
+        this.contractRepository = contractRepository;
+        this.shardRouter = shardRouter;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /**
+     * The first {@code limit} clients, highest premium first.
+     */
+    public List<ClientPremiumDTO> top(int limit) {
+        return ranking.stream().limit(limit).toList();
+    }
+
+    /**
+     * Clients {@link #top} can return, at most.
+     */
+    public int maxSize() {
+        return properties.getSize();
+    }
+
+    public Instant reconciledAt() {
+        return reconciledAt;
+    }
+
+    /**
+     * Moves the client by {@code delta} once the current transaction commits.
+     */
+    public void premiumChanged(Long clientId, BigDecimal delta) {
+        if (delta.signum() != 0) {
+            afterCommit(() -> apply(clientId, delta));
+        }
+    }
+
+    /**
+     * Sums the premium of the client again once the current transaction commits.
+     */
+    public void clientChanged(Long clientId) {
+        afterCommit(() -> markStale(clientId));
+    }
+
+    public void clientDeleted(Long clientId) {
+        afterCommit(() -> remove(clientId));
+    }
+
+    /**
+     * Recounts the leaderboard in the background, unless a recount is already waiting to start.
+     */
+    public void requestReconcile() {
+        if (reconcilePending.compareAndSet(false, true)) {
+            executor.execute(this::reconcile);
+        }
+    }
+
+    synchronized void apply(Long clientId, BigDecimal delta) {
+        if (writtenDuringRecount != null) {
+            writtenDuringRecount.add(clientId);
+        }
+        if (stale.contains(clientId) || refreshing.contains(clientId)) {
+            // A sum is pending or running; it may not include this write.
+            markStale(clientId);
+            return;
+        }
+        BigDecimal premium = premiums.get(clientId);
+        if (premium != null) {
+            set(clientId, premium.add(delta));
+        } else if (threshold.signum() == 0) {
+            // Every client with a premium is on the board: this one had none.
+            set(clientId, delta);
+        } else if (delta.signum() > 0) {
+            markStale(clientId);
+        }
+    }
+
+    synchronized void remove(Long clientId) {
+        if (writtenDuringRecount != null) {
+            writtenDuringRecount.add(clientId);
+        }
+        if (stale.contains(clientId) || refreshing.contains(clientId)) {
+            markStale(clientId);
+        }
+        set(clientId, BigDecimal.ZERO);
+    }
+
+    private synchronized void markStale(Long clientId) {
+        if (writtenDuringRecount != null) {
+            writtenDuringRecount.add(clientId);
+        }
+        stale.add(clientId);
+        if (refreshPending.compareAndSet(false, true)) {
+            executor.execute(this::refreshStale);
+        }
+    }
+
+    private synchronized void set(Long clientId, BigDecimal premium) {
+        BigDecimal previous = premiums.remove(clientId);
+        if (previous != null) {
+            ranking.remove(new ClientPremiumDTO(clientId, previous));
+        }
+        if (premium.compareTo(threshold) > 0) {
+            premiums.put(clientId, premium);
+            ranking.add(new ClientPremiumDTO(clientId, premium));
+        } else if (previous != null && premiums.size() < properties.getSize() && threshold.signum() > 0) {
+            // Clients below the threshold might now belong to the top.
+            requestReconcile();
+        }
+    }
+
+    void refreshStale() {
+        refreshPending.set(false);
+        Set<Long> batch;
+        synchronized (this) {
+            batch = new HashSet<>(stale);
+            stale.clear();
+            refreshing.addAll(batch);
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+        Map<Long, BigDecimal> sums = null;
+        try {
+            sums = sumActivePremiums(batch);
+        } catch (RuntimeException e) {
+            log.warn("Could not sum the premium of {} clients; they are left as they are until the next recount",
+                    batch.size(), e);
+        }
+        synchronized (this) {
+            refreshing.removeAll(batch);
+            if (sums == null) {
+                return;
+            }
+            for (Long clientId : batch) {
+                // Written again since: summed again.
+                if (!stale.contains(clientId)) {
+                    set(clientId, sums.getOrDefault(clientId, BigDecimal.ZERO));
+                }
+            }
+        }
+    }
+
+    void reconcile() {
+        reconcilePending.set(false);
+        synchronized (this) {
+            writtenDuringRecount = new HashSet<>();
+        }
+        LocalDate currentDate = LocalDate.now();
+        int capacity = properties.getCapacity();
+        List<ClientPremiumDTO> top;
+        try {
+            // One more than fit: its premium is the threshold. Each shard returns its own top; no client above
+            // the threshold can be missing from them.
+            top = readOnlyTransaction.execute(status -> shardRouter
+                    .onEachShard(true, shard -> contractRepository.findTopActivePremiums(
+                            currentDate, Limit.of(capacity + 1)))
+                    .stream()
+                    .flatMap(List::stream)
+                    .sorted(RANKING)
+                    .limit(capacity + 1)
+                    .toList());
+        } catch (RuntimeException e) {
+            log.warn("Could not recount the premium leaderboard", e);
+            synchronized (this) {
+                writtenDuringRecount = null;
+            }
+            return;
+        }
+
+        synchronized (this) {
+            threshold = top.size() > capacity ? top.getLast().activePremium() : BigDecimal.ZERO;
+            NavigableSet<ClientPremiumDTO> recounted = new ConcurrentSkipListSet<>(RANKING);
+            premiums.clear();
+            for (ClientPremiumDTO client : top) {
+                if (client.activePremium().compareTo(threshold) > 0) {
+                    premiums.put(client.clientId(), client.activePremium());
+                    recounted.add(client);
+                }
+            }
+            ranking = recounted;
+            reconciledAt = Instant.now();
+
+            // Writes committed during the count may or may not be in it.
+            Set<Long> written = writtenDuringRecount;
+            writtenDuringRecount = null;
+            stale.clear();
+            written.forEach(this::markStale);
+        }
+        log.debug("Recounted the premium leaderboard: {} clients above {}", premiums.size(), threshold);
+    }
+
+    private Map<Long, BigDecimal> sumActivePremiums(Collection<Long> clientIds) {
+        LocalDate currentDate = LocalDate.now();
+        return readOnlyTransaction.execute(status -> shardRouter
+                .onEachShard(true, shard -> {
+                    List<Long> onShard = clientIds.stream()
+                            .filter(clientId -> shardRouter.shardOf(clientId) == shard)
+                            .toList();
+                    return onShard.isEmpty()
+                            ? List.<ClientPremiumDTO>of()
+                            : contractRepository.sumActivePremiumsByClientIds(onShard, currentDate);
+                })
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(ClientPremiumDTO::clientId, ClientPremiumDTO::activePremium)));
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
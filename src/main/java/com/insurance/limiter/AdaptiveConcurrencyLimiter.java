@@ -0,0 +1,125 @@
+package com.insurance.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Gradient-style concurrency limit: the limit shrinks when the observed latency rises above the
+ * long-term baseline and grows by a small queue allowance while latency stays close to it.
+ * <p>
+ * The baseline is an exponentially weighted average of past samples, so it follows slow drifts
+ * in the workload while a sudden slowdown of the database is caught by the short-term sample.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final String name;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+    private final double baselineWeight;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile double limit;
+    private volatile double baselineNanos = Double.NaN;
+    private volatile double lastSampleNanos = Double.NaN;
+
+    public AdaptiveConcurrencyLimiter(String name, int initialLimit, int minLimit, int maxLimit,
+                                      double tolerance, double smoothing, int baselineWindow) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits for " + name
+                    + ": initial=" + initialLimit + ", min=" + minLimit + ", max=" + maxLimit);
+        }
+        this.name = name;
+        this.limit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.baselineWeight = 2.0 / (baselineWindow + 1);
+    }
+
+    /**
+     * Reserves a slot, or returns false immediately when the limit is reached.
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Releases a slot without feeding a latency sample, e.g. for requests that never reached the database.
+     */
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Releases a slot and adjusts the limit using the database time the request spent.
+     */
+    public void release(long latencyNanos) {
+        int inFlightAtCompletion = inFlight.getAndDecrement();
+        if (latencyNanos > 0) {
+            onSample(latencyNanos, inFlightAtCompletion);
+        }
+    }
+
+    private synchronized void onSample(long sampleNanos, int inFlightAtCompletion) {
+        lastSampleNanos = sampleNanos;
+        double baseline = baselineNanos;
+        if (Double.isNaN(baseline)) {
+            baselineNanos = sampleNanos;
+            return;
+        }
+        baseline = baseline + baselineWeight * (sampleNanos - baseline);
+        // Recover quickly when the baseline was inflated by a long slowdown.
+        if (baseline / sampleNanos > 2.0) {
+            baseline *= 0.95;
+        }
+        baselineNanos = baseline;
+
+        double current = limit;
+        // Only probe upwards when the current limit is actually being used.
+        if (inFlightAtCompletion < current / 2 && sampleNanos <= baseline * tolerance) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / sampleNanos));
+        double queueAllowance = Math.sqrt(current);
+        double target = current * gradient + queueAllowance;
+        double next = current * (1 - smoothing) + target * smoothing;
+        limit = Math.max(minLimit, Math.min(maxLimit, next));
+    }
+
+    /**
+     * Suggested client back-off: roughly the time needed for the current in-flight work to drain.
+     */
+    public long retryAfterSeconds() {
+        double latency = Double.isNaN(lastSampleNanos) ? 0 : Math.max(lastSampleNanos, baselineNanos);
+        return Math.max(1, (long) Math.ceil(latency / 1_000_000_000.0));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getLimit() {
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
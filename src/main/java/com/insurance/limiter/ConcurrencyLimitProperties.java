@@ -0,0 +1,46 @@
+package com.insurance.limiter;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.limiter")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = true;
+
+    private Budget read = new Budget(40, 4, 400);
+
+    private Budget write = new Budget(20, 2, 200);
+
+    /**
+     * How much slower than the long-term baseline a request may get before the limit shrinks.
+     */
+    private double tolerance = 2.0;
+
+    /**
+     * Weight of each new limit estimate, between 0 (never move) and 1 (jump straight to it).
+     */
+    private double smoothing = 0.2;
+
+    /**
+     * Number of samples the long-term latency baseline roughly averages over.
+     */
+    private int baselineWindow = 600;
+
+    @Data
+    public static class Budget {
+        private int initialLimit;
+        private int minLimit;
+        private int maxLimit;
+
+        public Budget() {
+        }
+
+        public Budget(int initialLimit, int minLimit, int maxLimit) {
+            this.initialLimit = initialLimit;
+            this.minLimit = minLimit;
+            this.maxLimit = maxLimit;
+        }
+    }
+}
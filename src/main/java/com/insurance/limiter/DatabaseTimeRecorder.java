@@ -0,0 +1,44 @@
+package com.insurance.limiter;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+/**
+ * Accumulates the time the current request spends inside (blocking) Spring Data repository calls.
+ * Only requests that opened a measurement (see {@link ConcurrencyLimitFilter}) are tracked.
+ */
+@Aspect
+@Component
+public class DatabaseTimeRecorder {
+
+    private static final ThreadLocal<long[]> ELAPSED = new ThreadLocal<>();
+
+    public static void begin() {
+        ELAPSED.set(new long[1]);
+    }
+
+    /**
+     * Ends the measurement on the current thread and returns the accumulated repository time.
+     */
+    public static long end() {
+        long[] elapsed = ELAPSED.get();
+        ELAPSED.remove();
+        return elapsed == null ? 0 : elapsed[0];
+    }
+
+    @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+    public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+        long[] elapsed = ELAPSED.get();
+        if (elapsed == null) {
+            return joinPoint.proceed();
+        }
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            elapsed[0] += System.nanoTime() - start;
+        }
+    }
+}
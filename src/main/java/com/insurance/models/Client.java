@@ -7,10 +7,15 @@ import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 import com.fasterxml.jackson.annotation.JsonSubTypes;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
+import java.util.Locale;
 
 @Entity
 @Table(name = "clients")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "clients")
 @Inheritance(strategy = InheritanceType.SINGLE_TABLE)
 @DiscriminatorColumn(name = "client_type", discriminatorType = DiscriminatorType.STRING)
 @JsonTypeInfo(use = JsonTypeInfo.Id.NAME, include = JsonTypeInfo.As.PROPERTY, property = "type")
@@ -32,9 +37,24 @@ public abstract class Client {
     @Column(nullable = false)
     private String email;
 
+    // Normalized email; unique among persons (uq_client_person_email_key in schema.sql), so a retried create
+    // cannot insert the same person twice. Companies are unique by company identifier instead.
+    @Column(name = "email_key", nullable = false)
+    private String emailKey;
+
     @Column(nullable = false)
     private String phone;
 
     @OneToMany(mappedBy = "client", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Contract> contracts;
-}
\ No newline at end of file
+
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        emailKey = normalizeEmail(email);
+    }
+}
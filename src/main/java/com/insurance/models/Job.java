@@ -0,0 +1,62 @@
+package com.insurance.models;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * A background job. While it runs, the instance in {@code owner} holds a lease on it that it renews with
+ * {@code heartbeat} after every chunk; a job whose lease expired is resumed by any instance.
+ */
+@Entity
+@Table(name = "jobs", indexes = @Index(name = "idx_job_status", columnList = "status"))
+@Data
+@NoArgsConstructor
+public class Job {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 31)
+    private JobType type;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 15)
+    private JobStatus status;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(nullable = false)
+    private Parameters parameters;
+
+    @Column(nullable = false)
+    private long processed;
+
+    @Column(length = 1000)
+    private String error;
+
+    @Column(length = 64)
+    private String owner;
+
+    private Instant heartbeat;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant startedAt;
+
+    private Instant finishedAt;
+
+    /**
+     * The parameters of all job types; each uses its own.
+     *
+     * @param clientId restricts the job to the contracts of one client, or {@code null} for all
+     */
+    public record Parameters(BigDecimal costFactor, LocalDate endDate, Long clientId) {}
+}
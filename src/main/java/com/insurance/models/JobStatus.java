@@ -0,0 +1,5 @@
+package com.insurance.models;
+
+public enum JobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
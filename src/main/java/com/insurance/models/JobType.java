@@ -0,0 +1,16 @@
+package com.insurance.models;
+
+/**
+ * The bulk operations run as background jobs.
+ */
+public enum JobType {
+    /**
+     * Multiplies the cost of active contracts by {@link Job.Parameters#costFactor()}.
+     */
+    REPRICE_CONTRACTS,
+    /**
+     * Ends active contracts running past {@link Job.Parameters#endDate()} on that date; contracts starting
+     * after it are left as they are.
+     */
+    END_CONTRACTS
+}
@@ -0,0 +1,29 @@
+package com.insurance.models;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * The last run of a scheduled task that only one instance may run at a time, e.g. the nightly export. An instance
+ * runs the task only if it moves {@code lastRun} forward; the others see the recent run and skip it.
+ */
+@Entity
+@Table(name = "scheduled_runs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduledRun {
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Instant lastRun;
+
+    @Column(length = 64)
+    private String owner;
+}
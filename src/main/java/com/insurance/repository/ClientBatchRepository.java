@@ -0,0 +1,15 @@
+package com.insurance.repository;
+
+import com.insurance.models.Client;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface ClientBatchRepository {
+
+    /**
+     * The clients with the given ids that exist, in no particular order. Clients in the second-level cache are
+     * taken from it; the others are read with a single query.
+     */
+    List<Client> findAllByIds(Collection<Long> ids);
+}
@@ -0,0 +1,38 @@
+package com.insurance.repository;
+
+import com.insurance.models.Client;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.CacheMode;
+import org.hibernate.Session;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Uses Hibernate's multi-load rather than a JPQL {@code IN}: it checks the persistence context and the clients
+ * cache region first, and on PostgreSQL binds the remaining ids as one array ({@code id = any(?)}), so the
+ * statement is the same whatever the number of ids.
+ */
+@RequiredArgsConstructor
+class ClientBatchRepositoryImpl implements ClientBatchRepository {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Client> findAllByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return entityManager.unwrap(Session.class)
+                .byMultipleIds(Client.class)
+                // Without an explicit cache mode, multi-load skips the second-level cache lookup.
+                .with(CacheMode.NORMAL)
+                .enableOrderedReturn(false)
+                .multiLoad(List.copyOf(ids))
+                .stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
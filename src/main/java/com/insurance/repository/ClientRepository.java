@@ -1,10 +1,37 @@
 package com.insurance.repository;
 
 import com.insurance.models.Client;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.stream.Stream;
+
 @Repository
-public interface ClientRepository extends JpaRepository<Client, Long> {
-}
+public interface ClientRepository extends JpaRepository<Client, Long>, ClientSearchRepository, ClientUpsertRepository,
+        ClientBatchRepository {
+
+    /**
+     * Deletes the client in one statement; its contracts are removed by the {@code ON DELETE CASCADE}
+     * foreign key instead of being loaded and deleted one by one.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Client c WHERE c.id = :id")
+    int deleteWithContracts(@Param("id") Long id);
 
+    /**
+     * The last id the clients sequence handed out, committed or not; 0 if none.
+     */
+    @Query(value = "SELECT COALESCE(pg_sequence_last_value("
+            + "CAST(pg_get_serial_sequence('clients', 'id') AS regclass)), 0)", nativeQuery = true)
+    long findLastAllocatedId();
+
+    @Query("SELECT c.id FROM Client c")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    Stream<Long> streamAllIds();
+}
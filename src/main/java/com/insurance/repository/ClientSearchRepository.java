@@ -0,0 +1,31 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ClientListCriteria;
+import com.insurance.dto.ClientSearchCriteria;
+import com.insurance.models.Client;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface ClientSearchRepository {
+
+    /**
+     * Clients matching all given criteria with an id greater than {@code after} (all ids when null),
+     * ordered by id, at most {@code limit} of them.
+     */
+    List<Client> search(ClientSearchCriteria criteria, Long after, int limit);
+
+    /**
+     * Clients matching all given criteria that come after the cursor ({@code afterId}, and {@code afterName}
+     * when sorted by name; from the start when null) in the given order, at most {@code limit} of them.
+     */
+    List<ListedClient> list(ClientListCriteria criteria, ClientListCriteria.Sort sort, Long afterId,
+                            String afterName, LocalDate currentDate, int limit);
+
+    /**
+     * @param client  the client
+     * @param nameKey its name as the database sorts it, {@code lower(name) COLLATE "C"}: lower-cased by the
+     *                database's rules, which can differ from Java's for non-ASCII letters
+     */
+    record ListedClient(Client client, String nameKey) {}
+}
@@ -0,0 +1,125 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ClientListCriteria;
+import com.insurance.dto.ClientSearchCriteria;
+import com.insurance.models.Client;
+import com.insurance.models.Company;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Each filter is written in the form its index in {@code schema.sql} can serve:
+ * {@code email_key} for emails, {@code lower(name) LIKE 'x%'} for prefixes (text_pattern_ops)
+ * and {@code lower(name) LIKE '%x%'} for substrings (pg_trgm).
+ * <p>
+ * The listing is keyset-paginated on indexes that match its order: the primary key or {@code (client_type, id)}
+ * by id, and {@code (lower(name) COLLATE "C", id)} with or without the type in front by name. The cursor is a
+ * row comparison on the same columns, so every page is a range scan from the cursor, however deep.
+ */
+@RequiredArgsConstructor
+class ClientSearchRepositoryImpl implements ClientSearchRepository {
+    private static final char LIKE_ESCAPE = '\\';
+    private static final String NAME_KEY = "lower(c.name) COLLATE \"C\"";
+    private static final String ACTIVE_CONTRACT = "EXISTS (SELECT 1 FROM contracts ct WHERE ct.client_id = c.id" +
+            " AND (ct.end_date IS NULL OR ct.end_date > :currentDate))";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<Client> search(ClientSearchCriteria criteria, Long after, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Client> query = cb.createQuery(Client.class);
+        Root<Client> client = query.from(Client.class);
+
+        List<Predicate> predicates = new ArrayList<>();
+        if (criteria.email() != null) {
+            predicates.add(cb.equal(client.get("emailKey"), Client.normalizeEmail(criteria.email())));
+        }
+        if (criteria.phone() != null) {
+            predicates.add(cb.equal(client.get("phone"), criteria.phone()));
+        }
+        if (criteria.companyIdentifier() != null) {
+            predicates.add(cb.equal(cb.treat(client, Company.class).get("companyIdentifier"),
+                    criteria.companyIdentifier()));
+        }
+        if (criteria.name() != null) {
+            predicates.add(cb.like(cb.lower(client.get("name")), escapeLike(criteria.name()) + "%", LIKE_ESCAPE));
+        }
+        if (criteria.nameContains() != null) {
+            predicates.add(cb.like(cb.lower(client.get("name")),
+                    "%" + escapeLike(criteria.nameContains()) + "%", LIKE_ESCAPE));
+        }
+        if (after != null) {
+            predicates.add(cb.greaterThan(client.get("id"), after));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new))
+                .orderBy(cb.asc(client.get("id")));
+        return entityManager.createQuery(query)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<ListedClient> list(ClientListCriteria criteria, ClientListCriteria.Sort sort, Long afterId,
+                                   String afterName, LocalDate currentDate, int limit) {
+        StringBuilder sql = new StringBuilder("SELECT c.*, ").append(NAME_KEY).append(" AS name_key")
+                .append(" FROM clients c WHERE TRUE");
+        Map<String, Object> parameters = new HashMap<>();
+        if (criteria.type() != null) {
+            sql.append(" AND c.client_type = :type");
+            parameters.put("type", criteria.type());
+        }
+        if (criteria.name() != null) {
+            // In the C collation a LIKE prefix is a range of the name index.
+            sql.append(" AND ").append(NAME_KEY).append(" LIKE :name");
+            parameters.put("name", escapeLike(criteria.name()) + "%");
+        }
+        if (criteria.hasActiveContracts() != null) {
+            sql.append(criteria.hasActiveContracts() ? " AND " : " AND NOT ").append(ACTIVE_CONTRACT);
+            parameters.put("currentDate", currentDate);
+        }
+        if (sort == ClientListCriteria.Sort.NAME) {
+            if (afterId != null) {
+                sql.append(" AND (").append(NAME_KEY).append(", c.id) > (lower(:afterName) COLLATE \"C\", :afterId)");
+                parameters.put("afterName", afterName);
+                parameters.put("afterId", afterId);
+            }
+            sql.append(" ORDER BY ").append(NAME_KEY).append(", c.id");
+        } else {
+            if (afterId != null) {
+                sql.append(" AND c.id > :afterId");
+                parameters.put("afterId", afterId);
+            }
+            sql.append(" ORDER BY c.id");
+        }
+        sql.append(" LIMIT :limit");
+        parameters.put("limit", limit);
+
+        // The name key is returned so that shards are merged in exactly the order the database sorted them in.
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql.toString()).unwrap(NativeQuery.class)
+                .addEntity(Client.class)
+                .addScalar("name_key", String.class);
+        parameters.forEach(query::setParameter);
+        return query.getResultList().stream()
+                .map(row -> new ListedClient((Client) row[0], (String) row[1]))
+                .toList();
+    }
+
+    private static String escapeLike(String value) {
+        return value.toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+}
@@ -0,0 +1,32 @@
+package com.insurance.repository;
+
+import com.insurance.models.Client;
+import com.insurance.models.Company;
+import com.insurance.models.Person;
+
+import java.util.List;
+
+/**
+ * Inserts clients or updates the existing ones in a single {@code INSERT ... ON CONFLICT} statement per batch.
+ * A batch must not contain the same key twice.
+ */
+public interface ClientUpsertRepository {
+
+    /**
+     * Upserts persons keyed on their normalized email. On conflict name, email and phone are updated; the
+     * birthdate is kept. Companies with the same email do not conflict.
+     */
+    List<UpsertedClient> upsertPersons(List<Person> persons);
+
+    /**
+     * Upserts companies keyed on their company identifier. On conflict name, email and phone are updated; the
+     * email may be shared with persons and other companies.
+     */
+    List<UpsertedClient> upsertCompanies(List<Company> companies);
+
+    /**
+     * @param client  the stored client (detached)
+     * @param created whether the row was inserted rather than updated
+     */
+    record UpsertedClient(Client client, boolean created) {}
+}
@@ -0,0 +1,136 @@
+package com.insurance.repository;
+
+import com.insurance.models.Client;
+import com.insurance.models.Company;
+import com.insurance.models.Person;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+@RequiredArgsConstructor
+class ClientUpsertRepositoryImpl implements ClientUpsertRepository {
+    // Keeps each statement well below PostgreSQL's limit of 65535 bind parameters.
+    private static final int ROWS_PER_STATEMENT = 1000;
+
+    private static final String PERSON_INSERT =
+            "INSERT INTO clients (client_type, name, email, email_key, phone, birthdate) VALUES ";
+    // The predicate selects the partial unique index on the emails of persons.
+    private static final String PERSON_CONFLICT =
+            " ON CONFLICT (email_key) WHERE client_type = 'PERSON'" +
+            " DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email, phone = EXCLUDED.phone";
+    private static final String COMPANY_INSERT =
+            "INSERT INTO clients (client_type, name, email, email_key, phone, company_identifier) VALUES ";
+    private static final String COMPANY_CONFLICT =
+            " ON CONFLICT (company_identifier) DO UPDATE SET name = EXCLUDED.name, email = EXCLUDED.email," +
+            " email_key = EXCLUDED.email_key, phone = EXCLUDED.phone";
+    // xmax is 0 on a freshly inserted row version and set on one written by the DO UPDATE branch.
+    private static final String RETURNING =
+            " RETURNING id, client_type, name, email, phone, birthdate, company_identifier, (xmax = 0) AS created";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<UpsertedClient> upsertPersons(List<Person> persons) {
+        return upsert(persons, PERSON_INSERT, PERSON_CONFLICT, person -> List.of(
+                "PERSON", person.getName(), person.getEmail(), Client.normalizeEmail(person.getEmail()),
+                person.getPhone(), person.getBirthdate()));
+    }
+
+    @Override
+    public List<UpsertedClient> upsertCompanies(List<Company> companies) {
+        return upsert(companies, COMPANY_INSERT, COMPANY_CONFLICT, company -> List.of(
+                "COMPANY", company.getName(), company.getEmail(), Client.normalizeEmail(company.getEmail()),
+                company.getPhone(), company.getCompanyIdentifier()));
+    }
+
+    private <T extends Client> List<UpsertedClient> upsert(List<T> clients, String insert, String conflict,
+                                                          Function<T, List<Object>> columns) {
+        List<UpsertedClient> upserted = new ArrayList<>(clients.size());
+        for (int from = 0; from < clients.size(); from += ROWS_PER_STATEMENT) {
+            List<T> chunk = clients.subList(from, Math.min(from + ROWS_PER_STATEMENT, clients.size()));
+            List<Object> parameters = new ArrayList<>();
+            StringBuilder sql = new StringBuilder(insert);
+            for (T client : chunk) {
+                sql.append(parameters.isEmpty() ? "(" : ", (");
+                List<Object> values = columns.apply(client);
+                for (int i = 0; i < values.size(); i++) {
+                    parameters.add(values.get(i));
+                    sql.append(i == 0 ? "?" : ", ?").append(parameters.size());
+                }
+                sql.append(')');
+            }
+            sql.append(conflict).append(RETURNING);
+            upserted.addAll(execute(sql.toString(), parameters));
+        }
+        evictUpdated(upserted);
+        return upserted;
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<UpsertedClient> execute(String sql, List<Object> parameters) {
+        NativeQuery<Object[]> query = entityManager.createNativeQuery(sql).unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("client_type", String.class)
+                .addScalar("name", String.class)
+                .addScalar("email", String.class)
+                .addScalar("phone", String.class)
+                .addScalar("birthdate", LocalDate.class)
+                .addScalar("company_identifier", String.class)
+                .addScalar("created", Boolean.class);
+        for (int i = 0; i < parameters.size(); i++) {
+            query.setParameter(i + 1, parameters.get(i));
+        }
+        return query.getResultList().stream()
+                .map(ClientUpsertRepositoryImpl::toUpsertedClient)
+                .toList();
+    }
+
+    private static UpsertedClient toUpsertedClient(Object[] row) {
+        Client client;
+        if ("COMPANY".equals(row[1])) {
+            Company company = new Company();
+            company.setCompanyIdentifier((String) row[6]);
+            client = company;
+        } else {
+            Person person = new Person();
+            person.setBirthdate((LocalDate) row[5]);
+            client = person;
+        }
+        client.setId((Long) row[0]);
+        client.setName((String) row[2]);
+        client.setEmail((String) row[3]);
+        client.setEmailKey(Client.normalizeEmail(client.getEmail()));
+        client.setPhone((String) row[4]);
+        return new UpsertedClient(client, (Boolean) row[7]);
+    }
+
+    // The native statement bypasses Hibernate, so updated clients are evicted from the second-level cache
+    // explicitly: now, and again after commit in case a concurrent read cached the old row meanwhile.
+    private void evictUpdated(List<UpsertedClient> upserted) {
+        List<Long> updatedIds = upserted.stream()
+                .filter(client -> !client.created())
+                .map(client -> client.client().getId())
+                .toList();
+        if (updatedIds.isEmpty()) {
+            return;
+        }
+        Cache cache = entityManager.getEntityManagerFactory().getCache();
+        updatedIds.forEach(id -> cache.evict(Client.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    updatedIds.forEach(id -> cache.evict(Client.class, id));
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.insurance.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Bulk changes to active contracts, applied in chunks of consecutive ids so that a job can checkpoint between
+ * them. Each method changes the first {@code limit} matching contracts with an id above {@code afterId}
+ * (of one client, if {@code clientId} is set) in a single statement.
+ */
+public interface ContractBulkRepository {
+
+    BulkChunk repriceActiveContracts(long afterId, int limit, BigDecimal costFactor, Long clientId,
+                                     LocalDate currentDate);
+
+    BulkChunk endActiveContracts(long afterId, int limit, LocalDate endDate, Long clientId, LocalDate currentDate);
+
+    /**
+     * @param count  the number of contracts changed
+     * @param lastId the highest id changed, or {@code afterId} if none
+     */
+    record BulkChunk(int count, long lastId) {}
+}
@@ -0,0 +1,59 @@
+package com.insurance.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@RequiredArgsConstructor
+class ContractBulkRepositoryImpl implements ContractBulkRepository {
+    // ?1 afterId, ?2 current date, ?3 limit, ?4 cost factor or end date, ?5 client id.
+    private static final String REPRICE =
+            "WITH chunk AS (SELECT id FROM contracts WHERE id > ?1 AND (end_date IS NULL OR end_date > ?2)%s" +
+            " ORDER BY id LIMIT ?3)" +
+            " UPDATE contracts c SET cost_amount = GREATEST(ROUND(c.cost_amount * ?4, 2), 0.01), update_date = ?2" +
+            " FROM chunk WHERE c.id = chunk.id RETURNING c.id";
+    private static final String END =
+            "WITH chunk AS (SELECT id FROM contracts WHERE id > ?1 AND (end_date IS NULL OR end_date > ?4)" +
+            " AND start_date <= ?4%s" +
+            " ORDER BY id LIMIT ?3)" +
+            " UPDATE contracts c SET end_date = ?4, update_date = ?2" +
+            " FROM chunk WHERE c.id = chunk.id RETURNING c.id";
+    private static final String CLIENT_FILTER = " AND client_id = ?5";
+
+    private final EntityManager entityManager;
+
+    @Override
+    public BulkChunk repriceActiveContracts(long afterId, int limit, BigDecimal costFactor, Long clientId,
+                                            LocalDate currentDate) {
+        return execute(REPRICE, afterId, limit, costFactor, clientId, currentDate);
+    }
+
+    @Override
+    public BulkChunk endActiveContracts(long afterId, int limit, LocalDate endDate, Long clientId,
+                                        LocalDate currentDate) {
+        return execute(END, afterId, limit, endDate, clientId, currentDate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private BulkChunk execute(String sql, long afterId, int limit, Object value, Long clientId,
+                              LocalDate currentDate) {
+        Query query = entityManager.createNativeQuery(sql.formatted(clientId == null ? "" : CLIENT_FILTER), Long.class)
+                .setParameter(1, afterId)
+                .setParameter(2, currentDate)
+                .setParameter(3, limit)
+                .setParameter(4, value);
+        if (clientId != null) {
+            query.setParameter(5, clientId);
+        }
+        List<Long> ids = query.getResultList();
+        if (ids.isEmpty()) {
+            return new BulkChunk(0, afterId);
+        }
+        ContractQueryCache.evictAfterWrite(entityManager);
+        return new BulkChunk(ids.size(), ids.stream().mapToLong(Long::longValue).max().getAsLong());
+    }
+}
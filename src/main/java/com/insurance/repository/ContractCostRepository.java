@@ -0,0 +1,24 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ContractResponseDTO;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Optional;
+
+/**
+ * Changes the cost of a contract in a single {@code UPDATE ... RETURNING} statement, without loading it first.
+ */
+public interface ContractCostRepository {
+
+    /**
+     * @return the updated contract, or empty if there is no contract with that id
+     */
+    Optional<UpdatedContract> updateCost(Long id, BigDecimal costAmount, LocalDate updateDate);
+
+    /**
+     * @param clientId           the client owning the contract
+     * @param previousCostAmount the cost the update replaced
+     */
+    record UpdatedContract(Long clientId, ContractResponseDTO contract, BigDecimal previousCostAmount) {}
+}
@@ -0,0 +1,47 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ContractResponseDTO;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+class ContractCostRepositoryImpl implements ContractCostRepository {
+    private static final String UPDATE_COST =
+            "UPDATE contracts c SET cost_amount = ?1, update_date = ?2" +
+            " FROM (SELECT id, cost_amount FROM contracts WHERE id = ?3 FOR UPDATE) previous" +
+            " WHERE c.id = previous.id" +
+            " RETURNING c.id, c.client_id, c.start_date, c.end_date, c.cost_amount," +
+            " previous.cost_amount AS previous_cost_amount";
+
+    private final EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Optional<UpdatedContract> updateCost(Long id, BigDecimal costAmount, LocalDate updateDate) {
+        List<Object[]> rows = entityManager.createNativeQuery(UPDATE_COST).unwrap(NativeQuery.class)
+                .addScalar("id", Long.class)
+                .addScalar("client_id", Long.class)
+                .addScalar("start_date", LocalDate.class)
+                .addScalar("end_date", LocalDate.class)
+                .addScalar("cost_amount", BigDecimal.class)
+                .addScalar("previous_cost_amount", BigDecimal.class)
+                .setParameter(1, costAmount)
+                .setParameter(2, updateDate)
+                .setParameter(3, id)
+                .getResultList();
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        ContractQueryCache.evictAfterWrite(entityManager);
+
+        Object[] row = rows.get(0);
+        return Optional.of(new UpdatedContract((Long) row[1], new ContractResponseDTO(
+                (Long) row[0], (LocalDate) row[2], (LocalDate) row[3], (BigDecimal) row[4]), (BigDecimal) row[5]));
+    }
+}
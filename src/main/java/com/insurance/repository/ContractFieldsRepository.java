@@ -0,0 +1,21 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ContractResponseDTO;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Active-contract reads that only select the requested columns.
+ */
+public interface ContractFieldsRepository {
+
+    /**
+     * Same filter as {@link ContractRepository#findActiveContractsByClientId} (and its
+     * {@code updateDate} variant when {@code updateDate} is not null). Fields outside
+     * {@code fields} are not read from the database and are {@code null} in the result.
+     */
+    List<ContractResponseDTO> findActiveContractFields(
+            Long clientId, LocalDate currentDate, LocalDate updateDate, Set<String> fields);
+}
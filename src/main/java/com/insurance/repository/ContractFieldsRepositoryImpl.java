@@ -0,0 +1,54 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ContractResponseDTO;
+import com.insurance.models.Contract;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.criteria.*;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.jpa.HibernateHints;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+class ContractFieldsRepositoryImpl implements ContractFieldsRepository {
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ContractResponseDTO> findActiveContractFields(
+            Long clientId, LocalDate currentDate, LocalDate updateDate, Set<String> fields) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Contract> contract = query.from(Contract.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(contract.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        Path<LocalDate> endDate = contract.get("endDate");
+        List<Predicate> predicates = new ArrayList<>(3);
+        predicates.add(cb.equal(contract.get("client").get("id"), clientId));
+        predicates.add(cb.or(cb.isNull(endDate), cb.greaterThan(endDate, currentDate)));
+        if (updateDate != null) {
+            predicates.add(cb.equal(contract.get("updateDate"), updateDate));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(query)
+                .setHint(HibernateHints.HINT_CACHEABLE, true)
+                .setHint(HibernateHints.HINT_CACHE_REGION, ContractRepository.QUERY_CACHE_REGION)
+                .getResultList().stream()
+                .map(tuple -> new ContractResponseDTO(
+                        fields.contains("id") ? tuple.get("id", Long.class) : null,
+                        fields.contains("startDate") ? tuple.get("startDate", LocalDate.class) : null,
+                        fields.contains("endDate") ? tuple.get("endDate", LocalDate.class) : null,
+                        fields.contains("costAmount") ? tuple.get("costAmount", BigDecimal.class) : null))
+                .toList();
+    }
+}
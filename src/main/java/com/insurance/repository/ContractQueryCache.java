@@ -0,0 +1,31 @@
+package com.insurance.repository;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.SessionFactory;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Evicts the cached active-contract reads after a native contract update. Statements read through
+ * {@code getResultList} ({@code UPDATE ... RETURNING}) count as queries for Hibernate, which therefore does not
+ * invalidate the query cache for them.
+ */
+final class ContractQueryCache {
+
+    private ContractQueryCache() {
+    }
+
+    // Now, and again after commit in case a concurrent read cached the old rows meanwhile.
+    static void evictAfterWrite(EntityManager entityManager) {
+        var cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictQueryRegion(ContractRepository.QUERY_CACHE_REGION);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    cache.evictQueryRegion(ContractRepository.QUERY_CACHE_REGION);
+                }
+            });
+        }
+    }
+}
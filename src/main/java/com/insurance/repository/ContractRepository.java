@@ -1,29 +1,55 @@
 package com.insurance.repository;
 
+import com.insurance.dto.ClientPremiumDTO;
+import com.insurance.dto.ContractResponseDTO;
 import com.insurance.models.Contract;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface ContractRepository extends JpaRepository<Contract, Long> {
+public interface ContractRepository extends JpaRepository<Contract, Long>, ContractFieldsRepository,
+        ContractCostRepository, ContractBulkRepository {
 
-    @Query("SELECT c FROM Contract c WHERE c.client.id = :clientId " +
+    /**
+     * Query cache region of the active-contract reads (sized in {@code ehcache.xml}).
+     */
+    String QUERY_CACHE_REGION = "contract-queries";
+
+    // Active-contract reads project to DTOs: the query cache then holds the rows themselves
+    // instead of ids that would each need an entity load.
+
+    @Query("SELECT new com.insurance.dto.ContractResponseDTO(c.id, c.startDate, c.endDate, c.costAmount) " +
+            "FROM Contract c WHERE c.client.id = :clientId " +
             "AND (c.endDate IS NULL OR c.endDate > :currentDate)")
-    List<Contract> findActiveContractsByClientId(
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<ContractResponseDTO> findActiveContractsByClientId(
             @Param("clientId") Long clientId,
             @Param("currentDate") LocalDate currentDate
     );
 
-    @Query("SELECT c FROM Contract c WHERE c.client.id = :clientId " +
+    @Query("SELECT new com.insurance.dto.ContractResponseDTO(c.id, c.startDate, c.endDate, c.costAmount) " +
+            "FROM Contract c WHERE c.client.id = :clientId " +
             "AND (c.endDate IS NULL OR c.endDate > :currentDate) " +
             "AND c.updateDate = :updateDate")
-    List<Contract> findActiveContractsByClientIdAndUpdateDate(
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
+    List<ContractResponseDTO> findActiveContractsByClientIdAndUpdateDate(
             @Param("clientId") Long clientId,
             @Param("currentDate") LocalDate currentDate,
             @Param("updateDate") LocalDate updateDate
@@ -32,10 +58,33 @@ public interface ContractRepository extends JpaRepository<Contract, Long> {
     @Query("SELECT COALESCE(SUM(c.costAmount), 0) FROM Contract c " +
             "WHERE c.client.id = :clientId " +
             "AND (c.endDate IS NULL OR c.endDate > :currentDate)")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)
+    })
     BigDecimal sumActiveContractsCostByClientId(
             @Param("clientId") Long clientId,
             @Param("currentDate") LocalDate currentDate
     );
 
+    // Not cacheable: with sharding the same query returns a different total on every shard.
+    @Query("SELECT COALESCE(SUM(c.costAmount), 0) FROM Contract c " +
+            "WHERE c.endDate IS NULL OR c.endDate > :currentDate")
+    BigDecimal sumAllActiveContractsCost(@Param("currentDate") LocalDate currentDate);
+
+    @Query("SELECT new com.insurance.dto.ClientPremiumDTO(c.client.id, SUM(c.costAmount)) FROM Contract c " +
+            "WHERE c.endDate IS NULL OR c.endDate > :currentDate " +
+            "GROUP BY c.client.id ORDER BY SUM(c.costAmount) DESC, c.client.id")
+    List<ClientPremiumDTO> findTopActivePremiums(@Param("currentDate") LocalDate currentDate, Limit limit);
+
+    // Clients without active contracts are left out.
+    @Query("SELECT new com.insurance.dto.ClientPremiumDTO(c.client.id, SUM(c.costAmount)) FROM Contract c " +
+            "WHERE c.client.id IN :clientIds AND (c.endDate IS NULL OR c.endDate > :currentDate) " +
+            "GROUP BY c.client.id")
+    List<ClientPremiumDTO> sumActivePremiumsByClientIds(
+            @Param("clientIds") Collection<Long> clientIds,
+            @Param("currentDate") LocalDate currentDate
+    );
+
     List<Contract> findByClientId(Long clientId);
 }
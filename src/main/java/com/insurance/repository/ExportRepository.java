@@ -0,0 +1,118 @@
+package com.insurance.repository;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.dto.ExportDTO.Dataset;
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Streams whole tables out of the database without materializing them: CSV through PostgreSQL's
+ * {@code COPY ... TO STDOUT}, NDJSON through a server-side cursor read {@code FETCH_SIZE} rows at a time.
+ * Both run in a read-only transaction, so they go to a replica when one is configured, or to the shard
+ * selected by the caller.
+ */
+@Repository
+public class ExportRepository {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public ExportRepository(DataSource dataSource, ObjectMapper objectMapper) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Writes the dataset as CSV, optionally preceded by a header line, and returns the number of rows.
+     */
+    @Transactional(readOnly = true)
+    public long copyCsv(Dataset dataset, boolean header, OutputStream out) {
+        String copy = "COPY (" + query(dataset) + ") TO STDOUT WITH (FORMAT csv, HEADER " + header + ")";
+        Long rows = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyOut(copy, out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return rows == null ? 0 : rows;
+    }
+
+    /**
+     * Writes the dataset as one JSON object per line, keyed by column name, and returns the number of rows.
+     */
+    @Transactional(readOnly = true)
+    public long writeNdjson(Dataset dataset, OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        long[] rows = {0};
+        jdbcTemplate.query(query(dataset), (RowCallbackHandler) rs -> {
+            try {
+                writeRow(generator, rs);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        });
+        generator.flush();
+        return rows[0];
+    }
+
+    private static void writeRow(JsonGenerator generator, ResultSet rs) throws SQLException, IOException {
+        ResultSetMetaData metaData = rs.getMetaData();
+        generator.writeStartObject();
+        for (int column = 1; column <= metaData.getColumnCount(); column++) {
+            generator.writeFieldName(metaData.getColumnLabel(column));
+            switch (metaData.getColumnType(column)) {
+                case Types.BIGINT -> {
+                    long value = rs.getLong(column);
+                    if (rs.wasNull()) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(value);
+                    }
+                }
+                case Types.NUMERIC, Types.DECIMAL -> {
+                    BigDecimal value = rs.getBigDecimal(column);
+                    if (value == null) {
+                        generator.writeNull();
+                    } else {
+                        generator.writeNumber(value);
+                    }
+                }
+                // Dates come back as ISO-8601 strings.
+                default -> generator.writeString(rs.getString(column));
+            }
+        }
+        generator.writeEndObject();
+        generator.writeRaw('\n');
+    }
+
+    private static String query(Dataset dataset) {
+        return switch (dataset) {
+            case CLIENTS -> "SELECT id, client_type, name, email, phone, birthdate, company_identifier " +
+                    "FROM clients ORDER BY id";
+            case CONTRACTS -> "SELECT id, client_id, start_date, end_date, cost_amount, update_date " +
+                    "FROM contracts ORDER BY id";
+        };
+    }
+}
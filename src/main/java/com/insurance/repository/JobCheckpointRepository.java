@@ -0,0 +1,20 @@
+package com.insurance.repository;
+
+import com.insurance.models.JobCheckpoint;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface JobCheckpointRepository extends JpaRepository<JobCheckpoint, Long> {
+
+    // Held until the chunk commits: a second runner of the same job waits and continues after it.
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM JobCheckpoint c WHERE c.jobId = :jobId")
+    Optional<JobCheckpoint> lockByJobId(@Param("jobId") Long jobId);
+}
@@ -0,0 +1,58 @@
+package com.insurance.repository;
+
+import com.insurance.models.Job;
+import com.insurance.models.JobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface JobRepository extends JpaRepository<Job, Long> {
+
+    @Query("SELECT j FROM Job j WHERE j.status IN (com.insurance.models.JobStatus.QUEUED, " +
+            "com.insurance.models.JobStatus.RUNNING) " +
+            "AND (j.owner IS NULL OR j.heartbeat < :expiredBefore) ORDER BY j.id")
+    List<Job> findClaimable(@Param("expiredBefore") Instant expiredBefore);
+
+    /**
+     * Takes the lease of a job that is not finished and not leased, or whose lease expired.
+     *
+     * @return 1 if the lease was taken
+     */
+    @Modifying
+    @Query("UPDATE Job j SET j.owner = :owner, j.heartbeat = :now, " +
+            "j.status = com.insurance.models.JobStatus.RUNNING, j.startedAt = COALESCE(j.startedAt, :now) " +
+            "WHERE j.id = :id AND j.status IN (com.insurance.models.JobStatus.QUEUED, " +
+            "com.insurance.models.JobStatus.RUNNING) " +
+            "AND (j.owner IS NULL OR j.heartbeat < :expiredBefore)")
+    int claim(@Param("id") Long id, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("expiredBefore") Instant expiredBefore);
+
+    /**
+     * Records progress and renews the lease, if still held.
+     *
+     * @return 0 if the lease was lost
+     */
+    @Modifying
+    @Query("UPDATE Job j SET j.processed = :processed, j.heartbeat = :now WHERE j.id = :id AND j.owner = :owner")
+    int heartbeat(@Param("id") Long id, @Param("owner") String owner,
+                  @Param("processed") long processed, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE Job j SET j.status = :status, j.processed = :processed, j.error = :error, " +
+            "j.finishedAt = :now, j.owner = NULL WHERE j.id = :id AND j.owner = :owner")
+    int finish(@Param("id") Long id, @Param("owner") String owner, @Param("status") JobStatus status,
+               @Param("processed") long processed, @Param("error") String error, @Param("now") Instant now);
+
+    /**
+     * Gives up the lease so that the job is resumed at the next poll, here or on another instance.
+     */
+    @Modifying
+    @Query("UPDATE Job j SET j.owner = NULL WHERE j.id = :id AND j.owner = :owner")
+    int release(@Param("id") Long id, @Param("owner") String owner);
+}
@@ -0,0 +1,82 @@
+package com.insurance.repository;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.sql.DataSource;
+import java.time.YearMonth;
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Streams the contracts due within a projection horizon through a server-side cursor, reading each as two epoch
+ * days and an amount in cents so that no objects are created per row.
+ */
+@Repository
+public class PremiumScheduleRepository {
+
+    private static final int FETCH_SIZE = 10_000;
+    private static final String DUE_CONTRACTS = """
+            SELECT start_date - DATE '1970-01-01', end_date - DATE '1970-01-01', (cost_amount * 100)::bigint
+            FROM contracts
+            WHERE client_id BETWEEN ? AND ?
+              AND (end_date IS NULL OR end_date > ?)
+              AND start_date < ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PremiumScheduleRepository(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    }
+
+    /**
+     * @return the smallest and largest client id with contracts
+     */
+    @Transactional(readOnly = true)
+    public Optional<ClientIdRange> findClientIdRange() {
+        return Optional.ofNullable(jdbcTemplate.queryForObject(
+                "SELECT MIN(client_id), MAX(client_id) FROM contracts",
+                (rs, rowNum) -> {
+                    long min = rs.getLong(1);
+                    return rs.wasNull() ? null : new ClientIdRange(min, rs.getLong(2));
+                }));
+    }
+
+    /**
+     * Adds the premiums, in cents, of the contracts of clients {@code fromClientId..toClientId} that are due in
+     * the {@code months} months from {@code from} to {@code deltas}. A contract is due in every month from the one
+     * it starts in up to the one holding the day before its end date; it adds its premium at the index of its
+     * first due month and subtracts it at the index after its last, so a running sum over {@code deltas} (of
+     * length {@code months + 1}) gives the premium of each month.
+     */
+    @Transactional(readOnly = true)
+    public void accumulate(long fromClientId, long toClientId, YearMonth from, int months, long[] deltas) {
+        int[] monthStarts = new int[months + 1];
+        for (int month = 0; month <= months; month++) {
+            monthStarts[month] = (int) from.plusMonths(month).atDay(1).toEpochDay();
+        }
+        jdbcTemplate.query(DUE_CONTRACTS, (RowCallbackHandler) rs -> {
+            int firstMonth = Math.max(0, monthOf(monthStarts, rs.getInt(1)));
+            int endDay = rs.getInt(2);
+            int endMonth = rs.wasNull() ? months : Math.min(months, monthOf(monthStarts, endDay - 1) + 1);
+            if (firstMonth < endMonth) {
+                long cents = rs.getLong(3);
+                deltas[firstMonth] += cents;
+                deltas[endMonth] -= cents;
+            }
+        }, fromClientId, toClientId, from.atDay(1), from.plusMonths(months).atDay(1));
+    }
+
+    /**
+     * @return the index of the month holding the day, -1 before the first month
+     */
+    private static int monthOf(int[] monthStarts, int epochDay) {
+        int index = Arrays.binarySearch(monthStarts, epochDay);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    public record ClientIdRange(long min, long max) {}
+}
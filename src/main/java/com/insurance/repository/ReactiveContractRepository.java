@@ -0,0 +1,78 @@
+package com.insurance.repository;
+
+import com.insurance.dto.ContractResponseDTO;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Non-blocking equivalents of the {@link ContractRepository} read queries. Rows are fetched from
+ * a cursor in batches of {@code FETCH_SIZE} as downstream demand arrives.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveContractRepository {
+
+    private static final int FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<Boolean> existsClientById(Long clientId) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM clients WHERE id = :clientId)")
+                .bind("clientId", clientId)
+                .map(row -> row.get(0, Boolean.class))
+                .one();
+    }
+
+    public Flux<ContractResponseDTO> findActiveContractsByClientId(Long clientId, LocalDate currentDate) {
+        return databaseClient.sql("SELECT id, start_date, end_date, cost_amount FROM contracts " +
+                        "WHERE client_id = :clientId " +
+                        "AND (end_date IS NULL OR end_date > :currentDate)")
+                .bind("clientId", clientId)
+                .bind("currentDate", currentDate)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveContractRepository::mapContract)
+                .all();
+    }
+
+    public Flux<ContractResponseDTO> findActiveContractsByClientIdAndUpdateDate(
+            Long clientId, LocalDate currentDate, LocalDate updateDate) {
+        return databaseClient.sql("SELECT id, start_date, end_date, cost_amount FROM contracts " +
+                        "WHERE client_id = :clientId " +
+                        "AND (end_date IS NULL OR end_date > :currentDate) " +
+                        "AND update_date = :updateDate")
+                .bind("clientId", clientId)
+                .bind("currentDate", currentDate)
+                .bind("updateDate", updateDate)
+                .filter(statement -> statement.fetchSize(FETCH_SIZE))
+                .map(ReactiveContractRepository::mapContract)
+                .all();
+    }
+
+    public Mono<BigDecimal> sumActiveContractsCostByClientId(Long clientId, LocalDate currentDate) {
+        return databaseClient.sql("SELECT COALESCE(SUM(cost_amount), 0) FROM contracts " +
+                        "WHERE client_id = :clientId " +
+                        "AND (end_date IS NULL OR end_date > :currentDate)")
+                .bind("clientId", clientId)
+                .bind("currentDate", currentDate)
+                .map(row -> row.get(0, BigDecimal.class))
+                .one();
+    }
+
+    private static ContractResponseDTO mapContract(Readable row) {
+        return new ContractResponseDTO(
+                row.get("id", Long.class),
+                row.get("start_date", LocalDate.class),
+                row.get("end_date", LocalDate.class),
+                row.get("cost_amount", BigDecimal.class)
+        );
+    }
+}
@@ -0,0 +1,27 @@
+package com.insurance.repository;
+
+import com.insurance.models.ScheduledRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+
+@Repository
+public interface ScheduledRunRepository extends JpaRepository<ScheduledRun, String> {
+
+    /**
+     * Records a run of the task now, unless it already ran at or after {@code notBefore}. The row is created on
+     * the first run; concurrent claims are serialized by its primary key.
+     *
+     * @return 1 if this caller may run the task
+     */
+    @Modifying
+    @Query(value = "INSERT INTO scheduled_runs (name, last_run, owner) VALUES (:name, :now, :owner) " +
+            "ON CONFLICT (name) DO UPDATE SET last_run = EXCLUDED.last_run, owner = EXCLUDED.owner " +
+            "WHERE scheduled_runs.last_run < :notBefore", nativeQuery = true)
+    int claim(@Param("name") String name, @Param("owner") String owner,
+              @Param("now") Instant now, @Param("notBefore") Instant notBefore);
+}
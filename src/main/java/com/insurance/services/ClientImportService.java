@@ -0,0 +1,291 @@
+package com.insurance.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.insurance.dto.BulkUpsertResultDTO;
+import com.insurance.dto.ClientDTO;
+import com.insurance.dto.ClientImportResultDTO;
+import com.insurance.dto.ClientImportResultDTO.RowError;
+import com.insurance.dto.CompanyDTO;
+import com.insurance.dto.PersonDTO;
+import com.insurance.dto.ShardUpsertResultDTO;
+import com.insurance.exception.GlobalExceptionHandler;
+import com.insurance.sharding.ShardRouter;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Imports clients from a CSV or NDJSON stream. Rows are read in chunks of {@code CHUNK_SIZE}; each chunk is
+ * parsed and validated in parallel against the {@link PersonDTO}/{@link CompanyDTO} constraints, and its
+ * valid rows are upserted in one transaction through {@link ClientService#upsertClients}. The upload is
+ * never held in memory as a whole, and a chunk that was written stays written if a later one fails. A chunk the
+ * database rejects is upserted again row by row, and the rows it still rejects are reported like invalid ones.
+ * With sharding, only the rows of the shards that rolled the chunk back are upserted again.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ClientImportService {
+
+    private static final int CHUNK_SIZE = 5000;
+
+    private final ClientService clientService;
+    private final ShardRouter shardRouter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+
+    /**
+     * One JSON client per line, in the same shape as {@code POST /api/clients}. Blank lines are skipped.
+     */
+    public ClientImportResultDTO importNdjson(InputStream input) throws IOException {
+        ObjectReader reader = objectMapper.readerFor(ClientDTO.class);
+        Import clientImport = new Import();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            long lineNumber = 0;
+            String line;
+            while ((line = lines.readLine()) != null) {
+                lineNumber++;
+                if (!line.isBlank()) {
+                    String json = line;
+                    clientImport.add(lineNumber, () -> reader.readValue(json));
+                }
+            }
+        }
+        return clientImport.finish();
+    }
+
+    /**
+     * CSV with a header line naming the columns {@code type}, {@code name}, {@code email}, {@code phone},
+     * {@code birthdate} and {@code companyIdentifier}, in any order. The snake_case names of the client export
+     * are accepted too, so an export can be imported back; other columns are ignored.
+     */
+    public ClientImportResultDTO importCsv(InputStream input) throws IOException {
+        Import clientImport = new Import();
+        try (MappingIterator<Map<String, String>> rows = csvMapper.readerForMapOf(String.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .readValues(input)) {
+            boolean hasRows = rows.hasNextValue();
+            requireColumns((CsvSchema) rows.getParserSchema());
+            while (hasRows) {
+                // hasNextValue() has moved to the start of the row.
+                long line = rows.getCurrentLocation().getLineNr();
+                Map<String, String> row = rows.nextValue();
+                clientImport.add(line, () -> toClient(row));
+                hasRows = rows.hasNextValue();
+            }
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Malformed CSV at line " + e.getLocation().getLineNr()
+                    + ": " + e.getOriginalMessage());
+        }
+        return clientImport.finish();
+    }
+
+    private static void requireColumns(CsvSchema header) {
+        List<String> missing = new ArrayList<>();
+        for (String column : List.of("type", "name", "email", "phone")) {
+            if (header.column(column) == null && header.column("type".equals(column) ? "client_type" : column) == null) {
+                missing.add(column);
+            }
+        }
+        if (!missing.isEmpty()) {
+            throw new IllegalArgumentException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    private static ClientDTO toClient(Map<String, String> row) {
+        String type = value(row, "type", "client_type");
+        String name = value(row, "name", "name");
+        String email = value(row, "email", "email");
+        String phone = value(row, "phone", "phone");
+        if (type == null) {
+            throw new RowException("type: Type is required");
+        }
+        return switch (type.toUpperCase(Locale.ROOT)) {
+            case ClientDTO.PERSON -> new PersonDTO(null, name, email, phone,
+                    birthdate(value(row, "birthdate", "birthdate")));
+            case ClientDTO.COMPANY -> new CompanyDTO(null, name, email, phone,
+                    value(row, "companyIdentifier", "company_identifier"));
+            default -> throw new RowException("type: Type must be PERSON or COMPANY");
+        };
+    }
+
+    private static LocalDate birthdate(String value) {
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new RowException("birthdate: Birthdate must be a date (yyyy-MM-dd)");
+        }
+    }
+
+    private static String value(Map<String, String> row, String name, String alias) {
+        String value = row.containsKey(name) ? row.get(name) : row.get(alias);
+        return value == null || value.isBlank() ? null : value.trim();
+    }
+
+    private List<String> validate(ClientDTO client) {
+        Set<ConstraintViolation<ClientDTO>> violations = validator.validate(client);
+        return violations.stream()
+                .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+                .sorted()
+                .toList();
+    }
+
+    @FunctionalInterface
+    private interface RowParser {
+        ClientDTO parse() throws IOException;
+    }
+
+    private record PendingRow(long line, RowParser parser) {}
+
+    private record CheckedRow(long line, ClientDTO client, List<String> errors) {}
+
+    private static class RowException extends RuntimeException {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    private class Import {
+        private final List<PendingRow> chunk = new ArrayList<>(CHUNK_SIZE);
+        private final List<RowError> errors = new ArrayList<>();
+        private long received;
+        private long invalid;
+        private long duplicates;
+        private long created;
+        private long updated;
+        private long rejected;
+
+        void add(long line, RowParser parser) {
+            chunk.add(new PendingRow(line, parser));
+            if (chunk.size() == CHUNK_SIZE) {
+                flush();
+            }
+        }
+
+        ClientImportResultDTO finish() {
+            flush();
+            log.info("Imported clients: {} rows, {} invalid, {} created, {} updated, {} rejected",
+                    received, invalid, created, updated, rejected);
+            return new ClientImportResultDTO(received, invalid, duplicates, created, updated, rejected,
+                    List.copyOf(errors));
+        }
+
+        private void flush() {
+            if (chunk.isEmpty()) {
+                return;
+            }
+            List<CheckedRow> checked = chunk.parallelStream().map(this::check).toList();
+            chunk.clear();
+
+            List<CheckedRow> valid = new ArrayList<>(checked.size());
+            for (CheckedRow row : checked) {
+                if (row.errors().isEmpty()) {
+                    valid.add(row);
+                } else {
+                    invalid++;
+                    report(row.line(), row.errors());
+                }
+            }
+            received += checked.size();
+            if (valid.isEmpty()) {
+                return;
+            }
+            BulkUpsertResultDTO result;
+            try {
+                result = clientService.upsertClients(valid.stream().map(CheckedRow::client).toList());
+            } catch (DataIntegrityViolationException e) {
+                // Rolled back as a whole: upserted again one by one, so that only the offending rows are lost.
+                log.warn("Import chunk of {} rows rejected by the database; upserting its rows one by one",
+                        valid.size(), e);
+                valid.forEach(this::upsertAlone);
+                return;
+            }
+            Set<Integer> failedShards = result.shards().stream()
+                    .filter(shard -> shard.error() != null)
+                    .map(ShardUpsertResultDTO::shard)
+                    .collect(Collectors.toSet());
+            if (failedShards.isEmpty()) {
+                count(result);
+                return;
+            }
+            // The other shards committed their rows: only the rows of the shards rolled back are upserted again.
+            log.warn("Import chunk rolled back on shards {}; upserting their rows one by one", failedShards);
+            result.shards().stream().filter(shard -> shard.error() == null).forEach(this::count);
+            valid.stream()
+                    .filter(row -> failedShards.contains(
+                            shardRouter.shardOfKey(ClientService.placementKey(row.client()))))
+                    .forEach(this::upsertAlone);
+        }
+
+        private void upsertAlone(CheckedRow row) {
+            try {
+                count(clientService.upsertClients(List.of(row.client())));
+            } catch (DataIntegrityViolationException e) {
+                rejected++;
+                report(row.line(), List.of(GlobalExceptionHandler.isUniqueViolation(e)
+                        ? "Conflicts with an existing client"
+                        : "Rejected by the database"));
+            }
+        }
+
+        private void count(BulkUpsertResultDTO result) {
+            duplicates += result.duplicates();
+            created += result.created();
+            updated += result.updated();
+            rejected += result.rejected();
+        }
+
+        private void count(ShardUpsertResultDTO result) {
+            duplicates += result.duplicates();
+            created += result.created();
+            updated += result.updated();
+            rejected += result.rejected();
+        }
+
+        private void report(long line, List<String> rowErrors) {
+            if (errors.size() < ClientImportResultDTO.MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, rowErrors));
+            }
+        }
+
+        private CheckedRow check(PendingRow row) {
+            ClientDTO client;
+            try {
+                client = row.parser().parse();
+            } catch (RowException e) {
+                return new CheckedRow(row.line(), null, List.of(e.getMessage()));
+            } catch (JsonProcessingException e) {
+                return new CheckedRow(row.line(), null, List.of("Malformed row: " + e.getOriginalMessage()));
+            } catch (IOException e) {
+                return new CheckedRow(row.line(), null, List.of("Unreadable row: " + e.getMessage()));
+            }
+            if (client == null) {
+                return new CheckedRow(row.line(), null, List.of("Malformed row: not a client"));
+            }
+            return new CheckedRow(row.line(), client, validate(client));
+        }
+    }
+}
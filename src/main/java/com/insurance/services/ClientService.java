@@ -1,18 +1,40 @@
 package com.insurance.services;
 
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.datasource.ReadYourWritesTracker;
 import com.insurance.dto.*;
+import com.insurance.exception.ResourceConflictException;
 import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.leaderboard.PremiumLeaderboard;
 import com.insurance.models.*;
 import com.insurance.repository.ClientRepository;
+import com.insurance.repository.ClientSearchRepository.ListedClient;
+import com.insurance.repository.ClientUpsertRepository.UpsertedClient;
 import com.insurance.repository.ContractRepository;
+import com.insurance.sharding.ShardResult;
+import com.insurance.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -22,68 +44,381 @@ import java.util.stream.Collectors;
 public class ClientService {
     private final ClientRepository clientRepository;
     private final ContractRepository contractRepository;
+    private final ReadYourWritesTracker readYourWrites;
+    private final ShardRouter shardRouter;
+    private final PremiumLeaderboard leaderboard;
+    private final LiveClientIds liveClientIds;
+
+    // Shorter substrings have no trigram to search the index with.
+    private static final int MIN_NAME_CONTAINS_LENGTH = 3;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    public static final int MAX_BATCH_IDS = 500;
 
     public ClientDTO createClient(ClientDTO clientDTO) {
-        Client client;
-        if (clientDTO instanceof PersonDTO personDTO) {
-            Person person = new Person();
-            person.setName(personDTO.name());
-            person.setEmail(personDTO.email());
-            person.setPhone(personDTO.phone());
-            person.setBirthdate(personDTO.birthdate());
-            client = person;
-        } else if (clientDTO instanceof CompanyDTO companyDTO) {
-            Company company = new Company();
-            company.setName(companyDTO.name());
-            company.setEmail(companyDTO.email());
-            company.setPhone(companyDTO.phone());
-            company.setCompanyIdentifier(companyDTO.companyIdentifier());
-            client = company;
-        } else {
-            throw new IllegalArgumentException("Unknown client type");
-        }
+        Client client = mapToEntity(clientDTO);
+        shardRouter.routeByKey(placementKey(client));
 
         client = clientRepository.save(client);
+        readYourWrites.recordWrite(client.getId());
+        liveClientIds.clientCreated(client.getId());
         return mapToDTO(client);
     }
 
+    /**
+     * Creates the client, or updates the one with the same email (persons) or company identifier
+     * (companies), so that retried creates do not duplicate it.
+     */
+    public UpsertedClientDTO upsertClient(ClientDTO clientDTO) {
+        Client client = mapToEntity(clientDTO);
+        shardRouter.routeByKey(placementKey(client));
+        List<UpsertedClient> upserted = client instanceof Person person
+                ? clientRepository.upsertPersons(List.of(person))
+                : clientRepository.upsertCompanies(List.of((Company) client));
+
+        UpsertedClient result = upserted.getFirst();
+        readYourWrites.recordWrite(result.client().getId());
+        if (result.created()) {
+            liveClientIds.clientCreated(result.client().getId());
+        }
+        return new UpsertedClientDTO(mapToDTO(result.client()), result.created());
+    }
+
+    /**
+     * Bulk variant of {@link #upsertClient}. Clients sharing a key within the batch are collapsed first
+     * (the last one wins): a single ON CONFLICT statement cannot update the same row twice. With sharding,
+     * each shard upserts its part of the batch in its own transaction. A shard that fails is reported with its
+     * clients rejected while the other shards stay committed; only when no client could be written is the
+     * failure thrown.
+     */
+    public BulkUpsertResultDTO upsertClients(List<ClientDTO> clientDTOs) {
+        int[] received = new int[shardRouter.shardCount()];
+        Map<String, Person> persons = new LinkedHashMap<>();
+        Map<String, Company> companies = new LinkedHashMap<>();
+        for (ClientDTO clientDTO : clientDTOs) {
+            Client client = mapToEntity(clientDTO);
+            String key = placementKey(client);
+            received[shardRouter.shardOfKey(key)]++;
+            if (client instanceof Person person) {
+                persons.put(key, person);
+            } else if (client instanceof Company company) {
+                companies.put(key, company);
+            }
+        }
+        int[] unique = new int[shardRouter.shardCount()];
+        persons.keySet().forEach(key -> unique[shardRouter.shardOfKey(key)]++);
+        companies.keySet().forEach(key -> unique[shardRouter.shardOfKey(key)]++);
+
+        List<ShardResult<List<UpsertedClient>>> results = shardRouter.onEachShardSettled(false, shard -> {
+            List<Person> shardPersons = onShard(persons, shard);
+            List<Company> shardCompanies = onShard(companies, shard);
+            List<UpsertedClient> upserted = new ArrayList<>(shardPersons.size() + shardCompanies.size());
+            if (!shardPersons.isEmpty()) {
+                upserted.addAll(clientRepository.upsertPersons(shardPersons));
+            }
+            if (!shardCompanies.isEmpty()) {
+                upserted.addAll(clientRepository.upsertCompanies(shardCompanies));
+            }
+            return upserted;
+        });
+        if (results.stream().noneMatch(result -> !result.failed() && unique[result.shard()] > 0)) {
+            results.stream().filter(ShardResult::failed).findFirst().ifPresent(result -> {
+                throw result.failure();
+            });
+        }
+
+        List<ShardUpsertResultDTO> shards = new ArrayList<>(results.size());
+        for (ShardResult<List<UpsertedClient>> result : results) {
+            int shard = result.shard();
+            int duplicates = received[shard] - unique[shard];
+            if (result.failed()) {
+                log.warn("Bulk upsert of {} clients rolled back on shard {}", unique[shard], shard, result.failure());
+                shards.add(new ShardUpsertResultDTO(shard, received[shard], duplicates, 0, 0, unique[shard],
+                        result.failure() instanceof DataIntegrityViolationException
+                                ? "Rejected by the database"
+                                : "Shard write failed"));
+                continue;
+            }
+            List<UpsertedClient> upserted = result.value();
+            for (UpsertedClient client : upserted) {
+                readYourWrites.recordWrite(client.client().getId());
+                if (client.created()) {
+                    liveClientIds.clientCreated(client.client().getId());
+                }
+            }
+            int created = (int) upserted.stream().filter(UpsertedClient::created).count();
+            shards.add(new ShardUpsertResultDTO(shard, received[shard], duplicates, created,
+                    upserted.size() - created, unique[shard] - upserted.size(), null));
+        }
+        return new BulkUpsertResultDTO(clientDTOs.size(),
+                shards.stream().mapToInt(ShardUpsertResultDTO::duplicates).sum(),
+                shards.stream().mapToInt(ShardUpsertResultDTO::created).sum(),
+                shards.stream().mapToInt(ShardUpsertResultDTO::updated).sum(),
+                shards.stream().mapToInt(ShardUpsertResultDTO::rejected).sum(),
+                List.copyOf(shards));
+    }
+
+    /**
+     * The key {@link #upsertClients} places this client on a shard by. Static, so that computing it never goes
+     * through the transactional proxy.
+     */
+    public static String placementKey(ClientDTO clientDTO) {
+        return placementKey(mapToEntity(clientDTO));
+    }
+
     @Transactional(readOnly = true)
     public ClientDTO getClient(Long id) {
+        rejectKnownAbsent(id);
+        shardRouter.routeById(id);
+        readYourWrites.pinIfRecentlyWritten(id);
         Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
+                .orElseThrow(() -> ResourceNotFoundException.client(id));
         return mapToDTO(client);
     }
 
+    /**
+     * Loads the clients with the given ids with one query per shard holding any of them that is not cached.
+     * Ids no client has are listed apart instead of failing the whole batch.
+     */
+    @Transactional(readOnly = true)
+    public ClientBatchResultDTO getClients(List<Long> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_IDS) {
+            throw new IllegalArgumentException("ids must list between 1 and " + MAX_BATCH_IDS + " client ids");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("ids must not contain empty values");
+        }
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        requested.forEach(readYourWrites::pinIfRecentlyWritten);
+        List<Long> unknown = requested.stream().filter(id -> !liveClientIds.isKnownAbsent(id)).toList();
+
+        Map<Long, Client> found = shardRouter
+                .onEachShard(true, shard -> clientRepository.findAllByIds(unknown.stream()
+                        .filter(id -> shardRouter.shardOf(id) == shard)
+                        .toList()))
+                .stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+
+        List<ClientDTO> clients = new ArrayList<>(found.size());
+        List<Long> missingIds = new ArrayList<>();
+        for (Long id : requested) {
+            Client client = found.get(id);
+            if (client != null) {
+                clients.add(mapToDTO(client));
+            } else {
+                missingIds.add(id);
+            }
+        }
+        return new ClientBatchResultDTO(clients, missingIds);
+    }
+
+    @Transactional(readOnly = true)
+    public ClientPageDTO searchClients(ClientSearchCriteria criteria, Long after, int size) {
+        if (criteria.isEmpty()) {
+            throw new IllegalArgumentException("At least one search criterion is required");
+        }
+        if (criteria.nameContains() != null && criteria.nameContains().length() < MIN_NAME_CONTAINS_LENGTH) {
+            throw new IllegalArgumentException(
+                    "nameContains must have at least " + MIN_NAME_CONTAINS_LENGTH + " characters");
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+
+        // One extra row tells whether there is a next page. Each shard returns its first rows after
+        // the cursor; the first of them all by id are the page.
+        List<Client> clients = shardRouter
+                .onEachShard(true, shard -> clientRepository.search(criteria, after, size + 1))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(Client::getId))
+                .limit(size + 1)
+                .toList();
+        boolean hasNext = clients.size() > size;
+        List<ClientDTO> page = clients.stream()
+                .limit(size)
+                .map(this::mapToDTO)
+                .toList();
+        return new ClientPageDTO(page, hasNext ? page.getLast().id() : null);
+    }
+
+    /**
+     * One page of all clients matching the filters, keyset-paginated: the cursor holds the sort key of the
+     * last client returned, so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public ClientListDTO listClients(ClientListCriteria criteria, String sort, String cursor, int size) {
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+        ClientListCriteria.Sort order = parseSort(sort);
+        ClientListCriteria filters = new ClientListCriteria(
+                parseType(criteria.type()), criteria.name(), criteria.hasActiveContracts());
+        ListCursor after = cursor != null ? decodeCursor(cursor, order) : null;
+        Long afterId = after != null ? after.id() : null;
+        String afterName = after != null ? after.name() : null;
+        LocalDate today = LocalDate.now();
+
+        // Same merge as the search: each shard returns its first rows after the cursor in the page order.
+        // By name, rows are merged on the key the database sorted them by, not one lower-cased in Java.
+        Comparator<ListedClient> comparator = order == ClientListCriteria.Sort.NAME
+                ? Comparator.comparing(ListedClient::nameKey, ClientService::compareCodePoints)
+                        .thenComparing(listed -> listed.client().getId())
+                : Comparator.comparing(listed -> listed.client().getId());
+        List<Client> clients = shardRouter
+                .onEachShard(true, shard -> clientRepository.list(
+                        filters, order, afterId, afterName, today, size + 1))
+                .stream()
+                .flatMap(List::stream)
+                .sorted(comparator)
+                .limit(size + 1)
+                .map(ListedClient::client)
+                .toList();
+        boolean hasNext = clients.size() > size;
+        List<Client> page = clients.subList(0, Math.min(size, clients.size()));
+        return new ClientListDTO(
+                page.stream().map(this::mapToDTO).toList(),
+                hasNext ? encodeCursor(page.getLast(), order) : null);
+    }
+
+    /**
+     * The clients with the highest active premium, from memory; see {@link PremiumLeaderboard}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PremiumLeaderboardDTO getPremiumLeaderboard(int size) {
+        if (size < 1 || size > leaderboard.maxSize()) {
+            throw new IllegalArgumentException("size must be between 1 and " + leaderboard.maxSize());
+        }
+        return new PremiumLeaderboardDTO(leaderboard.top(size), leaderboard.reconciledAt());
+    }
+
     public ClientDTO updateClient(Long id, ClientUpdateDTO updateDTO) {
+        rejectKnownAbsent(id);
+        shardRouter.routeById(id);
         Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
+                .orElseThrow(() -> ResourceNotFoundException.client(id));
+        // A person lives on the shard of its email, where its uniqueness is enforced: an email placed on
+        // another shard would leave the person where a later create of that email cannot see it.
+        if (client instanceof Person
+                && shardRouter.shardOfKey(Client.normalizeEmail(updateDTO.email())) != shardRouter.shardOf(id)) {
+            throw new ResourceConflictException("The email of client " + id + " cannot be changed to "
+                    + updateDTO.email() + ": it belongs on another shard");
+        }
 
         client.setName(updateDTO.name());
         client.setEmail(updateDTO.email());
         client.setPhone(updateDTO.phone());
 
         client = clientRepository.save(client);
+        readYourWrites.recordWrite(id);
         return mapToDTO(client);
     }
 
     public void deleteClient(Long id) {
-        Client client = clientRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + id));
-
-        // Update end dates of all contracts
-        LocalDate currentDate = LocalDate.now();
-        List<Contract> contracts = contractRepository.findByClientId(id);
-        contracts.forEach(contract -> {
-            if (contract.getEndDate() == null || contract.getEndDate().isAfter(currentDate)) {
-                contract.setEndDate(currentDate);
+        rejectKnownAbsent(id);
+        shardRouter.routeById(id);
+        clientRepository.findById(id).orElseThrow(() -> ResourceNotFoundException.client(id));
+
+        clientRepository.deleteWithContracts(id);
+        readYourWrites.recordWrite(id);
+        leaderboard.clientDeleted(id);
+        liveClientIds.clientDeleted(id);
+    }
+
+    private void rejectKnownAbsent(Long id) {
+        if (liveClientIds.isKnownAbsent(id)) {
+            throw ResourceNotFoundException.client(id);
+        }
+    }
+
+    /**
+     * The key a new client is placed on a shard by: the key its upserts match on, so that the unique
+     * constraint deciding between insert and update is on the shard that holds the client.
+     */
+    private static String placementKey(Client client) {
+        return client instanceof Company company
+                ? company.getCompanyIdentifier()
+                : Client.normalizeEmail(client.getEmail());
+    }
+
+    private <T extends Client> List<T> onShard(Map<String, T> clientsByKey, int shard) {
+        return clientsByKey.entrySet().stream()
+                .filter(entry -> shardRouter.shardOfKey(entry.getKey()) == shard)
+                .map(Map.Entry::getValue)
+                .toList();
+    }
+
+    private static ClientListCriteria.Sort parseSort(String sort) {
+        for (ClientListCriteria.Sort value : ClientListCriteria.Sort.values()) {
+            if (value.name().equalsIgnoreCase(sort)) {
+                return value;
             }
-        });
-        var savedContracts = contractRepository.saveAll(contracts);
-        if(savedContracts.isEmpty() || savedContracts.size() != contracts.size()) {
-            log.error("Contracts were not correctly saved for client {}", id);
         }
+        throw new IllegalArgumentException("sort must be id or name");
+    }
+
+    private static String parseType(String type) {
+        if (type == null) {
+            return null;
+        }
+        String normalized = type.toUpperCase(Locale.ROOT);
+        if (!normalized.equals("PERSON") && !normalized.equals("COMPANY")) {
+            throw new IllegalArgumentException("type must be PERSON or COMPANY");
+        }
+        return normalized;
+    }
 
-        clientRepository.delete(client);
+    // The order of the "C" collation: by code point (UTF-16 order differs beyond the BMP).
+    private static int compareCodePoints(String left, String right) {
+        return Arrays.compare(left.codePoints().toArray(), right.codePoints().toArray());
+    }
+
+    // Cursors are opaque to clients: "i:<id>" or "n:<id>:<name>", base64url-encoded.
+    private static String encodeCursor(Client last, ClientListCriteria.Sort order) {
+        String cursor = order == ClientListCriteria.Sort.NAME
+                ? "n:" + last.getId() + ":" + last.getName()
+                : "i:" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ListCursor decodeCursor(String cursor, ClientListCriteria.Sort order) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":", 3);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        boolean byName = order == ClientListCriteria.Sort.NAME;
+        if (!parts[0].equals(byName ? "n" : "i") || parts.length != (byName ? 3 : 2)) {
+            throw new IllegalArgumentException(
+                    "cursor does not belong to a listing sorted by " + order.name().toLowerCase(Locale.ROOT));
+        }
+        try {
+            return new ListCursor(Long.parseLong(parts[1]), byName ? parts[2] : null);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    private record ListCursor(long id, String name) {}
+
+    private static Client mapToEntity(ClientDTO clientDTO) {
+        if (clientDTO instanceof PersonDTO personDTO) {
+            Person person = new Person();
+            person.setName(personDTO.name());
+            person.setEmail(personDTO.email());
+            person.setPhone(personDTO.phone());
+            person.setBirthdate(personDTO.birthdate());
+            return person;
+        } else if (clientDTO instanceof CompanyDTO companyDTO) {
+            Company company = new Company();
+            company.setName(companyDTO.name());
+            company.setEmail(companyDTO.email());
+            company.setPhone(companyDTO.phone());
+            company.setCompanyIdentifier(companyDTO.companyIdentifier());
+            return company;
+        }
+        throw new IllegalArgumentException("Unknown client type");
     }
 
     private ClientDTO mapToDTO(Client client) {
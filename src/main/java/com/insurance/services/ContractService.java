@@ -1,18 +1,27 @@
 package com.insurance.services;
 
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.datasource.ReadYourWritesTracker;
 import com.insurance.dto.*;
 import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.leaderboard.PremiumLeaderboard;
 import com.insurance.models.*;
 import com.insurance.repository.ClientRepository;
+import com.insurance.repository.ContractBulkRepository.BulkChunk;
 import com.insurance.repository.ContractRepository;
+import com.insurance.sharding.ShardRouter;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import com.insurance.models.Contract;
 import java.math.BigDecimal;
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
+import java.util.function.Supplier;
 
 
 @Service
@@ -21,62 +30,175 @@ import java.util.stream.Collectors;
 public class ContractService {
     private final ContractRepository contractRepository;
     private final ClientRepository clientRepository;
+    private final ReadYourWritesTracker readYourWrites;
+    private final QueryCoalescer queryCoalescer;
+    private final ShardRouter shardRouter;
+    private final PremiumLeaderboard leaderboard;
+    private final LiveClientIds liveClientIds;
 
-    public ContractResponseDTO createContract(ContractDTO contractDTO) {
-        Client client = clientRepository.findById(contractDTO.clientId())
-                .orElseThrow(() -> new ResourceNotFoundException("Client not found with id: " + contractDTO.clientId()));
+    private static final Set<String> ALL_FIELDS = Set.copyOf(ContractResponseDTO.FIELDS);
+    private static final String FOREIGN_KEY_VIOLATION = "23503";
 
+    public ContractResponseDTO createContract(ContractDTO contractDTO) {
+        Long clientId = contractDTO.clientId();
+        rejectKnownAbsent(clientId);
+        // Contracts live on the shard of their client.
+        shardRouter.routeById(clientId);
         Contract contract = new Contract();
-        contract.setClient(client);
+        // A reference only sets the foreign key; the constraint checks that the client exists.
+        contract.setClient(clientRepository.getReferenceById(clientId));
         contract.setStartDate(contractDTO.startDate());
         contract.setEndDate(contractDTO.endDate());
         contract.setCostAmount(contractDTO.costAmount());
 
-        contract = contractRepository.save(contract);
+        try {
+            contract = contractRepository.save(contract);
+        } catch (DataIntegrityViolationException e) {
+            if (isForeignKeyViolation(e)) {
+                throw ResourceNotFoundException.client(clientId);
+            }
+            throw e;
+        }
+        readYourWrites.recordWrite(clientId);
+        if (isActive(contract.getEndDate(), LocalDate.now())) {
+            leaderboard.premiumChanged(clientId, contract.getCostAmount());
+        }
         return mapToResponseDTO(contract);
     }
 
     public ContractResponseDTO updateContractCost(Long id, ContractUpdateDTO updateDTO) {
-        Contract contract = contractRepository.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Contract not found with id: " + id));
+        shardRouter.routeById(id);
+        LocalDate currentDate = LocalDate.now();
+        ContractRepository.UpdatedContract updated = contractRepository
+                .updateCost(id, updateDTO.costAmount(), currentDate)
+                .orElseThrow(() -> ResourceNotFoundException.contract(id));
+        readYourWrites.recordWrite(updated.clientId());
+        ContractResponseDTO contract = updated.contract();
+        if (isActive(contract.endDate(), currentDate)) {
+            leaderboard.premiumChanged(updated.clientId(),
+                    contract.costAmount().subtract(updated.previousCostAmount()));
+        }
+        return contract;
+    }
+
+    // SUPPORTS: the coalescer opens the read-only transaction, so callers waiting on an identical
+    // in-flight query do not hold a connection.
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ContractResponseDTO> getActiveContracts(Long clientId, LocalDate updateDate) {
+        LocalDate currentDate = LocalDate.now();
+        return coalesce(clientId, new ActiveContractsKey(clientId, currentDate, updateDate, ALL_FIELDS), () -> {
+            requireClient(clientId);
+
+            if (updateDate != null) {
+                return contractRepository.findActiveContractsByClientIdAndUpdateDate(
+                        clientId, currentDate, updateDate);
+            }
+            return contractRepository.findActiveContractsByClientId(clientId, currentDate);
+        });
+    }
 
-        contract.setCostAmount(updateDTO.costAmount());
-        contract = contractRepository.save(contract);
+    /**
+     * Like {@link #getActiveContracts(Long, LocalDate)}, but only reads the given contract fields;
+     * the others are {@code null}.
+     */
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<ContractResponseDTO> getActiveContracts(Long clientId, LocalDate updateDate, Set<String> fields) {
+        if (fields.containsAll(ALL_FIELDS)) {
+            return getActiveContracts(clientId, updateDate);
+        }
+        LocalDate currentDate = LocalDate.now();
+        Set<String> selected = Set.copyOf(fields);
+        return coalesce(clientId, new ActiveContractsKey(clientId, currentDate, updateDate, selected), () -> {
+            requireClient(clientId);
+            return contractRepository.findActiveContractFields(clientId, currentDate, updateDate, selected);
+        });
+    }
 
-        return mapToResponseDTO(contract);
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public ContractSumDTO getActiveContractsSum(Long clientId) {
+        LocalDate currentDate = LocalDate.now();
+        return coalesce(clientId, new ActiveContractsSumKey(clientId, currentDate), () -> {
+            requireClient(clientId);
+
+            BigDecimal sum = contractRepository.sumActiveContractsCostByClientId(clientId, currentDate);
+
+            return new ContractSumDTO(sum);
+        });
     }
 
+    /**
+     * Total cost of all active contracts of all clients, summed per shard in parallel.
+     */
     @Transactional(readOnly = true)
-    public List<ContractResponseDTO> getActiveContracts(Long clientId, LocalDate updateDate) {
-        if (!clientRepository.existsById(clientId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + clientId);
-        }
+    public ContractSumDTO getPortfolioSum() {
+        LocalDate currentDate = LocalDate.now();
+        BigDecimal sum = shardRouter
+                .onEachShard(true, shard -> contractRepository.sumAllActiveContractsCost(currentDate))
+                .stream()
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new ContractSumDTO(sum);
+    }
 
+    /**
+     * Applies the change of a job to the next chunk of at most {@code limit} contracts with an id above
+     * {@code afterId}, on the shard the caller's transaction is bound to.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BulkChunk processBulkChunk(JobType type, Job.Parameters parameters, long afterId, int limit) {
         LocalDate currentDate = LocalDate.now();
-        List<Contract> contracts;
+        BulkChunk chunk = switch (type) {
+            case REPRICE_CONTRACTS -> contractRepository.repriceActiveContracts(
+                    afterId, limit, parameters.costFactor(), parameters.clientId(), currentDate);
+            case END_CONTRACTS -> contractRepository.endActiveContracts(
+                    afterId, limit, parameters.endDate(), parameters.clientId(), currentDate);
+        };
+        if (chunk.count() > 0 && parameters.clientId() != null) {
+            readYourWrites.recordWrite(parameters.clientId());
+            leaderboard.clientChanged(parameters.clientId());
+        } else if (parameters.clientId() == null && chunk.count() < limit) {
+            // Done with this shard: recount once rather than after every chunk.
+            leaderboard.requestReconcile();
+        }
+        return chunk;
+    }
 
-        if (updateDate != null) {
-            contracts = contractRepository.findActiveContractsByClientIdAndUpdateDate(
-                    clientId, currentDate, updateDate);
-        } else {
-            contracts = contractRepository.findActiveContractsByClientId(clientId, currentDate);
+    // findById rather than existsById: the lookup is served by the clients cache region.
+    private void requireClient(Long clientId) {
+        if (clientRepository.findById(clientId).isEmpty()) {
+            throw ResourceNotFoundException.client(clientId);
         }
+    }
 
-        return contracts.stream()
-                .map(this::mapToResponseDTO)
-                .collect(Collectors.toList());
+    private void rejectKnownAbsent(Long clientId) {
+        if (liveClientIds.isKnownAbsent(clientId)) {
+            throw ResourceNotFoundException.client(clientId);
+        }
     }
 
-    @Transactional(readOnly = true)
-    public ContractSumDTO getActiveContractsSum(Long clientId) {
-        if (!clientRepository.existsById(clientId)) {
-            throw new ResourceNotFoundException("Client not found with id: " + clientId);
+    private <T> T coalesce(Long clientId, Object key, Supplier<T> clientQuery) {
+        rejectKnownAbsent(clientId);
+        // The coalescer opens the transaction the query runs in.
+        Supplier<T> query = () -> {
+            shardRouter.routeById(clientId);
+            return clientQuery.get();
+        };
+        // A client reading its own recent write must not join a query that started before the write.
+        if (readYourWrites.isRecentlyWritten(clientId)) {
+            return queryCoalescer.executeAlone(() -> {
+                readYourWrites.pinIfRecentlyWritten(clientId);
+                return query.get();
+            });
         }
+        return queryCoalescer.execute(key, query);
+    }
 
-        LocalDate currentDate = LocalDate.now();
-        BigDecimal sum = contractRepository.sumActiveContractsCostByClientId(clientId, currentDate);
+    private static boolean isActive(LocalDate endDate, LocalDate currentDate) {
+        return endDate == null || endDate.isAfter(currentDate);
+    }
 
-        return new ContractSumDTO(sum);
+    private static boolean isForeignKeyViolation(DataIntegrityViolationException e) {
+        return e.getMostSpecificCause() instanceof SQLException sqlException
+                && FOREIGN_KEY_VIOLATION.equals(sqlException.getSQLState());
     }
 
     private ContractResponseDTO mapToResponseDTO(Contract contract) {
@@ -87,4 +209,8 @@ public class ContractService {
                 contract.getCostAmount()
         );
     }
+
+    private record ActiveContractsKey(Long clientId, LocalDate currentDate, LocalDate updateDate, Set<String> fields) {}
+
+    private record ActiveContractsSumKey(Long clientId, LocalDate currentDate) {}
 }
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.insurance.services;
+
+import com.insurance.dto.ExportDTO;
+import com.insurance.dto.ExportDTO.Dataset;
+import com.insurance.dto.ExportDTO.Format;
+import com.insurance.dto.ExportDTO.Status;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.jobs.JobRunner;
+import com.insurance.repository.ExportRepository;
+import com.insurance.repository.ScheduledRunRepository;
+import com.insurance.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Full-book exports to gzip-compressed files in {@code insurance.export.directory}. Exports run one at a
+ * time on a background thread, streaming from the database to disk through fixed-size buffers, and are
+ * also started every night for both datasets as CSV. Files older than {@code insurance.export.retention}
+ * are deleted.
+ * <p>
+ * Only one instance runs the nightly export: the first to record it in {@code scheduled_runs}. The others find
+ * it recorded less than {@code insurance.export.nightly-lease} ago and skip it.
+ * <p>
+ * With sharding, every shard is exported in parallel to its own compressed part and the parts are
+ * concatenated: a file of several gzip members decompresses as one. Rows are then ordered by id within
+ * each shard only.
+ */
+@Slf4j
+@Service
+public class ExportService {
+
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+    private static final Pattern FILE_NAME = Pattern.compile("(clients|contracts)-(\\d{8}T\\d{9})\\.(csv|ndjson)\\.gz");
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final String NIGHTLY_EXPORT = "nightly-export";
+
+    private final ExportRepository exportRepository;
+    private final ScheduledRunRepository scheduledRunRepository;
+    private final ShardRouter shardRouter;
+    private final TransactionTemplate transaction;
+    private final Path directory;
+    private final Duration retention;
+    private final Duration nightlyLease;
+    private final String owner = UUID.randomUUID().toString();
+    private final ExecutorService executor =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().name("export").daemon().factory());
+    // Exports that have not completed; completed ones are listed from the directory.
+    private final Map<String, ExportDTO> pending = new ConcurrentHashMap<>();
+
+    public ExportService(ExportRepository exportRepository,
+                         ScheduledRunRepository scheduledRunRepository,
+                         ShardRouter shardRouter,
+                         PlatformTransactionManager transactionManager,
+                         @Value("${insurance.export.directory:${java.io.tmpdir}/insurance-exports}") Path directory,
+                         @Value("${insurance.export.retention:7d}") Duration retention,
+                         @Value("${insurance.export.nightly-lease:1h}") Duration nightlyLease) {
+        this.exportRepository = exportRepository;
+        this.scheduledRunRepository = scheduledRunRepository;
+        this.shardRouter = shardRouter;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.directory = directory;
+        this.retention = retention;
+        this.nightlyLease = nightlyLease;
+    }
+
+    /**
+     * Starts exporting the dataset, or returns the export of it in that format that is already running.
+     */
+    public synchronized ExportDTO startExport(Dataset dataset, Format format) {
+        for (ExportDTO export : pending.values()) {
+            if (export.status() == Status.RUNNING && export.dataset() == dataset && export.format() == format) {
+                return export;
+            }
+        }
+        LocalDateTime createdAt = LocalDateTime.now();
+        ExportDTO export = new ExportDTO(fileName(dataset, format, createdAt), dataset, format,
+                Status.RUNNING, null, createdAt, null);
+        pending.put(export.name(), export);
+        executor.execute(() -> run(export));
+        return export;
+    }
+
+    public List<ExportDTO> listExports() {
+        List<ExportDTO> exports = new ArrayList<>(pending.values());
+        try (Stream<Path> files = Files.list(directory)) {
+            files.map(this::completed).filter(export -> export != null).forEach(exports::add);
+        } catch (IOException e) {
+            if (Files.exists(directory)) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        exports.sort(Comparator.comparing(ExportDTO::createdAt).reversed());
+        return exports;
+    }
+
+    /**
+     * Returns the file of a completed export.
+     */
+    public Path getExportFile(String name) {
+        Path file = directory.resolve(name);
+        if (!FILE_NAME.matcher(name).matches() || !Files.isRegularFile(file)) {
+            throw new ResourceNotFoundException("Export not found: " + name);
+        }
+        return file;
+    }
+
+    @Scheduled(cron = "${insurance.export.cron:0 0 2 * * *}")
+    public void nightlyExport() {
+        deleteExpired();
+        if (!claimNightlyExport()) {
+            log.info("Nightly export skipped: another instance runs it");
+            return;
+        }
+        startExport(Dataset.CLIENTS, Format.CSV);
+        startExport(Dataset.CONTRACTS, Format.CSV);
+    }
+
+    // The lease has to outlast the clock differences between instances and be shorter than the cron period.
+    private boolean claimNightlyExport() {
+        Instant now = Instant.now();
+        Integer claimed = transaction.execute(status -> {
+            shardRouter.routeToShard(JobRunner.JOBS_SHARD);
+            return scheduledRunRepository.claim(NIGHTLY_EXPORT, owner, now, now.minus(nightlyLease));
+        });
+        return claimed != null && claimed == 1;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void run(ExportDTO export) {
+        Path file = directory.resolve(export.name());
+        Path part = directory.resolve(export.name() + ".part");
+        long start = System.nanoTime();
+        try {
+            Files.createDirectories(directory);
+            long rows;
+            try {
+                rows = shardRouter.onEachShard(true, shard -> write(export, shard, shardPart(part, shard)))
+                        .stream()
+                        .mapToLong(Long::longValue)
+                        .sum();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            if (shardRouter.shardCount() > 1) {
+                concatenateShardParts(part);
+            }
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            pending.remove(export.name());
+            log.info("Exported {} rows to {} in {} ms", rows, file, (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            log.error("Export {} failed", export.name(), e);
+            pending.put(export.name(), export.failed(e.getMessage()));
+            try {
+                Files.deleteIfExists(part);
+                for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                    Files.deleteIfExists(shardPart(part, shard));
+                }
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+        }
+    }
+
+    private long write(ExportDTO export, int shard, Path target) {
+        try (OutputStream out = new GZIPOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(target), BUFFER_SIZE), BUFFER_SIZE)) {
+            return export.format() == Format.CSV
+                    ? exportRepository.copyCsv(export.dataset(), shard == 0, out)
+                    : exportRepository.writeNdjson(export.dataset(), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void concatenateShardParts(Path part) throws IOException {
+        try (OutputStream out = Files.newOutputStream(part)) {
+            for (int shard = 0; shard < shardRouter.shardCount(); shard++) {
+                Path shardPart = shardPart(part, shard);
+                Files.copy(shardPart, out);
+                Files.delete(shardPart);
+            }
+        }
+    }
+
+    // Unsharded, the single shard writes the part itself.
+    private Path shardPart(Path part, int shard) {
+        return shardRouter.shardCount() == 1 ? part : part.resolveSibling(part.getFileName() + "." + shard);
+    }
+
+    private void deleteExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        pending.values().removeIf(export -> export.status() == Status.FAILED && export.createdAt().isBefore(cutoff));
+        for (ExportDTO export : listExports()) {
+            if (export.status() == Status.COMPLETED && export.createdAt().isBefore(cutoff)) {
+                try {
+                    Files.deleteIfExists(directory.resolve(export.name()));
+                } catch (IOException e) {
+                    log.warn("Could not delete expired export {}", export.name(), e);
+                }
+            }
+        }
+    }
+
+    private ExportDTO completed(Path file) {
+        Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+        if (!matcher.matches()) {
+            return null;
+        }
+        try {
+            return new ExportDTO(matcher.group(), Dataset.valueOf(matcher.group(1).toUpperCase(Locale.ROOT)),
+                    Format.valueOf(matcher.group(3).toUpperCase(Locale.ROOT)), Status.COMPLETED, Files.size(file),
+                    LocalDateTime.parse(matcher.group(2), TIMESTAMP), null);
+        } catch (IOException e) {
+            // Deleted while listing.
+            return null;
+        }
+    }
+
+    private static String fileName(Dataset dataset, Format format, LocalDateTime createdAt) {
+        return dataset.name().toLowerCase(Locale.ROOT) + "-" + TIMESTAMP.format(createdAt) + "."
+                + format.name().toLowerCase(Locale.ROOT) + ".gz";
+    }
+}
@@ -0,0 +1,70 @@
+package com.insurance.services;
+
+import com.insurance.dto.JobDTO;
+import com.insurance.dto.JobRequestDTO;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.jobs.JobRunner;
+import com.insurance.models.Job;
+import com.insurance.models.JobStatus;
+import com.insurance.repository.JobRepository;
+import com.insurance.sharding.ShardRouter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class JobService {
+    private final JobRepository jobRepository;
+    private final JobRunner jobRunner;
+    private final ShardRouter shardRouter;
+
+    public JobDTO submitJob(JobRequestDTO request) {
+        Job.Parameters parameters = switch (request.type()) {
+            case REPRICE_CONTRACTS -> {
+                if (request.costFactor() == null) {
+                    throw new IllegalArgumentException("costFactor is required to reprice contracts");
+                }
+                yield new Job.Parameters(request.costFactor(), null, request.clientId());
+            }
+            case END_CONTRACTS -> {
+                if (request.endDate() == null || request.endDate().isBefore(LocalDate.now())) {
+                    throw new IllegalArgumentException("endDate is required to end contracts and cannot be in the past");
+                }
+                yield new Job.Parameters(null, request.endDate(), request.clientId());
+            }
+        };
+
+        shardRouter.routeToShard(JobRunner.JOBS_SHARD);
+        Job job = new Job();
+        job.setType(request.type());
+        job.setStatus(JobStatus.QUEUED);
+        job.setParameters(parameters);
+        job.setCreatedAt(Instant.now());
+        job = jobRepository.save(job);
+
+        // Started once visible to the runner; if this instance cannot take it now, a poll will.
+        Long jobId = job.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                jobRunner.dispatch(jobId, request.type());
+            }
+        });
+        return JobDTO.from(job);
+    }
+
+    @Transactional(readOnly = true)
+    public JobDTO getJob(Long id) {
+        shardRouter.routeToShard(JobRunner.JOBS_SHARD);
+        return jobRepository.findById(id)
+                .map(JobDTO::from)
+                .orElseThrow(() -> ResourceNotFoundException.job(id));
+    }
+}
@@ -0,0 +1,159 @@
+package com.insurance.services;
+
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.dto.PremiumScheduleDTO;
+import com.insurance.dto.PremiumScheduleDTO.MonthlyPremium;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.repository.ClientRepository;
+import com.insurance.repository.PremiumScheduleRepository;
+import com.insurance.repository.PremiumScheduleRepository.ClientIdRange;
+import com.insurance.sharding.ShardRouter;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Projects the premiums due per month over the coming months, for a client or the whole book. The premium of a
+ * contract is its {@code costAmount}, due in every month it is in force.
+ * <p>
+ * Contracts are streamed once and accumulated as cents in {@code long} buckets. The whole book is split into
+ * client id ranges (per shard, with sharding) that are read in parallel, each in its own read-only transaction.
+ */
+@Service
+public class PremiumScheduleService {
+
+    public static final int MAX_MONTHS = 120;
+
+    private final PremiumScheduleRepository scheduleRepository;
+    private final ClientRepository clientRepository;
+    private final ShardRouter shardRouter;
+    private final LiveClientIds liveClientIds;
+    private final TransactionTemplate readOnlyTransaction;
+    private final int parallelism;
+    private final ExecutorService executor =
+            Executors.newCachedThreadPool(Thread.ofPlatform().name("premium-schedule-", 0).daemon().factory());
+
+    public PremiumScheduleService(PremiumScheduleRepository scheduleRepository,
+                                  ClientRepository clientRepository,
+                                  ShardRouter shardRouter,
+                                  LiveClientIds liveClientIds,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${insurance.projection.parallelism:4}") int parallelism) {
+        this.scheduleRepository = scheduleRepository;
+        this.clientRepository = clientRepository;
+        this.shardRouter = shardRouter;
+        this.liveClientIds = liveClientIds;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.parallelism = parallelism;
+    }
+
+    public PremiumScheduleDTO getClientSchedule(Long clientId, int months) {
+        validateMonths(months);
+        if (liveClientIds.isKnownAbsent(clientId)) {
+            throw ResourceNotFoundException.client(clientId);
+        }
+        YearMonth from = YearMonth.now();
+        long[] deltas = readOnlyTransaction.execute(status -> {
+            shardRouter.routeById(clientId);
+            if (clientRepository.findById(clientId).isEmpty()) {
+                throw ResourceNotFoundException.client(clientId);
+            }
+            long[] clientDeltas = new long[months + 1];
+            scheduleRepository.accumulate(clientId, clientId, from, months, clientDeltas);
+            return clientDeltas;
+        });
+        return toSchedule(from, deltas, months);
+    }
+
+    public PremiumScheduleDTO getBookSchedule(int months) {
+        validateMonths(months);
+        YearMonth from = YearMonth.now();
+        List<Optional<ClientIdRange>> shardRanges =
+                shardRouter.onEachShard(true, shard -> scheduleRepository.findClientIdRange());
+
+        List<CompletableFuture<long[]>> partitions = new ArrayList<>();
+        for (int shard = 0; shard < shardRanges.size(); shard++) {
+            if (shardRanges.get(shard).isEmpty()) {
+                continue;
+            }
+            for (ClientIdRange range : split(shardRanges.get(shard).get(), parallelism)) {
+                int partitionShard = shard;
+                partitions.add(CompletableFuture.supplyAsync(() -> readOnlyTransaction.execute(status -> {
+                    shardRouter.routeToShard(partitionShard);
+                    long[] partitionDeltas = new long[months + 1];
+                    scheduleRepository.accumulate(range.min(), range.max(), from, months, partitionDeltas);
+                    return partitionDeltas;
+                }), executor));
+            }
+        }
+
+        long[] deltas = new long[months + 1];
+        for (CompletableFuture<long[]> partition : partitions) {
+            long[] partitionDeltas = join(partition);
+            for (int month = 0; month <= months; month++) {
+                deltas[month] += partitionDeltas[month];
+            }
+        }
+        return toSchedule(from, deltas, months);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Splits the range into at most {@code parts} contiguous ranges of about the same number of ids.
+     */
+    static List<ClientIdRange> split(ClientIdRange range, int parts) {
+        long size = range.max() - range.min() + 1;
+        long step = Math.ceilDiv(size, Math.max(1, Math.min(parts, size)));
+        List<ClientIdRange> ranges = new ArrayList<>(parts);
+        for (long min = range.min(); min <= range.max(); min += step) {
+            ranges.add(new ClientIdRange(min, Math.min(range.max(), min + step - 1)));
+        }
+        return ranges;
+    }
+
+    private static PremiumScheduleDTO toSchedule(YearMonth from, long[] deltas, int months) {
+        List<MonthlyPremium> schedule = new ArrayList<>(months);
+        long cents = 0;
+        long totalCents = 0;
+        for (int month = 0; month < months; month++) {
+            cents += deltas[month];
+            totalCents += cents;
+            schedule.add(new MonthlyPremium(from.plusMonths(month), BigDecimal.valueOf(cents, 2)));
+        }
+        return new PremiumScheduleDTO(schedule, BigDecimal.valueOf(totalCents, 2));
+    }
+
+    private static void validateMonths(int months) {
+        if (months < 1 || months > MAX_MONTHS) {
+            throw new IllegalArgumentException("months must be between 1 and " + MAX_MONTHS);
+        }
+    }
+
+    private static long[] join(CompletableFuture<long[]> partition) {
+        try {
+            return partition.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.insurance.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight execution of read queries: concurrent calls with an equal key share one
+ * execution and its result (or exception).
+ * <p>
+ * The leader runs the query in its own read-only transaction, so callers waiting for it do not
+ * hold a database connection. Results are handed to every waiting caller and must be immutable.
+ */
+@Component
+public class QueryCoalescer {
+
+    private final TransactionTemplate readOnlyTransaction;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final int maxKeys;
+    private final long timeoutNanos;
+
+    private final Counter leaders;
+    private final Counter followers;
+    private final Counter bypassed;
+    private final Counter timedOut;
+
+    public QueryCoalescer(PlatformTransactionManager transactionManager,
+                          MeterRegistry registry,
+                          @Value("${insurance.coalescing.max-keys:10000}") int maxKeys,
+                          @Value("${insurance.coalescing.timeout:PT5S}") Duration timeout) {
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.maxKeys = maxKeys;
+        this.timeoutNanos = timeout.toNanos();
+
+        this.leaders = requests(registry, "leader");
+        this.followers = requests(registry, "follower");
+        this.bypassed = requests(registry, "bypass");
+        this.timedOut = requests(registry, "timeout");
+        Gauge.builder("insurance.coalescing.in_flight", inFlight, ConcurrentHashMap::size).register(registry);
+    }
+
+    /**
+     * Runs the query, or joins an identical one already in flight.
+     * Followers that wait longer than the timeout run the query themselves.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> query) {
+        if (inFlight.size() >= maxKeys) {
+            bypassed.increment();
+            return executeAlone(query);
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            leaders.increment();
+            try {
+                T result = executeAlone(query);
+                flight.complete(result);
+                return result;
+            } catch (RuntimeException | Error ex) {
+                flight.completeExceptionally(ex);
+                throw ex;
+            } finally {
+                inFlight.remove(key, flight);
+            }
+        }
+
+        followers.increment();
+        try {
+            return (T) existing.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException ex) {
+            timedOut.increment();
+            return executeAlone(query);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (ex.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a coalesced query", ex);
+        }
+    }
+
+    /**
+     * Runs the query in a read-only transaction without sharing it.
+     */
+    public <T> T executeAlone(Supplier<T> query) {
+        return readOnlyTransaction.execute(status -> query.get());
+    }
+
+    private static Counter requests(MeterRegistry registry, String role) {
+        return Counter.builder("insurance.coalescing.requests")
+                .description("Coalesced read requests by role; followers / total is the coalescing ratio")
+                .tag("role", role)
+                .register(registry);
+    }
+}
@@ -0,0 +1,46 @@
+package com.insurance.services;
+
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.dto.ContractResponseDTO;
+import com.insurance.dto.ContractSumDTO;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.repository.ReactiveContractRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveContractService {
+    private final ReactiveContractRepository contractRepository;
+    private final LiveClientIds liveClientIds;
+
+    public Mono<Void> requireClient(Long clientId) {
+        if (liveClientIds.isKnownAbsent(clientId)) {
+            return Mono.error(ResourceNotFoundException.client(clientId));
+        }
+        return contractRepository.existsClientById(clientId)
+                .flatMap(exists -> exists
+                        ? Mono.<Void>empty()
+                        : Mono.error(ResourceNotFoundException.client(clientId)));
+    }
+
+    public Flux<ContractResponseDTO> getActiveContracts(Long clientId, LocalDate updateDate) {
+        LocalDate currentDate = LocalDate.now();
+        if (updateDate != null) {
+            return contractRepository.findActiveContractsByClientIdAndUpdateDate(clientId, currentDate, updateDate);
+        }
+        return contractRepository.findActiveContractsByClientId(clientId, currentDate);
+    }
+
+    public Mono<ContractSumDTO> getActiveContractsSum(Long clientId) {
+        return requireClient(clientId)
+                .then(contractRepository.sumActiveContractsCostByClientId(clientId, LocalDate.now()))
+                .map(ContractSumDTO::new);
+    }
+}
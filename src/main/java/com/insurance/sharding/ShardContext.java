@@ -0,0 +1,50 @@
+package com.insurance.sharding;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * The shard selected for the current transaction, read by {@link ShardRoutingDataSource} when the
+ * transaction first needs a connection. A selection lasts until the transaction completes.
+ */
+public final class ShardContext {
+
+    private static final ThreadLocal<Integer> SELECTED = new ThreadLocal<>();
+
+    private ShardContext() {
+    }
+
+    /**
+     * Selects the shard for the current transaction.
+     *
+     * @throws IllegalStateException outside a transaction, or if the transaction already selected another
+     *                               shard: its connection cannot move
+     */
+    public static void select(int shard) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("A shard can only be selected within a transaction");
+        }
+        Integer selected = SELECTED.get();
+        if (selected != null) {
+            if (selected != shard) {
+                throw new IllegalStateException(
+                        "Transaction is bound to shard " + selected + ", cannot switch to shard " + shard);
+            }
+            return;
+        }
+        SELECTED.set(shard);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                SELECTED.remove();
+            }
+        });
+    }
+
+    /**
+     * @return the selected shard, or {@code null}
+     */
+    public static Integer current() {
+        return SELECTED.get();
+    }
+}
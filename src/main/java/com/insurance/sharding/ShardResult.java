@@ -0,0 +1,11 @@
+package com.insurance.sharding;
+
+/**
+ * The outcome of work run on one shard: its value, or the failure that rolled the shard's transaction back.
+ */
+public record ShardResult<T>(int shard, T value, RuntimeException failure) {
+
+    public boolean failed() {
+        return failure != null;
+    }
+}
@@ -0,0 +1,169 @@
+package com.insurance.sharding;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntFunction;
+import java.util.zip.CRC32C;
+
+/**
+ * Decides which shard owns a client and its contracts, and runs work against every shard.
+ * <p>
+ * A client is placed by its upsert key (the normalized email of a person, the identifier of a company), so
+ * that creating the same client twice lands on the same shard and its unique constraints. From then on the
+ * id identifies the shard: each shard allocates only ids congruent to its index modulo the shard count, and
+ * contracts are created on the shard of their client.
+ * <p>
+ * Without sharding there is a single shard and every method runs in the caller's transaction.
+ */
+public class ShardRouter implements DisposableBean {
+
+    private final int shardCount;
+    private final PlatformTransactionManager transactionManager;
+    private final ExecutorService executor;
+
+    public ShardRouter(int shardCount, PlatformTransactionManager transactionManager) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shardCount = shardCount;
+        this.transactionManager = transactionManager;
+        this.executor = transactionManager == null ? null
+                : Executors.newCachedThreadPool(Thread.ofPlatform().name("shard-", 0).daemon().factory());
+    }
+
+    /**
+     * A router for the single, unsharded database.
+     */
+    public static ShardRouter unsharded() {
+        return new ShardRouter(1, null);
+    }
+
+    public boolean isSharded() {
+        return transactionManager != null;
+    }
+
+    public int shardCount() {
+        return shardCount;
+    }
+
+    public int shardOf(long id) {
+        return Math.floorMod(id, shardCount);
+    }
+
+    public int shardOfKey(String placementKey) {
+        if (shardCount == 1) {
+            return 0;
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(placementKey.getBytes(StandardCharsets.UTF_8));
+        return (int) (crc.getValue() % shardCount);
+    }
+
+    /**
+     * Binds the current transaction to the shard owning the client or contract with this id.
+     */
+    public void routeById(Long id) {
+        if (isSharded()) {
+            ShardContext.select(shardOf(id));
+        }
+    }
+
+    /**
+     * Binds the current transaction to the shard a new client with this placement key belongs to.
+     */
+    public void routeByKey(String placementKey) {
+        if (isSharded()) {
+            ShardContext.select(shardOfKey(placementKey));
+        }
+    }
+
+    /**
+     * Binds the current transaction to the given shard.
+     */
+    public void routeToShard(int shard) {
+        if (isSharded()) {
+            ShardContext.select(shard);
+        }
+    }
+
+    /**
+     * Runs {@code work} once per shard, passing the shard index, and returns the results in shard order.
+     * Shards are worked on in parallel, each in its own transaction; the first failure is rethrown once all
+     * have finished. Unsharded, the work runs once, in the caller's thread and transaction.
+     */
+    public <T> List<T> onEachShard(boolean readOnly, IntFunction<T> work) {
+        if (!isSharded()) {
+            return Collections.singletonList(work.apply(0));
+        }
+        List<CompletableFuture<T>> futures = submit(readOnly, work);
+        try {
+            CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+        return futures.stream().map(CompletableFuture::join).toList();
+    }
+
+    /**
+     * Like {@link #onEachShard}, but a shard's failure is returned next to the results of the other shards
+     * instead of being rethrown, for writes where the shards that succeeded stay committed. Unsharded, the work
+     * runs in the caller's transaction and its failure is thrown: nothing was committed.
+     */
+    public <T> List<ShardResult<T>> onEachShardSettled(boolean readOnly, IntFunction<T> work) {
+        if (!isSharded()) {
+            return List.of(new ShardResult<>(0, work.apply(0), null));
+        }
+        List<CompletableFuture<T>> futures = submit(readOnly, work);
+        List<ShardResult<T>> results = new ArrayList<>(shardCount);
+        for (int shard = 0; shard < shardCount; shard++) {
+            try {
+                results.add(new ShardResult<>(shard, futures.get(shard).join(), null));
+            } catch (CompletionException e) {
+                results.add(new ShardResult<>(shard, null, unwrap(e)));
+            }
+        }
+        return results;
+    }
+
+    private <T> List<CompletableFuture<T>> submit(boolean readOnly, IntFunction<T> work) {
+        TransactionTemplate template = new TransactionTemplate(transactionManager);
+        template.setReadOnly(readOnly);
+
+        List<CompletableFuture<T>> futures = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            int shard = i;
+            futures.add(CompletableFuture.supplyAsync(() -> template.execute(status -> {
+                ShardContext.select(shard);
+                return work.apply(shard);
+            }), executor));
+        }
+        return futures;
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+            return cause;
+        }
+        if (e.getCause() instanceof Error error) {
+            throw error;
+        }
+        return e;
+    }
+
+    @Override
+    public void destroy() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.insurance.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Hands out connections of the shard selected in {@link ShardContext}. Work outside a transaction without a
+ * selection (Hibernate's startup, health checks) goes to shard 0; a transaction without a selection is a
+ * routing bug and fails instead of silently reading one shard.
+ * <p>
+ * As with replica routing, this must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: services select the shard
+ * inside their transaction, after the transaction manager has asked for a connection.
+ */
+@Slf4j
+public class ShardRoutingDataSource extends AbstractDataSource implements DisposableBean {
+
+    private final List<DataSource> shards;
+
+    public ShardRoutingDataSource(List<DataSource> shards) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("At least one shard is required");
+        }
+        this.shards = List.copyOf(shards);
+    }
+
+    public int shardCount() {
+        return shards.size();
+    }
+
+    public DataSource shard(int index) {
+        return shards.get(index);
+    }
+
+    /**
+     * Makes every shard allocate client and contract ids that identify it; see {@link ShardRouter}.
+     */
+    public void alignIdSequences() throws SQLException {
+        for (int i = 0; i < shards.size(); i++) {
+            ShardSequences.align(shards.get(i), i, shards.size());
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return currentShard().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return currentShard().getConnection(username, password);
+    }
+
+    private DataSource currentShard() {
+        Integer selected = ShardContext.current();
+        if (selected != null) {
+            return shards.get(selected);
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("No shard selected for the current transaction");
+        }
+        return shards.getFirst();
+    }
+
+    @Override
+    public void destroy() {
+        for (DataSource shard : shards) {
+            if (shard instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception ex) {
+                    log.warn("Failed to close shard {}", shard, ex);
+                }
+            }
+        }
+    }
+}
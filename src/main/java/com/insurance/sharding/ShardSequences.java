@@ -0,0 +1,100 @@
+package com.insurance.sharding;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Makes the id sequences of a shard allocate only ids congruent to the shard index modulo the shard count,
+ * so that the owning shard of any client or contract follows from its id. The sequence is stepped by the
+ * shard count and moved to the next such id above everything already allocated.
+ */
+@Slf4j
+final class ShardSequences {
+
+    /**
+     * Tables whose ids identify the shard.
+     */
+    static final String[] TABLES = {"clients", "contracts"};
+
+    private ShardSequences() {
+    }
+
+    static void align(DataSource dataSource, int shard, int shardCount) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            for (String table : TABLES) {
+                align(connection, table, shard, shardCount);
+            }
+        }
+    }
+
+    private static void align(Connection connection, String table, int shard, int shardCount) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement statement = connection.createStatement()) {
+            // Keeps other instances from inserting while the sequence moves.
+            statement.execute("LOCK TABLE " + table + " IN EXCLUSIVE MODE");
+            String sequence = serialSequence(connection, table);
+
+            long increment;
+            long lastValue;
+            boolean called;
+            try (ResultSet rs = statement.executeQuery("SELECT s.seqincrement, q.last_value, q.is_called FROM "
+                    + sequence + " q, pg_sequence s WHERE s.seqrelid = '" + sequence + "'::regclass")) {
+                rs.next();
+                increment = rs.getLong(1);
+                lastValue = rs.getLong(2);
+                called = rs.getBoolean(3);
+            }
+            long maxId;
+            try (ResultSet rs = statement.executeQuery("SELECT COALESCE(MAX(id), 0) FROM " + table)) {
+                rs.next();
+                maxId = rs.getLong(1);
+            }
+
+            long nextValue = called ? lastValue + increment : lastValue;
+            if (increment != shardCount || Math.floorMod(nextValue, shardCount) != shard || nextValue <= maxId) {
+                long allocated = Math.max(maxId, called ? lastValue : lastValue - 1);
+                long next = firstIdAbove(allocated, shard, shardCount);
+                statement.execute("ALTER SEQUENCE " + sequence + " INCREMENT BY " + shardCount);
+                try (PreparedStatement setval = connection.prepareStatement("SELECT setval(?::regclass, ?, false)")) {
+                    setval.setString(1, sequence);
+                    setval.setLong(2, next);
+                    setval.execute();
+                }
+                log.info("Shard {}: {} ids now continue at {} in steps of {}", shard, table, next, shardCount);
+            }
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw e;
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+
+    private static String serialSequence(Connection connection, String table) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_get_serial_sequence(?, 'id')")) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                if (!rs.next() || rs.getString(1) == null) {
+                    throw new IllegalStateException("Table " + table + " has no id sequence");
+                }
+                return rs.getString(1);
+            }
+        }
+    }
+
+    /**
+     * @return the smallest positive id greater than {@code allocated} that belongs to the shard
+     */
+    static long firstIdAbove(long allocated, int shard, int shardCount) {
+        long candidate = allocated + 1 + Math.floorMod(shard - (allocated + 1), shardCount);
+        return candidate > 0 ? candidate : candidate + shardCount;
+    }
+}
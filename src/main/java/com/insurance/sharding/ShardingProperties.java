@@ -0,0 +1,39 @@
+package com.insurance.sharding;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.sharding")
+public class ShardingProperties {
+
+    /**
+     * Spread clients and their contracts over the configured shards instead of the single datasource.
+     */
+    private boolean enabled = false;
+
+    /**
+     * The shard databases, in shard index order. The order and the number of shards must not change once
+     * data has been written: both are part of every client and contract id.
+     */
+    private List<Shard> shards = new ArrayList<>();
+
+    /**
+     * Apply {@code schema.sql} to every shard on startup (its statements are idempotent).
+     */
+    private boolean initializeSchema = false;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,246 @@
+package com.insurance.timing;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Where the time of one request went: waiting for pooled connections, each SQL statement and response
+ * serialization. Bound to the request thread by {@link ServerTimingFilter} and fed by
+ * {@link SqlTimingListener}; JDBC work on other threads (a coalesced query run by another request,
+ * asynchronous exports) is not attributed to the request.
+ */
+public final class RequestTiming {
+
+    /**
+     * Statements kept individually; beyond it only the totals grow.
+     */
+    static final int MAX_STATEMENTS = 200;
+
+    private static final ThreadLocal<RequestTiming> CURRENT = new ThreadLocal<>();
+
+    private final long startNanos = System.nanoTime();
+    private long endNanos;
+
+    private long connectionStartNanos;
+    private long poolNanos;
+    private int connections;
+
+    private long statementStartNanos;
+    private long sqlNanos;
+    private int statementCount;
+    private long rows;
+    private final List<Statement> statements = new ArrayList<>();
+    private Statement lastStatement;
+
+    private long serializationStartNanos;
+
+    /**
+     * Starts timing a request on the current thread.
+     */
+    public static RequestTiming begin() {
+        RequestTiming timing = new RequestTiming();
+        CURRENT.set(timing);
+        return timing;
+    }
+
+    /**
+     * @return the timing of the request running on this thread, or {@code null}
+     */
+    public static RequestTiming current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Stops the clock and detaches the timing from the current thread.
+     */
+    public void finish() {
+        endNanos = System.nanoTime();
+        CURRENT.remove();
+    }
+
+    void connectionRequested() {
+        connectionStartNanos = System.nanoTime();
+    }
+
+    void connectionAcquired() {
+        poolNanos += System.nanoTime() - connectionStartNanos;
+        connections++;
+    }
+
+    void statementStarted() {
+        statementStartNanos = System.nanoTime();
+    }
+
+    void statementExecuted(String sql) {
+        long nanos = System.nanoTime() - statementStartNanos;
+        sqlNanos += nanos;
+        statementCount++;
+        lastStatement = null;
+        if (statements.size() < MAX_STATEMENTS) {
+            lastStatement = new Statement(statementCount, sql, nanos);
+            statements.add(lastStatement);
+        }
+    }
+
+    /**
+     * Counts a result-set row against the statement executed last: Hibernate reads a result set fully
+     * before running the next statement.
+     */
+    void rowRead() {
+        rows++;
+        if (lastStatement != null) {
+            lastStatement.rows++;
+        }
+    }
+
+    /**
+     * Marks the point where the controller has returned and the message converter starts writing the body.
+     */
+    public void serializationStarted() {
+        if (serializationStartNanos == 0) {
+            serializationStartNanos = System.nanoTime();
+        }
+    }
+
+    public long totalNanos() {
+        return (endNanos != 0 ? endNanos : System.nanoTime()) - startNanos;
+    }
+
+    public long poolNanos() {
+        return poolNanos;
+    }
+
+    public int connections() {
+        return connections;
+    }
+
+    public long sqlNanos() {
+        return sqlNanos;
+    }
+
+    public int statementCount() {
+        return statementCount;
+    }
+
+    public long rows() {
+        return rows;
+    }
+
+    /**
+     * @return time spent writing the response body so far, {@code 0} if it has not started
+     */
+    public long serializationNanos() {
+        if (serializationStartNanos == 0) {
+            return 0;
+        }
+        return (endNanos != 0 ? endNanos : System.nanoTime()) - serializationStartNanos;
+    }
+
+    /**
+     * @return the individually recorded statements, in execution order
+     */
+    public List<Statement> statements() {
+        return Collections.unmodifiableList(statements);
+    }
+
+    /**
+     * Renders the timing as a {@code Server-Timing} header value: totals first, then up to
+     * {@code maxStatements} of the slowest statements.
+     *
+     * @param includeSql whether statement descriptions carry the normalized SQL text
+     */
+    public String toServerTiming(int maxStatements, boolean includeSql) {
+        StringBuilder header = new StringBuilder(128);
+        metric(header, "total", totalNanos(), null);
+        metric(header, "pool", poolNanos, connections + (connections == 1 ? " connection" : " connections"));
+        metric(header, "db", sqlNanos, statementCount + (statementCount == 1 ? " statement, " : " statements, ")
+                + rows + (rows == 1 ? " row" : " rows"));
+        if (serializationStartNanos != 0) {
+            metric(header, "ser", serializationNanos(), null);
+        }
+
+        List<Statement> slowest = statements.stream()
+                .sorted(Comparator.comparingLong(Statement::nanos).reversed())
+                .limit(maxStatements)
+                .toList();
+        for (Statement statement : slowest) {
+            String rowCount = statement.rows + (statement.rows == 1 ? " row" : " rows");
+            String description = includeSql
+                    ? SqlNormalizer.abbreviate(statement.normalizedSql(), 100) + " (" + rowCount + ")"
+                    : rowCount;
+            metric(header, "sql-" + statement.number, statement.nanos, description);
+        }
+        return header.toString();
+    }
+
+    private static void metric(StringBuilder header, String name, long nanos, String description) {
+        if (!header.isEmpty()) {
+            header.append(", ");
+        }
+        header.append(name).append(";dur=").append(millis(nanos));
+        if (description != null) {
+            header.append(";desc=\"");
+            for (int i = 0; i < description.length(); i++) {
+                char c = description.charAt(i);
+                if (c == '"' || c == '\\') {
+                    header.append('\\');
+                }
+                // Header values must stay visible ASCII.
+                header.append(c < 0x20 || c > 0x7e ? '?' : c);
+            }
+            header.append('"');
+        }
+    }
+
+    /**
+     * @return milliseconds rounded to a tenth
+     */
+    static double millis(long nanos) {
+        return Math.round(nanos / 100_000.0) / 10.0;
+    }
+
+    public static final class Statement {
+        private final int number;
+        private final String sql;
+        private final long nanos;
+        private long rows;
+        private String normalizedSql;
+
+        Statement(int number, String sql, long nanos) {
+            this.number = number;
+            this.sql = sql;
+            this.nanos = nanos;
+        }
+
+        /**
+         * @return the position of the statement within the request, starting at 1
+         */
+        public int number() {
+            return number;
+        }
+
+        public String sql() {
+            return sql;
+        }
+
+        /**
+         * @return the SQL with literals and list lengths erased, normalized on first use
+         */
+        public String normalizedSql() {
+            if (normalizedSql == null) {
+                normalizedSql = SqlNormalizer.normalize(sql);
+            }
+            return normalizedSql;
+        }
+
+        public long nanos() {
+            return nanos;
+        }
+
+        public long rows() {
+            return rows;
+        }
+    }
+}
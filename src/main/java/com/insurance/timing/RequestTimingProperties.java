@@ -0,0 +1,29 @@
+package com.insurance.timing;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "insurance.timing")
+public class RequestTimingProperties {
+
+    private boolean enabled = true;
+
+    /**
+     * Requests taking at least this long are logged with their statements, grouped by normalized SQL.
+     */
+    private Duration slowRequestThreshold = Duration.ofMillis(500);
+
+    /**
+     * Number of individual statements (the slowest) listed in the {@code Server-Timing} header.
+     */
+    private int headerStatements = 5;
+
+    /**
+     * Whether {@code Server-Timing} statement descriptions include the normalized SQL. Off by default:
+     * the header is visible to every client, the slow-request log always has the SQL.
+     */
+    private boolean exposeSql = false;
+}
@@ -0,0 +1,42 @@
+package com.insurance.timing;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * Starts the serialization clock right before a message converter writes the body, and sets a
+ * {@code Server-Timing} header covering everything up to that point in case the body is too large for
+ * {@link ServerTimingFilter} to replace it afterwards.
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "insurance.timing", name = "enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+class ServerTimingAdvice implements ResponseBodyAdvice<Object> {
+
+    private final RequestTimingProperties properties;
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            response.getHeaders().set(ServerTimingFilter.SERVER_TIMING,
+                    timing.toServerTiming(properties.getHeaderStatements(), properties.isExposeSql()));
+            timing.serializationStarted();
+        }
+        return body;
+    }
+}
@@ -0,0 +1,207 @@
+package com.insurance.timing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Times each API request and reports it in a {@code Server-Timing} header, and as one JSON log line when
+ * the request is slow.
+ * <p>
+ * Headers must precede the body, so explicit flushes are held back while the request runs: a body that
+ * fits the container's response buffer gets the complete header, serialization included. Larger bodies
+ * commit early and carry the header set by {@link ServerTimingAdvice} before serialization started.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ServerTimingFilter extends OncePerRequestFilter {
+
+    public static final String SERVER_TIMING = "Server-Timing";
+
+    private final RequestTimingProperties properties;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        RequestTiming timing = RequestTiming.begin();
+        FlushDeferringResponse deferringResponse = new FlushDeferringResponse(response);
+        try {
+            filterChain.doFilter(request, deferringResponse);
+        } finally {
+            timing.finish();
+            // An asynchronous body is written after this returns and must stream as before.
+            deferringResponse.stopDeferring();
+            if (!response.isCommitted()) {
+                response.setHeader(SERVER_TIMING,
+                        timing.toServerTiming(properties.getHeaderStatements(), properties.isExposeSql()));
+            }
+            if (timing.totalNanos() >= properties.getSlowRequestThreshold().toNanos()) {
+                logSlowRequest(request, response, timing);
+            }
+        }
+        deferringResponse.flushIfRequested();
+    }
+
+    private void logSlowRequest(HttpServletRequest request, HttpServletResponse response, RequestTiming timing) {
+        Object route = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("method", request.getMethod());
+        entry.put("route", route != null ? route : request.getRequestURI());
+        entry.put("status", response.getStatus());
+        entry.put("totalMs", RequestTiming.millis(timing.totalNanos()));
+        entry.put("poolMs", RequestTiming.millis(timing.poolNanos()));
+        entry.put("connections", timing.connections());
+        entry.put("dbMs", RequestTiming.millis(timing.sqlNanos()));
+        entry.put("statementCount", timing.statementCount());
+        entry.put("rows", timing.rows());
+        entry.put("serializationMs", RequestTiming.millis(timing.serializationNanos()));
+        entry.put("statements", groupByShape(timing.statements()));
+        try {
+            log.warn("Slow request {}", objectMapper.writeValueAsString(entry));
+        } catch (JsonProcessingException e) {
+            log.warn("Slow request {} {} took {} ms", request.getMethod(), entry.get("route"), entry.get("totalMs"));
+        }
+    }
+
+    /**
+     * Folds repeated statements (an N+1 loop, a chunked batch) into one entry per normalized SQL, slowest first.
+     */
+    static List<Map<String, Object>> groupByShape(List<RequestTiming.Statement> statements) {
+        Map<String, long[]> groups = new LinkedHashMap<>();
+        for (RequestTiming.Statement statement : statements) {
+            long[] group = groups.computeIfAbsent(statement.normalizedSql(), sql -> new long[3]);
+            group[0]++;
+            group[1] += statement.nanos();
+            group[2] += statement.rows();
+        }
+        List<Map<String, Object>> shapes = new ArrayList<>(groups.size());
+        groups.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> group) -> group.getValue()[1]).reversed())
+                .forEach(group -> {
+                    Map<String, Object> shape = new LinkedHashMap<>();
+                    shape.put("sql", group.getKey());
+                    shape.put("count", group.getValue()[0]);
+                    shape.put("ms", RequestTiming.millis(group.getValue()[1]));
+                    shape.put("rows", group.getValue()[2]);
+                    shapes.add(shape);
+                });
+        return shapes;
+    }
+
+    /**
+     * Swallows flushes until {@link #stopDeferring()} so that the response stays uncommitted while only the
+     * container buffer holds its body.
+     */
+    private static final class FlushDeferringResponse extends HttpServletResponseWrapper {
+
+        private volatile boolean deferring = true;
+        private volatile boolean flushRequested;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        FlushDeferringResponse(HttpServletResponse response) {
+            super(response);
+        }
+
+        void stopDeferring() {
+            deferring = false;
+        }
+
+        void flushIfRequested() throws IOException {
+            if (flushRequested) {
+                flushRequested = false;
+                getResponse().flushBuffer();
+            }
+        }
+
+        private boolean deferFlush() {
+            if (deferring) {
+                flushRequested = true;
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (!deferFlush()) {
+                super.flushBuffer();
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (outputStream == null) {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream() {
+                    @Override
+                    public void write(int b) throws IOException {
+                        delegate.write(b);
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException {
+                        delegate.write(b, off, len);
+                    }
+
+                    @Override
+                    public void flush() throws IOException {
+                        if (!deferFlush()) {
+                            delegate.flush();
+                        }
+                    }
+
+                    @Override
+                    public void close() throws IOException {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady() {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener) {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                writer = new PrintWriter(super.getWriter()) {
+                    @Override
+                    public void flush() {
+                        if (!deferFlush()) {
+                            super.flush();
+                        }
+                    }
+                };
+            }
+            return writer;
+        }
+    }
+}
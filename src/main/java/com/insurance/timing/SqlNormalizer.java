@@ -0,0 +1,34 @@
+package com.insurance.timing;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces SQL to its shape so that statements differing only in literal values, bind-parameter numbering
+ * or {@code IN}/{@code VALUES} list length aggregate to the same text.
+ */
+final class SqlNormalizer {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBERED_PARAMETER = Pattern.compile("\\?\\d+");
+    // \b keeps digits inside identifiers such as c1_0 intact.
+    private static final Pattern NUMERIC_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern REPEATED_TUPLES = Pattern.compile("(\\([?,\\s]*\\))(?:\\s*,\\s*\\([?,\\s]*\\))+");
+
+    private SqlNormalizer() {
+    }
+
+    static String normalize(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBERED_PARAMETER.matcher(normalized).replaceAll("?");
+        normalized = NUMERIC_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = WHITESPACE.matcher(normalized).replaceAll(" ").trim();
+        normalized = PARAMETER_LIST.matcher(normalized).replaceAll("(?)");
+        return REPEATED_TUPLES.matcher(normalized).replaceAll("$1, ...");
+    }
+
+    static String abbreviate(String sql, int maxLength) {
+        return sql.length() <= maxLength ? sql : sql.substring(0, maxLength - 3) + "...";
+    }
+}
@@ -0,0 +1,67 @@
+package com.insurance.timing;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.util.List;
+
+/**
+ * Feeds the {@link RequestTiming} of the calling thread from a proxied DataSource: the time spent in
+ * {@link DataSource#getConnection()} (pool wait), each statement execution and each result-set row read.
+ * Threads without a request timing pay only a thread-local lookup (and get unproxied result sets, see
+ * {@link TimedJdbcProxyFactory}).
+ */
+public class SqlTimingListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            timing.statementStarted();
+        }
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        RequestTiming timing = RequestTiming.current();
+        if (timing != null) {
+            // A JDBC batch is one round trip; its statements share a shape, so the first one names it.
+            timing.statementExecuted(queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery());
+        }
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof DataSource
+                && "getConnection".equals(executionContext.getMethod().getName())) {
+            RequestTiming timing = RequestTiming.current();
+            if (timing != null) {
+                timing.connectionRequested();
+            }
+        }
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        Object target = executionContext.getTarget();
+        if (target instanceof ResultSet) {
+            if ("next".equals(executionContext.getMethod().getName())
+                    && Boolean.TRUE.equals(executionContext.getResult())) {
+                RequestTiming timing = RequestTiming.current();
+                if (timing != null) {
+                    timing.rowRead();
+                }
+            }
+        } else if (target instanceof DataSource && "getConnection".equals(executionContext.getMethod().getName())) {
+            RequestTiming timing = RequestTiming.current();
+            if (timing != null) {
+                timing.connectionAcquired();
+            }
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.insurance.timing;
+
+import net.ttddyy.dsproxy.ConnectionInfo;
+import net.ttddyy.dsproxy.proxy.JdbcProxyFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+
+import javax.sql.DataSource;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+
+/**
+ * Proxies result sets only for statements run while a request is timed. Every call on a proxied result set
+ * goes through reflection, which background work streaming millions of rows (exports, projections) should
+ * not pay for rows nobody counts.
+ */
+public class TimedJdbcProxyFactory implements JdbcProxyFactory {
+
+    private final JdbcProxyFactory delegate = JdbcProxyFactory.DEFAULT;
+
+    @Override
+    public DataSource createDataSource(DataSource dataSource, ProxyConfig proxyConfig) {
+        return delegate.createDataSource(dataSource, proxyConfig);
+    }
+
+    @Override
+    public Connection createConnection(Connection connection, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        return delegate.createConnection(connection, connectionInfo, proxyConfig);
+    }
+
+    @Override
+    public Statement createStatement(Statement statement, ConnectionInfo connectionInfo, Connection proxyConnection,
+                                     ProxyConfig proxyConfig) {
+        return delegate.createStatement(statement, connectionInfo, proxyConnection, proxyConfig);
+    }
+
+    @Override
+    public PreparedStatement createPreparedStatement(PreparedStatement preparedStatement, String query,
+                                                     ConnectionInfo connectionInfo, Connection proxyConnection,
+                                                     ProxyConfig proxyConfig, boolean generateKey) {
+        return delegate.createPreparedStatement(preparedStatement, query, connectionInfo, proxyConnection,
+                proxyConfig, generateKey);
+    }
+
+    @Override
+    public CallableStatement createCallableStatement(CallableStatement callableStatement, String query,
+                                                     ConnectionInfo connectionInfo, Connection proxyConnection,
+                                                     ProxyConfig proxyConfig) {
+        return delegate.createCallableStatement(callableStatement, query, connectionInfo, proxyConnection,
+                proxyConfig);
+    }
+
+    @Override
+    public ResultSet createResultSet(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        return RequestTiming.current() == null
+                ? resultSet
+                : delegate.createResultSet(resultSet, connectionInfo, proxyConfig);
+    }
+
+    @Override
+    public ResultSet createGeneratedKeys(ResultSet resultSet, ConnectionInfo connectionInfo, ProxyConfig proxyConfig) {
+        return delegate.createGeneratedKeys(resultSet, connectionInfo, proxyConfig);
+    }
+}
@@ -7,6 +7,7 @@ CREATE TABLE IF NOT EXISTS clients (
     client_type VARCHAR(31) NOT NULL CHECK (client_type IN ('PERSON', 'COMPANY')),
     name VARCHAR(100) NOT NULL,
     email VARCHAR(255) NOT NULL,
+    email_key VARCHAR(255) NOT NULL,
     phone VARCHAR(20) NOT NULL,
     birthdate DATE,
     company_identifier VARCHAR(10) UNIQUE,
@@ -32,9 +33,53 @@ CREATE TABLE IF NOT EXISTS contracts (
         REFERENCES clients(id) ON DELETE CASCADE
 );
 
+-- Background jobs (on the first shard) and their progress (on every shard)
+CREATE TABLE IF NOT EXISTS jobs (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(31) NOT NULL,
+    status VARCHAR(15) NOT NULL,
+    parameters JSONB NOT NULL,
+    processed BIGINT NOT NULL DEFAULT 0,
+    error VARCHAR(1000),
+    owner VARCHAR(64),
+    heartbeat TIMESTAMPTZ,
+    created_at TIMESTAMPTZ NOT NULL,
+    started_at TIMESTAMPTZ,
+    finished_at TIMESTAMPTZ
+);
+
+CREATE TABLE IF NOT EXISTS job_checkpoints (
+    job_id BIGINT PRIMARY KEY,
+    last_id BIGINT NOT NULL,
+    processed BIGINT NOT NULL
+);
+
+-- Last run of the scheduled tasks that one instance runs for all (on the first shard)
+CREATE TABLE IF NOT EXISTS scheduled_runs (
+    name VARCHAR(64) PRIMARY KEY,
+    last_run TIMESTAMPTZ NOT NULL,
+    owner VARCHAR(64)
+);
+
+-- Persons are unique by normalized email; companies by company identifier, whatever their email.
+-- Databases created before this index (without email_key, or with it unique for all clients) are migrated by
+-- scripts/migrate-email-key.sql first.
+ALTER TABLE clients DROP CONSTRAINT IF EXISTS clients_email_key_key;
+CREATE UNIQUE INDEX IF NOT EXISTS uq_client_person_email_key ON clients(email_key) WHERE client_type = 'PERSON';
+
 -- Indexes for performance optimization
-CREATE INDEX IF NOT EXISTS idx_client_type ON clients(client_type);
-CREATE INDEX IF NOT EXISTS idx_client_email ON clients(email);
+-- Client listing (GET /api/clients), keyset-paginated by id or by name with the id as tie-breaker
+DROP INDEX IF EXISTS idx_client_type;
+CREATE INDEX IF NOT EXISTS idx_client_type_id ON clients(client_type, id);
+CREATE INDEX IF NOT EXISTS idx_client_name_key ON clients((lower(name) COLLATE "C"), id);
+CREATE INDEX IF NOT EXISTS idx_client_type_name_key ON clients(client_type, (lower(name) COLLATE "C"), id);
+-- Client search (GET /api/clients/search)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP INDEX IF EXISTS idx_client_email;
+CREATE INDEX IF NOT EXISTS idx_client_email_key ON clients(email_key);
+CREATE INDEX IF NOT EXISTS idx_client_phone ON clients(phone);
+CREATE INDEX IF NOT EXISTS idx_client_name_prefix ON clients(lower(name) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS idx_client_name_trgm ON clients USING gin (lower(name) gin_trgm_ops);
 CREATE INDEX IF NOT EXISTS idx_company_identifier ON clients(company_identifier);
 
 CREATE INDEX IF NOT EXISTS idx_contract_client_id ON contracts(client_id);
@@ -42,11 +87,14 @@ CREATE INDEX IF NOT EXISTS idx_contract_end_date ON contracts(end_date);
 CREATE INDEX IF NOT EXISTS idx_contract_update_date ON contracts(update_date);
 CREATE INDEX IF NOT EXISTS idx_contract_active ON contracts(client_id, end_date);
 
+CREATE INDEX IF NOT EXISTS idx_job_status ON jobs(status);
+
 -- Comments for documentation (safe to re-run)
 COMMENT ON TABLE clients IS 'Stores insurance clients - both persons and companies';
 COMMENT ON TABLE contracts IS 'Stores insurance contracts associated with clients';
 
 COMMENT ON COLUMN clients.client_type IS 'Discriminator: PERSON or COMPANY';
+COMMENT ON COLUMN clients.email_key IS 'Normalized email (trimmed, lower case); unique upsert key of persons';
 COMMENT ON COLUMN clients.birthdate IS 'Required for PERSON, null for COMPANY (immutable)';
 COMMENT ON COLUMN clients.company_identifier IS 'Required for COMPANY, null for PERSON (immutable, format: aaa-123)';
 
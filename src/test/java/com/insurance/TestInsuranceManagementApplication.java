@@ -0,0 +1,16 @@
+package com.insurance;
+
+import com.insurance.config.DevDatabaseConfiguration;
+import org.springframework.boot.SpringApplication;
+
+/**
+ * Runs the application against Testcontainers databases:
+ * {@code mvn spring-boot:test-run -Dspring-boot.run.profiles=dev}.
+ */
+public class TestInsuranceManagementApplication {
+    public static void main(String[] args) {
+        SpringApplication.from(InsuranceManagementApplication::main)
+                .with(DevDatabaseConfiguration.class)
+                .run(args);
+    }
+}
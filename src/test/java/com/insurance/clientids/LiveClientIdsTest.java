@@ -0,0 +1,94 @@
+package com.insurance.clientids;
+
+import com.insurance.repository.ClientRepository;
+import com.insurance.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Live Client Ids Unit Tests")
+class LiveClientIdsTest {
+
+    private ClientRepository clientRepository;
+    private LiveClientIds liveClientIds;
+
+    @BeforeEach
+    void setUp() {
+        clientRepository = mock(ClientRepository.class);
+        liveClientIds = new LiveClientIds(clientRepository, ShardRouter.unsharded(),
+                mock(PlatformTransactionManager.class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        liveClientIds.destroy();
+    }
+
+    @Test
+    @DisplayName("Should know absent only the ids up to the one allocated at the previous reload that are not loaded")
+    void shouldAnswerAbsenceUpToWatermark() {
+        when(clientRepository.findLastAllocatedId()).thenReturn(10L, 20L);
+        when(clientRepository.streamAllIds()).thenReturn(Stream.of(1L, 2L, 5L));
+        assertThat(liveClientIds.isKnownAbsent(3L)).as("before the first load").isFalse();
+
+        liveClientIds.resync();
+
+        assertThat(liveClientIds.isKnownAbsent(3L)).as("after reading the watermarks").isFalse();
+        verify(clientRepository, never()).streamAllIds();
+
+        liveClientIds.resync();
+
+        assertThat(liveClientIds.isKnownAbsent(3L)).isTrue();
+        assertThat(liveClientIds.isKnownAbsent(0L)).isTrue();
+        assertThat(liveClientIds.isKnownAbsent(2L)).isFalse();
+        // Possibly still being inserted when the ids were read.
+        assertThat(liveClientIds.isKnownAbsent(15L)).isFalse();
+
+        liveClientIds.clientDeleted(2L);
+        liveClientIds.clientCreated(3L);
+
+        assertThat(liveClientIds.isKnownAbsent(2L)).isTrue();
+        assertThat(liveClientIds.isKnownAbsent(3L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should replay creates and deletes committed while the ids are being read")
+    void shouldReplayChangesDuringResync() {
+        when(clientRepository.streamAllIds()).thenAnswer(invocation -> {
+            liveClientIds.clientDeleted(2L);
+            liveClientIds.clientCreated(4L);
+            return Stream.of(1L, 2L);
+        });
+        when(clientRepository.findLastAllocatedId()).thenReturn(10L);
+
+        liveClientIds.resync();
+        liveClientIds.resync();
+
+        assertThat(liveClientIds.isKnownAbsent(2L)).isTrue();
+        assertThat(liveClientIds.isKnownAbsent(4L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep the previous ids when a reload fails")
+    void shouldKeepPreviousIdsOnFailure() {
+        when(clientRepository.streamAllIds())
+                .thenReturn(Stream.of(1L))
+                .thenThrow(new QueryTimeoutException("timeout"));
+        when(clientRepository.findLastAllocatedId()).thenReturn(10L);
+
+        liveClientIds.resync();
+        liveClientIds.resync();
+        liveClientIds.resync();
+
+        assertThat(liveClientIds.isKnownAbsent(2L)).isTrue();
+        assertThat(liveClientIds.isKnownAbsent(1L)).isFalse();
+    }
+}
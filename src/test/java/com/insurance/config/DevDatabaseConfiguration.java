@@ -0,0 +1,89 @@
+package com.insurance.config;
+
+import com.insurance.datasource.ReplicaRoutingProperties;
+import com.insurance.sharding.ShardingProperties;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.devtools.restart.RestartScope;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+/**
+ * Local databases for {@link com.insurance.TestInsuranceManagementApplication}. Lives in the test sources so
+ * that Testcontainers stays out of the production artifact.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class DevDatabaseConfiguration {
+
+    @Bean
+    @ServiceConnection
+    @Profile("dev")
+    @RestartScope
+    PostgreSQLContainer<?> postgresContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+                .withDatabaseName("insurance_dev")
+                .withUsername("dev_user")
+                .withPassword("dev_password")
+                .withInitScript("schema.sql")
+                .withReuse(true);
+    }
+
+    // Second, independent instance used as a read replica to exercise routing and fallback locally.
+    // It is not physically replicated, so writes only show up on it if applied there as well.
+    @Bean
+    @Profile("dev-replica")
+    @RestartScope
+    PostgreSQLContainer<?> postgresReplicaContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+                .withDatabaseName("insurance_dev_replica")
+                .withUsername("dev_user")
+                .withPassword("dev_password")
+                .withInitScript("schema.sql")
+                .withReuse(true);
+    }
+
+    @Bean
+    @Profile("dev-replica")
+    ReplicaRoutingProperties.Replica devReplica(
+            @Qualifier("postgresReplicaContainer") PostgreSQLContainer<?> replica) {
+        replica.start();
+        return new ReplicaRoutingProperties.Replica(
+                replica.getJdbcUrl(), replica.getUsername(), replica.getPassword());
+    }
+
+    // Second shard next to the dev database, which is shard 0.
+    @Bean
+    @Profile("dev-shards")
+    @RestartScope
+    PostgreSQLContainer<?> postgresShardContainer() {
+        return new PostgreSQLContainer<>(DockerImageName.parse("postgres:15-alpine"))
+                .withDatabaseName("insurance_dev_shard_1")
+                .withUsername("dev_user")
+                .withPassword("dev_password")
+                .withInitScript("schema.sql")
+                .withReuse(true);
+    }
+
+    @Bean
+    @Order(0)
+    @Profile("dev-shards")
+    ShardingProperties.Shard devShard0(@Qualifier("postgresContainer") PostgreSQLContainer<?> shard) {
+        return devShard(shard);
+    }
+
+    @Bean
+    @Order(1)
+    @Profile("dev-shards")
+    ShardingProperties.Shard devShard1(@Qualifier("postgresShardContainer") PostgreSQLContainer<?> shard) {
+        return devShard(shard);
+    }
+
+    private static ShardingProperties.Shard devShard(PostgreSQLContainer<?> shard) {
+        shard.start();
+        return new ShardingProperties.Shard(shard.getJdbcUrl(), shard.getUsername(), shard.getPassword());
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurance.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the size and serialization time of 50k contracts per format. Runs only with
+ * {@code mvn test -Pbenchmark}; {@link PayloadFormatsTest} checks the round trips on every build.
+ */
+@Tag("benchmark")
+@DisplayName("Contract payload formats: size and serialization time")
+@Slf4j
+class ContractPayloadBenchmarkTest {
+
+    private static final int CONTRACT_COUNT = 50_000;
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 10;
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json().build();
+    private static final ObjectMapper CBOR = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    private static final ObjectMapper SMILE = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+    private static List<ContractResponseDTO> contracts;
+    private static int jsonSize;
+
+    @BeforeAll
+    static void setUp() throws Exception {
+        contracts = new ArrayList<>(CONTRACT_COUNT);
+        for (int i = 0; i < CONTRACT_COUNT; i++) {
+            LocalDate endDate = i % 3 == 0 ? null : LocalDate.of(2030, 1 + i % 12, 1);
+            contracts.add(new ContractResponseDTO((long) i + 1, LocalDate.now().minusYears(i % 10), endDate,
+                    BigDecimal.valueOf(100_000 + i % 10_000, 2)));
+        }
+        jsonSize = JSON.writeValueAsBytes(contracts).length;
+    }
+
+    static Stream<Arguments> formats() {
+        return Stream.of(
+                Arguments.of("json", JSON, false),
+                Arguments.of("cbor", CBOR, false),
+                Arguments.of("smile", SMILE, false),
+                Arguments.of("columnar json", JSON, true),
+                Arguments.of("columnar cbor", CBOR, true)
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("formats")
+    @DisplayName("Should measure 50k contracts and round-trip them")
+    void shouldMeasureFormat(String format, ObjectMapper mapper, boolean columnar) throws Exception {
+        Object payload = columnar ? ContractColumnsDTO.from(contracts) : contracts;
+
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            mapper.writeValueAsBytes(payload);
+        }
+        byte[] bytes = null;
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            bytes = columnar ? mapper.writeValueAsBytes(ContractColumnsDTO.from(contracts))
+                    : mapper.writeValueAsBytes(contracts);
+        }
+        double avgMs = (System.nanoTime() - start) / 1_000_000.0 / MEASURED_RUNS;
+
+        log.info("{} contracts as {}: {} bytes ({}% of JSON), {} ms to serialize",
+                CONTRACT_COUNT, format, bytes.length, Math.round(100.0 * bytes.length / jsonSize),
+                String.format("%.2f", avgMs));
+
+        if (columnar) {
+            ContractColumnsDTO read = mapper.readValue(bytes, ContractColumnsDTO.class);
+            assertThat(read.ids()).hasSize(CONTRACT_COUNT);
+            assertThat(read.endDates()[0]).isNull();
+            assertThat(read.costAmounts()[CONTRACT_COUNT - 1]).isEqualByComparingTo(contracts.getLast().costAmount());
+        } else {
+            ContractResponseDTO[] read = mapper.readValue(bytes, ContractResponseDTO[].class);
+            assertThat(read).containsExactlyElementsOf(contracts);
+        }
+        if (!"json".equals(format)) {
+            assertThat(bytes.length).isLessThan(jsonSize);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.insurance.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Payload formats round trips")
+class PayloadFormatsTest {
+
+    private static final ObjectMapper JSON = Jackson2ObjectMapperBuilder.json().build();
+    private static final ObjectMapper CBOR = Jackson2ObjectMapperBuilder.json().factory(new CBORFactory()).build();
+    private static final ObjectMapper SMILE = Jackson2ObjectMapperBuilder.json().factory(new SmileFactory()).build();
+
+    private static final List<ContractResponseDTO> CONTRACTS = List.of(
+            new ContractResponseDTO(1L, LocalDate.of(2024, 1, 1), null, new BigDecimal("100.00")),
+            new ContractResponseDTO(2L, LocalDate.of(2024, 2, 1), LocalDate.of(2030, 1, 1), new BigDecimal("250.50")));
+
+    @Test
+    @DisplayName("Should round-trip contracts in every format")
+    void shouldRoundTripContracts() throws Exception {
+        for (ObjectMapper mapper : List.of(JSON, CBOR, SMILE)) {
+            ContractResponseDTO[] read = mapper.readValue(mapper.writeValueAsBytes(CONTRACTS),
+                    ContractResponseDTO[].class);
+            assertThat(read).containsExactlyElementsOf(CONTRACTS);
+
+            ContractColumnsDTO columns = ContractColumnsDTO.from(CONTRACTS);
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(columns), ContractColumnsDTO.class))
+                    .isEqualTo(columns);
+        }
+    }
+
+    @Test
+    @DisplayName("Should compare columnar payloads by content")
+    void shouldCompareColumnsByContent() {
+        ContractColumnsDTO columns = ContractColumnsDTO.from(CONTRACTS);
+        ContractColumnsDTO same = ContractColumnsDTO.from(List.copyOf(CONTRACTS));
+
+        assertThat(columns).isEqualTo(same).hasSameHashCodeAs(same);
+        assertThat(columns).hasToString(same.toString());
+        assertThat(columns.toString()).contains("ids=[1, 2]", "costAmounts=[100.00, 250.50]");
+        assertThat(ContractColumnsDTO.from(CONTRACTS, Set.of("id"))).isNotEqualTo(columns);
+    }
+
+    @Test
+    @DisplayName("Should keep client type information in binary formats")
+    void shouldKeepClientTypeInBinaryFormats() throws Exception {
+        ClientDTO person = new PersonDTO(1L, "John Doe", "john@example.com", "+33612345678", LocalDate.of(1990, 5, 15));
+        ClientDTO company = new CompanyDTO(2L, "Acme", "acme@example.com", "+33612345679", "abc-123");
+
+        for (ObjectMapper mapper : List.of(CBOR, SMILE)) {
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(person), ClientDTO.class)).isEqualTo(person);
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(company), ClientDTO.class)).isEqualTo(company);
+        }
+    }
+}
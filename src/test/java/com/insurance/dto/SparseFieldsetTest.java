@@ -0,0 +1,64 @@
+package com.insurance.dto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Sparse fieldset tests")
+class SparseFieldsetTest {
+
+    @Test
+    @DisplayName("Should list record properties in declaration order")
+    void shouldListFields() {
+        assertThat(ContractResponseDTO.FIELDS).containsExactly("id", "startDate", "endDate", "costAmount");
+        assertThat(SparseFieldset.fieldsOf(PersonDTO.class, CompanyDTO.class))
+                .containsExactly("id", "name", "email", "phone", "birthdate", "companyIdentifier");
+    }
+
+    @Test
+    @DisplayName("Should parse fields ignoring blanks and duplicates")
+    void shouldParseFields() {
+        assertThat(SparseFieldset.parse(" costAmount, id,,id ", ContractResponseDTO.FIELDS))
+                .containsExactly("costAmount", "id");
+    }
+
+    @Test
+    @DisplayName("Should reject unknown and empty fieldsets")
+    void shouldRejectInvalidFields() {
+        assertThatThrownBy(() -> SparseFieldset.parse("id,client", ContractResponseDTO.FIELDS))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Unknown field 'client'");
+        assertThatThrownBy(() -> SparseFieldset.parse(" , ", ContractResponseDTO.FIELDS))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Should keep selected null properties and drop the others")
+    void shouldSelectFields() {
+        var contract = new ContractResponseDTO(1L, LocalDate.of(2024, 1, 1), null, new BigDecimal("12.50"));
+
+        assertThat(SparseFieldset.select(contract, Set.of("endDate", "id")))
+                .containsOnlyKeys("id", "endDate")
+                .containsEntry("id", 1L)
+                .containsEntry("endDate", null);
+    }
+
+    @Test
+    @DisplayName("Should leave unselected columns out of the columnar form")
+    void shouldNarrowColumns() {
+        var contract = new ContractResponseDTO(1L, null, null, new BigDecimal("12.50"));
+
+        var columns = ContractColumnsDTO.from(List.of(contract), Set.of("id", "costAmount"));
+
+        assertThat(columns.ids()).containsExactly(1L);
+        assertThat(columns.costAmounts()).containsExactly(new BigDecimal("12.50"));
+        assertThat(columns.startDates()).isNull();
+        assertThat(columns.endDates()).isNull();
+    }
+}
@@ -0,0 +1,101 @@
+package com.insurance.exception;
+
+import com.insurance.controllers.ClientController;
+import com.insurance.dto.ClientDTO;
+import com.insurance.dto.PersonDTO;
+import com.insurance.services.ClientImportService;
+import com.insurance.services.ClientService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+
+/**
+ * Compares the throughput of error responses (404 for a missing client, 400 for an invalid one) with the
+ * matching success responses through the full MVC stack: handler mapping, exception resolution and JSON
+ * serialization. The service is mocked, so only the web layer is measured. Wall-clock ratios depend on the
+ * machine, so the class only runs with {@code mvn test -Pbenchmark}.
+ */
+@Tag("benchmark")
+@DisplayName("Error path throughput compared to the success path")
+@Slf4j
+class ErrorPathBenchmarkTest {
+
+    private static final int WARMUP_REQUESTS = 5_000;
+    private static final int MEASURED_REQUESTS = 10_000;
+
+    private static final String VALID_CLIENT = """
+            {"type":"PERSON","name":"John Doe","email":"john.doe@example.com","phone":"+33612345678","birthdate":"1990-05-15"}""";
+    private static final String INVALID_CLIENT = """
+            {"type":"PERSON","name":"J","email":"not-an-email","phone":"123","birthdate":"2990-05-15"}""";
+
+    private static MockMvc mockMvc;
+
+    @BeforeAll
+    static void setUp() {
+        ClientService clientService = mock(ClientService.class);
+        ClientDTO client = new PersonDTO(1L, "John Doe", "john.doe@example.com", "+33612345678", LocalDate.of(1990, 5, 15));
+        when(clientService.getClient(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            if (id > 1_000_000) {
+                throw ResourceNotFoundException.client(id);
+            }
+            return client;
+        });
+        when(clientService.createClient(any())).thenReturn(client);
+
+        mockMvc = MockMvcBuilders
+                .standaloneSetup(new ClientController(clientService, mock(ClientImportService.class)))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    @DisplayName("Should serve 404s about as fast as the client they replace")
+    void shouldServeNotFoundAsFastAsFound() throws Exception {
+        double found = throughput(get("/api/clients/1"), 200);
+        double notFound = throughput(get("/api/clients/2000000"), 404);
+
+        log.info("GET client: {} req/s found, {} req/s not found ({}%)",
+                Math.round(found), Math.round(notFound), Math.round(100 * notFound / found));
+        assertThat(notFound).isGreaterThan(found * 0.5);
+    }
+
+    @Test
+    @DisplayName("Should serve validation errors about as fast as creates")
+    void shouldServeValidationErrorsAsFastAsCreates() throws Exception {
+        double created = throughput(post("/api/clients").contentType(MediaType.APPLICATION_JSON).content(VALID_CLIENT), 201);
+        double invalid = throughput(post("/api/clients").contentType(MediaType.APPLICATION_JSON).content(INVALID_CLIENT), 400);
+
+        log.info("POST client: {} req/s created, {} req/s invalid ({}%)",
+                Math.round(created), Math.round(invalid), Math.round(100 * invalid / created));
+        assertThat(invalid).isGreaterThan(created * 0.5);
+    }
+
+    private static double throughput(RequestBuilder request, int expectedStatus) throws Exception {
+        assertThat(mockMvc.perform(request).andReturn().getResponse().getStatus()).isEqualTo(expectedStatus);
+        for (int i = 0; i < WARMUP_REQUESTS; i++) {
+            mockMvc.perform(request);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_REQUESTS; i++) {
+            mockMvc.perform(request);
+        }
+        return MEASURED_REQUESTS / ((System.nanoTime() - start) / 1e9);
+    }
+}
@@ -0,0 +1,56 @@
+package com.insurance.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Global Exception Handler Unit Tests")
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    @DisplayName("Should answer 409 only for unique violations")
+    void shouldMapOnlyUniqueViolationsToConflict() {
+        var uniqueViolation = new DataIntegrityViolationException("duplicate key",
+                new RuntimeException(new SQLException("duplicate key value", "23505")));
+        var notNullViolation = new DataIntegrityViolationException("null value",
+                new SQLException("null value in column", "23502"));
+        var foreignKeyViolation = new DataIntegrityViolationException("foreign key",
+                new SQLException("violates foreign key constraint", "23503"));
+
+        assertThat(handler.handleDataIntegrityViolation(uniqueViolation).getStatusCode())
+                .isEqualTo(HttpStatus.CONFLICT);
+        assertThat(handler.handleDataIntegrityViolation(notNullViolation).getStatusCode())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+        assertThat(handler.handleDataIntegrityViolation(foreignKeyViolation).getStatusCode())
+                .isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    @DisplayName("Should share the timestamp of errors within a millisecond")
+    void shouldShareTimestampWithinMillisecond() {
+        AtomicLong millis = new AtomicLong(1_700_000_000_123L);
+        var clockedHandler = new GlobalExceptionHandler(millis::get);
+
+        var first = clockedHandler.handleIllegalArgument(new IllegalArgumentException("first")).getBody();
+        var second = clockedHandler.handleIllegalArgument(new IllegalArgumentException("second")).getBody();
+        millis.incrementAndGet();
+        var third = clockedHandler.handleIllegalArgument(new IllegalArgumentException("third")).getBody();
+
+        assertThat(second.getTimestamp()).isSameAs(first.getTimestamp());
+        assertThat(first.getTimestamp()).isEqualTo(LocalDateTime.ofInstant(
+                Instant.ofEpochMilli(1_700_000_000_123L), ZoneId.systemDefault()));
+        assertThat(Duration.between(first.getTimestamp(), third.getTimestamp())).isEqualTo(Duration.ofMillis(1));
+    }
+}
@@ -0,0 +1,37 @@
+package com.insurance.exception;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("Resource Exceptions Unit Tests")
+class ResourceExceptionsTest {
+
+    @Test
+    @DisplayName("Should not capture a stack trace for a missing resource")
+    void shouldNotCaptureStackTraceForMissingResource() {
+        assertThat(ResourceNotFoundException.client(5L).getStackTrace()).isEmpty();
+        assertThat(new ResourceNotFoundException("Unknown export").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should build the not-found message from the resource and id when read")
+    void shouldBuildNotFoundMessageWhenRead() {
+        ResourceNotFoundException exception = ResourceNotFoundException.contract(42L);
+
+        assertThat(exception.getMessage()).isEqualTo("Contract not found with id: 42");
+        assertThat(exception.getMessage()).isNotSameAs(exception.getMessage());
+        assertThat(ResourceNotFoundException.job(7L).getMessage()).isEqualTo("Job not found with id: 7");
+        assertThat(new ResourceNotFoundException("Unknown export").getMessage()).isEqualTo("Unknown export");
+    }
+
+    @Test
+    @DisplayName("Should not capture a stack trace for a conflict")
+    void shouldNotCaptureStackTraceForConflict() {
+        ResourceConflictException exception = new ResourceConflictException("Email already used");
+
+        assertThat(exception.getStackTrace()).isEmpty();
+        assertThat(exception.getMessage()).isEqualTo("Email already used");
+    }
+}
@@ -0,0 +1,203 @@
+package com.insurance.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("Idempotency key tests")
+class IdempotencyFilterTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final IdempotencyStore store = new IdempotencyStore(Duration.ofMinutes(1), 3, clock::get);
+    private final IdempotencyFilter filter = new IdempotencyFilter(store, Duration.ofMillis(50),
+            new ObjectMapper().registerModule(new JavaTimeModule()), new SimpleMeterRegistry());
+    private final AtomicInteger executions = new AtomicInteger();
+
+    private final FilterChain createContract = (request, response) -> {
+        executions.incrementAndGet();
+        String body = new String(request.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+        ((HttpServletResponse) response).setStatus(201);
+        response.setContentType("application/json");
+        response.getWriter().write("{\"id\":" + executions.get() + ",\"echo\":" + body + "}");
+    };
+
+    @Test
+    @DisplayName("Should replay the stored response without executing the request again")
+    void shouldReplayRetry() throws Exception {
+        MockHttpServletResponse first = send("key-1", "{\"cost\":10}", createContract);
+        MockHttpServletResponse retry = send("key-1", "{\"cost\":10}", createContract);
+
+        assertThat(executions).hasValue(1);
+        assertThat(first.getStatus()).isEqualTo(201);
+        assertThat(first.getContentAsString()).isEqualTo("{\"id\":1,\"echo\":{\"cost\":10}}");
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(retry.getContentAsString()).isEqualTo(first.getContentAsString());
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+    }
+
+    @Test
+    @DisplayName("Should reject a key reused with a different body")
+    void shouldRejectDifferentBody() throws Exception {
+        send("key-1", "{\"cost\":10}", createContract);
+        MockHttpServletResponse reused = send("key-1", "{\"cost\":20}", createContract);
+
+        assertThat(executions).hasValue(1);
+        assertThat(reused.getStatus()).isEqualTo(422);
+    }
+
+    @Test
+    @DisplayName("Should not store server errors so the key can be retried")
+    void shouldRetryAfterServerError() throws Exception {
+        send("key-1", "{}", (request, response) -> ((HttpServletResponse) response).setStatus(503));
+        MockHttpServletResponse retry = send("key-1", "{}", createContract);
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Should answer 409 while the first request is still running")
+    void shouldRejectWhileInProgress() throws Exception {
+        store.claim("POST /api/contracts key-1", fingerprintOf("{}"));
+
+        assertThat(send("key-1", "{}", createContract).getStatus()).isEqualTo(409);
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should pass through requests without a key or on other endpoints")
+    void shouldIgnoreOtherRequests() throws Exception {
+        send(null, "{}", createContract);
+        send(null, "{}", createContract);
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/api/contracts/client/1");
+        read.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, "key-1");
+        filter.doFilter(read, new MockHttpServletResponse(), createContract);
+
+        assertThat(executions).hasValue(3);
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should forget keys after their TTL and beyond the size bound")
+    void shouldBoundStore() {
+        claimAndComplete("a");
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        claimAndComplete("b");
+        claimAndComplete("c");
+        claimAndComplete("d");
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.claim("b", "x").leader()).isFalse();
+        assertThat(claimAndComplete("a").leader()).isTrue();
+
+        clock.addAndGet(Duration.ofSeconds(61).toNanos());
+        assertThat(store.claim("e", "x").leader()).isTrue();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should keep the keys of running requests and refuse new keys while full of them")
+    void shouldNotEvictRunningRequests() throws Exception {
+        IdempotencyStore.Claim running = store.claim("running", "x");
+        claimAndComplete("b");
+        claimAndComplete("c");
+
+        assertThat(store.claim("d", "x")).isNull();
+        assertThat(send("key-1", "{}", createContract).getStatus()).isEqualTo(503);
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertThat(store.claim("running", "x").entry()).isSameAs(running.entry());
+        assertThat(store.claim("d", "x")).isNull();
+
+        store.complete(running.entry(), new IdempotencyStore.StoredResponse(201, null, new byte[0]));
+        assertThat(store.claim("d", "x").leader()).isTrue();
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    @DisplayName("Should hand the cached body to an asynchronous reader")
+    void shouldNotifyReadListener() throws Exception {
+        StringBuilder read = new StringBuilder();
+        MockHttpServletResponse response = send("key-1", "{\"cost\":10}", (request, servletResponse) -> {
+            ServletInputStream input = request.getInputStream();
+            input.setReadListener(new ReadListener() {
+                @Override
+                public void onDataAvailable() throws IOException {
+                    while (input.isReady() && !input.isFinished()) {
+                        read.append((char) input.read());
+                    }
+                }
+
+                @Override
+                public void onAllDataRead() {
+                    read.append('|');
+                }
+
+                @Override
+                public void onError(Throwable t) {
+                    throw new AssertionError(t);
+                }
+            });
+            ((HttpServletResponse) servletResponse).setStatus(201);
+        });
+
+        assertThat(response.getStatus()).isEqualTo(201);
+        assertThat(read).hasToString("{\"cost\":10}|");
+    }
+
+    @Test
+    @DisplayName("Should not let abandoned keys push completed ones out")
+    void shouldNotCountAbandonedKeys() throws Exception {
+        send("key-1", "{}", createContract);
+        for (int i = 0; i < 10; i++) {
+            send("failed-" + i, "{}", (request, response) -> ((HttpServletResponse) response).setStatus(503));
+            send("shed-" + i, "{}", (request, response) -> ((HttpServletResponse) response).setStatus(429));
+        }
+        send("key-2", "{}", createContract);
+
+        assertThat(store.size()).isEqualTo(2);
+        MockHttpServletResponse retry = send("key-1", "{}", createContract);
+        assertThat(retry.getHeader(IdempotencyFilter.REPLAYED)).isEqualTo("true");
+        assertThat(executions).hasValue(2);
+    }
+
+    private IdempotencyStore.Claim claimAndComplete(String key) {
+        IdempotencyStore.Claim claim = store.claim(key, "x");
+        store.complete(claim.entry(), new IdempotencyStore.StoredResponse(201, null, new byte[0]));
+        return claim;
+    }
+
+    private MockHttpServletResponse send(String key, String body, FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/contracts");
+        if (key != null) {
+            request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY, key);
+        }
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static String fingerprintOf(String body) throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                .digest(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
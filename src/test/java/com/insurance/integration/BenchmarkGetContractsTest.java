@@ -6,7 +6,9 @@ import com.insurance.models.Person;
 import com.insurance.repository.ClientRepository;
 import com.insurance.repository.ContractRepository;
 import io.restassured.RestAssured;
+import jakarta.persistence.EntityManagerFactory;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
@@ -14,6 +16,7 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -23,19 +26,27 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 
 
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @Testcontainers
+@Import(SqlCountingConfiguration.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @DisplayName("Contract Performance Tests")
 @Slf4j
@@ -57,6 +68,12 @@ class BenchmarkGetContractsTest {
     @Autowired
     private ContractRepository contractRepository;
 
+    @Autowired
+    private SqlStatementCounter sqlCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     // Store client IDs mapped to number of contracts they have
     private static final Map<Integer, Long> clientIdsByContractCount = new HashMap<>();
     private static final Map<Integer, BigDecimal> expectedSums = new HashMap<>();
@@ -73,6 +90,10 @@ class BenchmarkGetContractsTest {
         registry.add("spring.jpa.properties.hibernate.order_inserts", () -> "true");
         registry.add("spring.jpa.properties.hibernate.order_updates", () -> "true");
         registry.add("spring.jpa.properties.hibernate.jdbc.batch_versioned_data", () -> "true");
+        // The job poller would count towards the statement budgets.
+        registry.add("insurance.jobs.poll-interval", () -> "1h");
+        registry.add("insurance.leaderboard.reconcile-interval", () -> "1h");
+        registry.add("insurance.client-ids.resync-interval", () -> "1h");
     }
 
     @BeforeEach
@@ -192,6 +213,101 @@ class BenchmarkGetContractsTest {
 
     }
 
+    /**
+     * Listing and summing must cost the same round trips for 5 contracts as for 50000.
+     */
+    @ParameterizedTest(name = "Should stay within the SQL budget for {0} contracts")
+    @MethodSource("contractCountProvider")
+    @Order(2)
+    @DisplayName("SQL budget: contract list and sum")
+    void shouldStayWithinSqlBudget(int contractCount) {
+        Long clientId = clientIdsByContractCount.get(contractCount);
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+
+        sessionFactory.getCache().evictAllRegions();
+        var list = sqlCounter.measure(() -> given().when().get("/api/contracts/client/{clientId}", clientId)
+                .then().statusCode(200));
+        sessionFactory.getCache().evictAllRegions();
+        var sum = sqlCounter.measure(() -> given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200));
+
+        log.info("SQL for {} contracts: list {} statements / {} rows, sum {} statements / {} rows",
+                contractCount, list.statements(), list.rows(), sum.statements(), sum.rows());
+        // Client lookup + one query; the contracts are read in a single result set.
+        assertThat(list.statements()).as("%s", list).isEqualTo(2);
+        assertThat(list.rows()).as("%s", list).isEqualTo(contractCount + 1);
+        assertThat(sum.statements()).as("%s", sum).isEqualTo(2);
+    }
+
+    /**
+     * Many clients repricing the same few contracts at once: every PATCH is a single UPDATE ... RETURNING,
+     * so a row lock is held for one statement and the commit.
+     */
+    @Test
+    @Order(3)
+    @DisplayName("Performance test: concurrent cost updates of the same contracts")
+    void shouldUpdateCostsUnderContention() throws Exception {
+        Person client = new Person();
+        client.setName("Contention Client");
+        client.setEmail("contention@example.com");
+        client.setPhone("+33612345678");
+        client.setBirthdate(LocalDate.of(1990, 1, 1));
+        Person savedClient = clientRepository.save(client);
+        List<Long> hotContracts = IntStream.range(0, 4).mapToObj(i -> {
+            Contract contract = new Contract();
+            contract.setClient(savedClient);
+            contract.setCostAmount(BigDecimal.valueOf(100));
+            return contractRepository.save(contract).getId();
+        }).toList();
+
+        int threads = 32;
+        int updatesPerThread = 50;
+        long[] latencies = new long[threads * updatesPerThread];
+        // The concurrency limiter may shed part of the burst with 429; those requests never reach the database.
+        AtomicInteger shed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        long start = System.nanoTime();
+        var counts = sqlCounter.measure(() -> {
+            List<Future<?>> workers = new ArrayList<>(threads);
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                workers.add(executor.submit(() -> {
+                    for (int i = 0; i < updatesPerThread; i++) {
+                        int n = thread * updatesPerThread + i;
+                        long requestStart = System.nanoTime();
+                        int status = given().contentType("application/json")
+                                .body(new ContractUpdateDTO(BigDecimal.valueOf(100 + n % 100)))
+                                .when().patch("/api/contracts/{id}/cost", hotContracts.get(n % hotContracts.size()))
+                                .then().statusCode(anyOf(is(200), is(429)))
+                                .extract().statusCode();
+                        latencies[n] = System.nanoTime() - requestStart;
+                        if (status == 429) {
+                            shed.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+        });
+        double seconds = (System.nanoTime() - start) / 1e9;
+        executor.shutdown();
+
+        Arrays.sort(latencies);
+        int updated = latencies.length - shed.get();
+        log.info("Concurrent cost updates: {} PATCHes on {} contracts from {} threads in {}s ({} req/s), " +
+                        "{} shed with 429, p50 {}ms, p99 {}ms", latencies.length, hotContracts.size(), threads,
+                String.format("%.2f", seconds), String.format("%.0f", latencies.length / seconds), shed.get(),
+                latencies[latencies.length / 2] / 1_000_000, latencies[latencies.length * 99 / 100] / 1_000_000);
+        assertThat(updated).isPositive();
+        assertThat(counts.statements()).as("one statement per applied PATCH").isEqualTo(updated);
+    }
+
     static Stream<Arguments> contractCountProvider() {
         return Stream.of(
                 Arguments.of(5),
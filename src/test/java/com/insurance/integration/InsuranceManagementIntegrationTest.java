@@ -1,11 +1,19 @@
 package com.insurance.integration;
 
+import com.insurance.clientids.LiveClientIds;
 import com.insurance.dto.*;
+import com.insurance.models.JobType;
 import io.restassured.RestAssured;
 import io.restassured.http.ContentType;
+import io.restassured.path.json.JsonPath;
+import io.restassured.response.ValidatableResponse;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.PostgreSQLContainer;
@@ -14,6 +22,11 @@ import org.testcontainers.junit.jupiter.Testcontainers;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static io.restassured.RestAssured.given;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -28,6 +41,7 @@ import static org.hamcrest.Matchers.*;
         }
 )
 @Testcontainers
+@Import(SqlCountingConfiguration.class)
 @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
 @DisplayName("Insurance Management System - Integration Tests")
 class InsuranceManagementIntegrationTest {
@@ -40,6 +54,15 @@ class InsuranceManagementIntegrationTest {
     @LocalServerPort
     private Integer port;
 
+    @Autowired
+    private SqlStatementCounter sqlCounter;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private LiveClientIds liveClientIds;
+
     @DynamicPropertySource
     static void configureProperties(DynamicPropertyRegistry registry) {
         registry.add("spring.datasource.url", postgres::getJdbcUrl);
@@ -52,6 +75,11 @@ class InsuranceManagementIntegrationTest {
         registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
         registry.add("spring.jpa.show-sql", () -> "true");
         registry.add("spring.jpa.properties.hibernate.format_sql", () -> "true");
+        // Jobs are started on submission; a background poll would count towards the SQL budgets.
+        registry.add("insurance.jobs.poll-interval", () -> "1h");
+        registry.add("insurance.leaderboard.reconcile-interval", () -> "1h");
+        registry.add("insurance.client-ids.resync-interval", () -> "1h");
+        registry.add("insurance.jobs.chunk-size", () -> "2");
     }
 
     @BeforeEach
@@ -756,4 +784,503 @@ class InsuranceManagementIntegrationTest {
                 .statusCode(200)
                 .body("totalCostAmount", equalTo(3250.75f));
     }
+
+    // ============================================
+    // SQL BUDGET TESTS
+    // ============================================
+    // Cold requests run with empty Hibernate caches; warm ones right after, served from them.
+
+    @Test
+    @Order(30)
+    @DisplayName("Should list active contracts in one query regardless of contract count")
+    void shouldListContractsWithinSqlBudget() {
+        Long clientId = createBudgetClient("budget.list@example.com");
+        createBudgetContracts(clientId, 1);
+        Runnable listContracts = () -> given().when().get("/api/contracts/client/{clientId}", clientId)
+                .then().statusCode(200);
+
+        var one = measureCold(listContracts);
+        createBudgetContracts(clientId, 24);
+        var many = measureCold(listContracts);
+        var warm = sqlCounter.measure(listContracts);
+
+        // Client lookup + contracts query.
+        assertThat(one.statements()).as("%s", one).isEqualTo(2);
+        assertThat(many.statements()).as("%s", many).isEqualTo(2);
+        assertThat(many.rows()).as("%s", many).isEqualTo(26);
+        assertThat(warm.statements()).as("%s", warm).isZero();
+    }
+
+    @Test
+    @Order(31)
+    @DisplayName("Should sum active contracts in one query regardless of contract count")
+    void shouldSumContractsWithinSqlBudget() {
+        Long clientId = createBudgetClient("budget.sum@example.com");
+        createBudgetContracts(clientId, 25);
+
+        var cold = measureCold(() -> given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200));
+
+        assertThat(cold.statements()).as("%s", cold).isEqualTo(2);
+        assertThat(cold.rows()).as("%s", cold).isEqualTo(2);
+    }
+
+    @Test
+    @Order(32)
+    @DisplayName("Should read, create and update with one statement per step")
+    void shouldWriteWithinSqlBudget() {
+        Long clientId = createBudgetClient("budget.write@example.com");
+
+        var getClient = measureCold(() -> given().when().get("/api/clients/{id}", clientId).then().statusCode(200));
+        var createContract = measureCold(() -> createBudgetContracts(clientId, 1));
+        Integer contractId = given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, null, null, new BigDecimal("10.00")))
+                .when().post("/api/contracts").then().statusCode(201).extract().path("id");
+        var updateCost = measureCold(() -> given().contentType(ContentType.JSON)
+                .body(new ContractUpdateDTO(new BigDecimal("20.00")))
+                .when().patch("/api/contracts/{id}/cost", contractId).then().statusCode(200)
+                .body("costAmount", equalTo(20.00f)));
+        var updateMissing = measureCold(() -> given().contentType(ContentType.JSON)
+                .body(new ContractUpdateDTO(new BigDecimal("20.00")))
+                .when().patch("/api/contracts/{id}/cost", 999999).then().statusCode(404)
+                .body("message", containsString("Contract not found")));
+        var createForMissingClient = measureCold(() -> given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, 999999L, null, null, new BigDecimal("10.00")))
+                .when().post("/api/contracts").then().statusCode(404)
+                .body("message", containsString("Client not found")));
+
+        assertThat(getClient.statements()).as("%s", getClient).isEqualTo(1);
+        // The insert alone: the foreign key checks the client.
+        assertThat(createContract.statements()).as("%s", createContract).isEqualTo(1);
+        assertThat(createForMissingClient.statements()).as("%s", createForMissingClient).isEqualTo(1);
+        // UPDATE ... RETURNING.
+        assertThat(updateCost.statements()).as("%s", updateCost).isEqualTo(1);
+        assertThat(updateMissing.statements()).as("%s", updateMissing).isEqualTo(1);
+    }
+
+    @Test
+    @Order(34)
+    @DisplayName("Should not serve a cached sum after a cost update")
+    void shouldInvalidateCachedSumOnCostUpdate() {
+        Long clientId = createBudgetClient("budget.invalidate@example.com");
+        Integer contractId = given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, null, null, new BigDecimal("10.00")))
+                .when().post("/api/contracts").then().statusCode(201).extract().path("id");
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(10.00f));
+
+        given().contentType(ContentType.JSON).body(new ContractUpdateDTO(new BigDecimal("25.00")))
+                .when().patch("/api/contracts/{id}/cost", contractId).then().statusCode(200);
+
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(25.00f));
+    }
+
+    @Test
+    @Order(33)
+    @DisplayName("Should delete a client in a fixed number of statements regardless of contract count")
+    void shouldDeleteClientWithinSqlBudget() {
+        Long fewContracts = createBudgetClient("budget.delete1@example.com");
+        createBudgetContracts(fewContracts, 1);
+        Long manyContracts = createBudgetClient("budget.delete25@example.com");
+        createBudgetContracts(manyContracts, 25);
+
+        var few = measureCold(() -> given().when().delete("/api/clients/{id}", fewContracts).then().statusCode(204));
+        var many = measureCold(() -> given().when().delete("/api/clients/{id}", manyContracts).then().statusCode(204));
+
+        // Client lookup + one DELETE; the contracts go with it through ON DELETE CASCADE.
+        assertThat(few.statements()).as("%s", few).isEqualTo(2);
+        assertThat(many.statements()).as("%s", many).isEqualTo(2);
+    }
+
+    @Test
+    @Order(35)
+    @DisplayName("Should project the premiums due per month with one query")
+    void shouldProjectPremiumSchedule() {
+        Long clientId = createBudgetClient("schedule@example.com");
+        LocalDate month = LocalDate.now().withDayOfMonth(1);
+        createContract(clientId, null, null, "10.00");
+        createContract(clientId, month.plusMonths(2), month.plusMonths(4), "5.00");
+        createContract(clientId, null, LocalDate.now().plusDays(1), "1.00");
+
+        var schedule = measureCold(() -> given()
+                .when().get("/api/contracts/client/{clientId}/schedule?months=6", clientId)
+                .then().statusCode(200)
+                .body("months.month[0]", equalTo(YearMonth.now().toString()))
+                .body("months.premium", contains(11.00f, 10.00f, 15.00f, 15.00f, 10.00f, 10.00f))
+                .body("totalPremium", equalTo(71.00f)));
+        // Client lookup + one aggregate over the client's contracts.
+        assertThat(schedule.statements()).as("%s", schedule).isEqualTo(2);
+
+        given().when().get("/api/contracts/schedule?months=36")
+                .then().statusCode(200)
+                .body("months", hasSize(36))
+                .body("months.premium[3]", greaterThanOrEqualTo(15.00f));
+        given().when().get("/api/contracts/schedule?months=0").then().statusCode(400);
+        given().when().get("/api/contracts/client/{clientId}/schedule", 999999)
+                .then().statusCode(404);
+    }
+
+    @Test
+    @Order(36)
+    @DisplayName("Should fetch a page of clients with one query, then from the cache")
+    void shouldGetClientsByIdsWithinSqlBudget() {
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            ids.add(createBudgetClient("batch" + i + "@example.com"));
+        }
+        Integer companyId = given().contentType(ContentType.JSON)
+                .body(new CompanyDTO(null, "Batch Corp", "batch@corp.com", "+33698765432", "bat-123"))
+                .when().post("/api/clients")
+                .then().statusCode(201).extract().path("id");
+        ids.add(1, companyId.longValue());
+        String existing = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        var cold = measureCold(() -> given().when().get("/api/clients?ids=" + existing + ",999999")
+                .then().statusCode(200)
+                .body("clients.id", contains(ids.stream().map(Long::intValue).toArray()))
+                .body("clients.type", contains("PERSON", "COMPANY", "PERSON", "PERSON"))
+                .body("clients[1].companyIdentifier", equalTo("bat-123"))
+                .body("missingIds", contains(999999)));
+        var cached = sqlCounter.measure(() -> given().when().get("/api/clients?ids=" + existing)
+                .then().statusCode(200).body("clients", hasSize(4)).body("missingIds", empty()));
+
+        // One array-bound query whatever the number of ids; found clients then come from the second-level cache.
+        assertThat(cold.statements()).as("%s", cold).isEqualTo(1);
+        assertThat(cached.statements()).as("%s", cached).isZero();
+
+        given().when().get("/api/clients?ids=").then().statusCode(400);
+    }
+
+    @Test
+    @Order(37)
+    @DisplayName("Should list filtered clients page by page with one query per page")
+    void shouldListClientsWithKeysetCursors() {
+        List<Long> ids = new ArrayList<>();
+        for (String name : List.of("keyset b", "Keyset A", "Keyset c", "Keyset a")) {
+            var personDTO = new PersonDTO(null, name, name.replace(' ', '.') + ids.size() + "@example.com",
+                    "+33612345678", LocalDate.of(1990, 1, 1));
+            Integer id = given().contentType(ContentType.JSON).body(personDTO)
+                    .when().post("/api/clients")
+                    .then().statusCode(201).extract().path("id");
+            ids.add(id.longValue());
+        }
+        given().contentType(ContentType.JSON)
+                .body(new CompanyDTO(null, "Keyset Corp", "keyset@corp.com", "+33698765432", "key-123"))
+                .when().post("/api/clients").then().statusCode(201);
+        createContract(ids.get(2), null, null, "10.00");
+        createContract(ids.get(0), null, LocalDate.now().minusDays(1), "10.00");
+
+        // By name: "keyset a" twice (by id), then "keyset b", "keyset c", "keyset corp".
+        List<Object> names = new ArrayList<>();
+        String cursor = null;
+        do {
+            String pageCursor = cursor;
+            JsonPath[] body = new JsonPath[1];
+            var page = sqlCounter.measure(() -> body[0] = given()
+                    .queryParam("name", "KEYSET").queryParam("sort", "name").queryParam("size", 2)
+                    .queryParams(pageCursor != null ? Map.of("cursor", pageCursor) : Map.of())
+                    .when().get("/api/clients")
+                    .then().statusCode(200).body("clients", hasSize(lessThanOrEqualTo(2)))
+                    .extract().jsonPath());
+            // Deep pages are range scans from the cursor, in one statement like the first one.
+            assertThat(page.statements()).as("%s", page).isEqualTo(1);
+            names.addAll(body[0].getList("clients.name"));
+            cursor = body[0].getString("nextCursor");
+        } while (cursor != null);
+        assertThat(names).containsExactly("Keyset A", "Keyset a", "keyset b", "Keyset c", "Keyset Corp");
+
+        given().queryParam("name", "keyset").queryParam("type", "person").queryParam("size", 3)
+                .when().get("/api/clients")
+                .then().statusCode(200)
+                .body("clients.id", contains(ids.subList(0, 3).stream().map(Long::intValue).toArray()))
+                .body("nextCursor", notNullValue());
+        given().queryParam("name", "keyset").queryParam("hasActiveContracts", true)
+                .when().get("/api/clients")
+                .then().statusCode(200)
+                .body("clients.id", contains(ids.get(2).intValue()))
+                .body("nextCursor", nullValue());
+        given().queryParam("name", "keyset").queryParam("hasActiveContracts", false).queryParam("type", "COMPANY")
+                .when().get("/api/clients")
+                .then().statusCode(200).body("clients.name", contains("Keyset Corp"));
+
+        given().queryParam("sort", "email").when().get("/api/clients").then().statusCode(400);
+        given().queryParam("cursor", "nope").when().get("/api/clients").then().statusCode(400);
+    }
+
+    @Test
+    @Order(38)
+    @DisplayName("Should keep the premium leaderboard up to date without querying it")
+    void shouldServePremiumLeaderboardFromMemory() {
+        Long clientId = createBudgetClient("leaderboard@example.com");
+        createContract(clientId, null, null, "900000.00");
+        createContract(clientId, null, LocalDate.now().minusDays(1), "500000.00");
+        Integer contractId = given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, null, null, new BigDecimal("100000.00")))
+                .when().post("/api/contracts").then().statusCode(201).extract().path("id");
+
+        var leaderboard = sqlCounter.measure(() -> given().queryParam("size", 3)
+                .when().get("/api/clients/leaderboard")
+                .then().statusCode(200)
+                .body("clients", hasSize(lessThanOrEqualTo(3)))
+                .body("clients[0].clientId", equalTo(clientId.intValue()))
+                .body("clients[0].activePremium", equalTo(1000000.00f)));
+        assertThat(leaderboard.statements()).as("%s", leaderboard).isZero();
+
+        given().contentType(ContentType.JSON).body(new ContractUpdateDTO(new BigDecimal("40000.00")))
+                .when().patch("/api/contracts/{id}/cost", contractId).then().statusCode(200);
+        given().when().get("/api/clients/leaderboard")
+                .then().statusCode(200).body("clients[0].activePremium", equalTo(940000.00f));
+
+        given().when().delete("/api/clients/{id}", clientId).then().statusCode(204);
+        given().when().get("/api/clients/leaderboard")
+                .then().statusCode(200).body("clients.clientId", not(hasItem(clientId.intValue())));
+        given().queryParam("size", 101).when().get("/api/clients/leaderboard").then().statusCode(400);
+    }
+
+    @Test
+    @Order(39)
+    @DisplayName("Should reject deleted clients without a query")
+    void shouldRejectDeletedClientsWithoutQuery() {
+        Long clientId = createBudgetClient("deleted@example.com");
+        Long otherId = createBudgetClient("not.deleted@example.com");
+        // The first reload reads the watermarks above both clients, the second loads the ids up to them.
+        liveClientIds.resync();
+        liveClientIds.resync();
+        given().when().delete("/api/clients/{id}", clientId).then().statusCode(204);
+
+        var getClient = sqlCounter.measure(() -> given().when().get("/api/clients/{id}", clientId)
+                .then().statusCode(404));
+        var getSum = sqlCounter.measure(() -> given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(404));
+        var createContract = sqlCounter.measure(() -> given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, null, null, new BigDecimal("10.00")))
+                .when().post("/api/contracts").then().statusCode(404));
+        var getClients = measureCold(() -> given().when().get("/api/clients?ids=" + clientId + "," + otherId)
+                .then().statusCode(200)
+                .body("clients.id", contains(otherId.intValue()))
+                .body("missingIds", contains(clientId.intValue())));
+
+        assertThat(getClient.statements()).as("%s", getClient).isZero();
+        assertThat(getSum.statements()).as("%s", getSum).isZero();
+        assertThat(createContract.statements()).as("%s", createContract).isZero();
+        // Only the client that may exist is looked up.
+        assertThat(getClients.statements()).as("%s", getClients).isEqualTo(1);
+    }
+
+    @Test
+    @Order(40)
+    @DisplayName("Should serve a cached client until it is updated or deleted")
+    void shouldInvalidateCachedClientOnWrite() {
+        Long clientId = createBudgetClient("cached.client@example.com");
+        given().when().get("/api/clients/{id}", clientId).then().statusCode(200);
+        var cached = sqlCounter.measure(() -> given().when().get("/api/clients/{id}", clientId)
+                .then().statusCode(200).body("name", equalTo("Budget Client")));
+        assertThat(cached.statements()).as("%s", cached).isZero();
+
+        given().contentType(ContentType.JSON)
+                .body(new ClientUpdateDTO("Renamed Client", "cached.renamed@example.com", "+33600000000"))
+                .when().put("/api/clients/{id}", clientId).then().statusCode(200);
+        given().when().get("/api/clients/{id}", clientId)
+                .then().statusCode(200)
+                .body("name", equalTo("Renamed Client"))
+                .body("email", equalTo("cached.renamed@example.com"))
+                .body("phone", equalTo("+33600000000"));
+
+        given().when().delete("/api/clients/{id}", clientId).then().statusCode(204);
+        given().when().get("/api/clients/{id}", clientId).then().statusCode(404);
+    }
+
+    @Test
+    @Order(41)
+    @DisplayName("Should serve cached contract lists and sums until a contract is created")
+    void shouldInvalidateCachedContractQueriesOnCreate() {
+        Long clientId = createBudgetClient("cached.contracts@example.com");
+        createContract(clientId, null, null, "10.00");
+        given().when().get("/api/contracts/client/{clientId}", clientId).then().statusCode(200);
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId).then().statusCode(200);
+        var cached = sqlCounter.measure(() -> {
+            given().when().get("/api/contracts/client/{clientId}", clientId)
+                    .then().statusCode(200).body("$", hasSize(1));
+            given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                    .then().statusCode(200).body("totalCostAmount", equalTo(10.00f));
+        });
+        assertThat(cached.statements()).as("%s", cached).isZero();
+
+        createContract(clientId, null, null, "15.00");
+
+        given().when().get("/api/contracts/client/{clientId}", clientId)
+                .then().statusCode(200).body("$", hasSize(2));
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(25.00f));
+
+        given().when().delete("/api/clients/{id}", clientId).then().statusCode(204);
+        given().when().get("/api/contracts/client/{clientId}", clientId).then().statusCode(404);
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId).then().statusCode(404);
+    }
+
+    @Test
+    @Order(42)
+    @DisplayName("Should upsert persons by email and companies by identifier, sharing emails between them")
+    void shouldUpsertClientsAgainstDatabase() {
+        var person = new PersonDTO(null, "Upsert Person", "upsert.person@example.com", "+33612345678",
+                LocalDate.of(1990, 1, 1));
+        var created = sqlCounter.measure(() -> given().contentType(ContentType.JSON).body(person)
+                .when().post("/api/clients?upsert=true")
+                .then().statusCode(201));
+        assertThat(created.statements()).as("%s", created).isEqualTo(1);
+        Long personId = searchByEmail("upsert.person@example.com").getFirst();
+
+        // The same person again, with another spelling of the email: updated in place.
+        given().contentType(ContentType.JSON)
+                .body(new PersonDTO(null, "Upsert Person Renamed", "Upsert.Person@Example.COM", "+33600000000",
+                        LocalDate.of(1990, 1, 1)))
+                .when().post("/api/clients?upsert=true")
+                .then().statusCode(200)
+                .body("id", equalTo(personId.intValue()))
+                .body("name", equalTo("Upsert Person Renamed"));
+
+        // Companies are keyed on their identifier and may share the email of a person or of another company.
+        given().contentType(ContentType.JSON)
+                .body(new CompanyDTO(null, "Upsert Company", "upsert.person@example.com", "+33612345678", "ups-001"))
+                .when().post("/api/clients?upsert=true")
+                .then().statusCode(201);
+        given().contentType(ContentType.JSON)
+                .body(new CompanyDTO(null, "Other Company", "Upsert.Person@example.com", "+33612345678", "ups-002"))
+                .when().post("/api/clients")
+                .then().statusCode(201);
+        given().contentType(ContentType.JSON)
+                .body(new CompanyDTO(null, "Upsert Company", "other.person@example.com", "+33612345678", "ups-001"))
+                .when().post("/api/clients?upsert=true")
+                .then().statusCode(200);
+
+        // A plain create of a second person with the email is a unique violation.
+        given().contentType(ContentType.JSON)
+                .body(new PersonDTO(null, "Second Person", "UPSERT.PERSON@example.com", "+33612345678",
+                        LocalDate.of(1991, 1, 1)))
+                .when().post("/api/clients")
+                .then().statusCode(409);
+
+        given().contentType(ContentType.JSON)
+                .body(new ClientBatchDTO(List.of(
+                        new PersonDTO(null, "Other Person", "other.person@example.com", "+33612345678",
+                                LocalDate.of(1992, 1, 1)),
+                        new PersonDTO(null, "Other Person Last", "Other.Person@example.com", "+33612345678",
+                                LocalDate.of(1992, 1, 1)),
+                        new PersonDTO(null, "Upsert Person Bulk", "upsert.person@example.com", "+33612345678",
+                                LocalDate.of(1990, 1, 1)),
+                        new CompanyDTO(null, "Upsert Company Bulk", "upsert.person@example.com", "+33612345678",
+                                "ups-001"),
+                        new CompanyDTO(null, "Third Company", "other.person@example.com", "+33612345678",
+                                "ups-003"))))
+                .when().post("/api/clients/bulk")
+                .then().statusCode(200)
+                .body("received", equalTo(5))
+                .body("duplicates", equalTo(1))
+                .body("created", equalTo(2))
+                .body("updated", equalTo(2))
+                .body("rejected", equalTo(0));
+
+        given().queryParam("email", "upsert.person@example.com")
+                .when().get("/api/clients/search")
+                .then().statusCode(200)
+                .body("clients.name", containsInAnyOrder("Upsert Person Bulk", "Upsert Company Bulk", "Other Company"));
+        given().queryParam("email", "other.person@example.com")
+                .when().get("/api/clients/search")
+                .then().statusCode(200)
+                .body("clients.name", containsInAnyOrder("Other Person Last", "Third Company"));
+    }
+
+    // Last: the job runner polls once more after a job finishes, which would count in a later budget.
+    @Test
+    @Order(100)
+    @DisplayName("Should reprice and end contracts in background jobs")
+    void shouldRunBulkJobs() throws InterruptedException {
+        Long clientId = createBudgetClient("jobs@example.com");
+        for (int i = 0; i < 5; i++) {
+            createContract(clientId, null, null, "10.00");
+        }
+        createContract(clientId, null, LocalDate.now().plusDays(1), "10.00");
+        Long otherClientId = createBudgetClient("jobs.other@example.com");
+        createContract(otherClientId, null, null, "10.00");
+        // Cached now: the job's native updates must evict it.
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(60.00f));
+
+        Integer repriceId = given().contentType(ContentType.JSON)
+                .body(new JobRequestDTO(JobType.REPRICE_CONTRACTS, new BigDecimal("1.5"), null, clientId))
+                .when().post("/api/jobs")
+                .then().statusCode(202)
+                .header("Location", containsString("/api/jobs/"))
+                .body("status", anyOf(equalTo("QUEUED"), equalTo("RUNNING"), equalTo("COMPLETED")))
+                .extract().path("id");
+        awaitJob(repriceId).body("processed", equalTo(6)).body("finishedAt", notNullValue());
+        given().when().get("/api/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(90.00f));
+        given().when().get("/api/contracts/client/{clientId}/sum", otherClientId)
+                .then().statusCode(200).body("totalCostAmount", equalTo(10.00f));
+
+        Integer endId = given().contentType(ContentType.JSON)
+                .body(new JobRequestDTO(JobType.END_CONTRACTS, null, LocalDate.now().plusDays(1), clientId))
+                .when().post("/api/jobs")
+                .then().statusCode(202).extract().path("id");
+        // The contract already ending tomorrow is left as it is.
+        awaitJob(endId).body("processed", equalTo(5));
+        given().when().get("/api/contracts/client/{clientId}", clientId)
+                .then().statusCode(200)
+                .body("endDate", everyItem(equalTo(LocalDate.now().plusDays(1).toString())));
+
+        given().contentType(ContentType.JSON)
+                .body(new JobRequestDTO(JobType.REPRICE_CONTRACTS, null, null, clientId))
+                .when().post("/api/jobs").then().statusCode(400);
+        given().contentType(ContentType.JSON)
+                .body(new JobRequestDTO(JobType.END_CONTRACTS, null, LocalDate.now().minusDays(1), null))
+                .when().post("/api/jobs").then().statusCode(400);
+        given().when().get("/api/jobs/{id}", 999999).then().statusCode(404);
+    }
+
+    private static ValidatableResponse awaitJob(Integer jobId) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            ValidatableResponse job = given().when().get("/api/jobs/{id}", jobId).then().statusCode(200);
+            if ("COMPLETED".equals(job.extract().path("status"))) {
+                return job;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Job " + jobId + " did not complete");
+    }
+
+    private SqlStatementCounter.Counts measureCold(Runnable request) {
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        return sqlCounter.measure(request);
+    }
+
+    private List<Long> searchByEmail(String email) {
+        return given().queryParam("email", email)
+                .when().get("/api/clients/search")
+                .then().statusCode(200)
+                .extract().jsonPath().getList("clients.id", Long.class);
+    }
+
+    private Long createBudgetClient(String email) {
+        var personDTO = new PersonDTO(null, "Budget Client", email, "+33612345678", LocalDate.of(1990, 1, 1));
+        Integer clientId = given().contentType(ContentType.JSON).body(personDTO)
+                .when().post("/api/clients")
+                .then().statusCode(201).extract().path("id");
+        return clientId.longValue();
+    }
+
+    private void createContract(Long clientId, LocalDate startDate, LocalDate endDate, String costAmount) {
+        given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, startDate, endDate, new BigDecimal(costAmount)))
+                .when().post("/api/contracts").then().statusCode(201);
+    }
+
+    private void createBudgetContracts(Long clientId, int count) {
+        for (int i = 0; i < count; i++) {
+            given().contentType(ContentType.JSON)
+                    .body(new ContractDTO(null, clientId, null, null, new BigDecimal("100.00")))
+                    .when().post("/api/contracts").then().statusCode(201);
+        }
+    }
 }
\ No newline at end of file
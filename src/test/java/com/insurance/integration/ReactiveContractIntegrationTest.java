@@ -0,0 +1,143 @@
+package com.insurance.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurance.dto.ContractDTO;
+import com.insurance.dto.PersonDTO;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import io.restassured.response.Response;
+import org.junit.jupiter.api.*;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the R2DBC contract reads of the {@code reactive} profile against PostgreSQL, on data written through the
+ * JPA endpoints.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("reactive")
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Reactive Contract Reads - Integration Tests")
+class ReactiveContractIntegrationTest {
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("insurance_test")
+            .withUsername("test_user")
+            .withPassword("test_password");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static Long clientId;
+
+    @LocalServerPort
+    private Integer port;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "create-drop");
+    }
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.baseURI = "http://localhost:" + port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+        if (clientId == null) {
+            clientId = given().contentType(ContentType.JSON)
+                    .body(new PersonDTO(null, "Reactive Client", "reactive@example.com", "+33612345678",
+                            LocalDate.of(1990, 1, 1)))
+                    .when().post("/api/clients")
+                    .then().statusCode(201).extract().jsonPath().getLong("id");
+            createContract(null, "100.00");
+            createContract(LocalDate.now().plusDays(10), "250.50");
+            createContract(LocalDate.now().minusDays(1), "999.00");
+        }
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Should stream the active contracts as NDJSON by default")
+    void shouldStreamActiveContractsAsNdjson() throws Exception {
+        Response response = given().when().get("/api/reactive/contracts/client/{clientId}", clientId)
+                .then().statusCode(200)
+                .contentType(startsWith("application/x-ndjson"))
+                .extract().response();
+
+        List<String> lines = response.asString().lines().filter(line -> !line.isBlank()).toList();
+        assertThat(lines).hasSize(2);
+        List<BigDecimal> costs = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode contract = objectMapper.readTree(line);
+            assertThat(contract.get("id").isNumber()).isTrue();
+            costs.add(contract.get("costAmount").decimalValue());
+        }
+        assertThat(costs).usingElementComparator(BigDecimal::compareTo)
+                .containsExactlyInAnyOrder(new BigDecimal("100.00"), new BigDecimal("250.50"));
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Should return the active contracts as one JSON array when asked for")
+    void shouldListActiveContractsAsJson() {
+        given().accept(ContentType.JSON)
+                .when().get("/api/reactive/contracts/client/{clientId}", clientId)
+                .then().statusCode(200)
+                .contentType(ContentType.JSON)
+                .body("$", hasSize(2))
+                .body("costAmount", containsInAnyOrder(100.00f, 250.50f));
+
+        given().accept(ContentType.JSON).queryParam("updateDate", LocalDate.now().minusDays(1).toString())
+                .when().get("/api/reactive/contracts/client/{clientId}", clientId)
+                .then().statusCode(200)
+                .body("$", empty());
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Should sum the active contracts")
+    void shouldSumActiveContracts() {
+        given().when().get("/api/reactive/contracts/client/{clientId}/sum", clientId)
+                .then().statusCode(200)
+                .body("totalCostAmount", equalTo(350.50f));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Should answer 404 as JSON for an unknown client")
+    void shouldReturnNotFoundForUnknownClient() {
+        given().accept("application/x-ndjson")
+                .when().get("/api/reactive/contracts/client/{clientId}", 999999)
+                .then().statusCode(404)
+                .contentType(ContentType.JSON)
+                .body("status", equalTo(404));
+
+        given().when().get("/api/reactive/contracts/client/{clientId}/sum", 999999)
+                .then().statusCode(404)
+                .contentType(ContentType.JSON);
+    }
+
+    private void createContract(LocalDate endDate, String costAmount) {
+        given().contentType(ContentType.JSON)
+                .body(new ContractDTO(null, clientId, null, endDate, new BigDecimal(costAmount)))
+                .when().post("/api/contracts").then().statusCode(201);
+    }
+}
@@ -0,0 +1,450 @@
+package com.insurance.integration;
+
+import com.insurance.dto.ClientBatchDTO;
+import com.insurance.dto.ClientUpdateDTO;
+import com.insurance.dto.ContractDTO;
+import com.insurance.dto.ContractUpdateDTO;
+import com.insurance.dto.JobRequestDTO;
+import com.insurance.dto.PersonDTO;
+import com.insurance.jobs.JobRunner;
+import com.insurance.leaderboard.PremiumLeaderboard;
+import com.insurance.models.JobType;
+import com.insurance.sharding.ShardRouter;
+import io.restassured.RestAssured;
+import io.restassured.http.ContentType;
+import org.junit.jupiter.api.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static io.restassured.RestAssured.given;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.*;
+
+/**
+ * Runs the application on two shards, kept as two schemas of one PostgreSQL database, and checks where rows
+ * land by reading the schemas directly.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@Testcontainers
+@TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+@DisplayName("Sharding - Integration Tests")
+class ShardingIntegrationTest {
+
+    private static final int SHARDS = 2;
+
+    @Container
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine")
+            .withDatabaseName("insurance_test")
+            .withUsername("test_user")
+            .withPassword("test_password")
+            .withInitScript("sharding-init.sql");
+
+    private static final List<Long> clientIds = new ArrayList<>();
+    private static final List<Long> contractIds = new ArrayList<>();
+
+    @LocalServerPort
+    private Integer port;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private PremiumLeaderboard leaderboard;
+
+    @DynamicPropertySource
+    static void configureProperties(DynamicPropertyRegistry registry) {
+        registry.add("insurance.sharding.enabled", () -> "true");
+        registry.add("insurance.sharding.initialize-schema", () -> "true");
+        for (int shard = 0; shard < SHARDS; shard++) {
+            String prefix = "insurance.sharding.shards[" + shard + "].";
+            String schema = "shard_" + shard;
+            registry.add(prefix + "url", () -> shardUrl(schema));
+            registry.add(prefix + "username", postgres::getUsername);
+            registry.add(prefix + "password", postgres::getPassword);
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        RestAssured.baseURI = "http://localhost:" + port;
+        RestAssured.enableLoggingOfRequestAndResponseIfValidationFails();
+    }
+
+    @Test
+    @Order(1)
+    @DisplayName("Should place clients by email on shards whose ids identify them")
+    void shouldPlaceClientsOnShards() {
+        for (int i = 0; i < 8; i++) {
+            String email = "client" + i + "@example.com";
+            long id = given()
+                    .contentType(ContentType.JSON)
+                    .body(new PersonDTO(null, "Sharded Client " + i, email, "+351912345678",
+                            LocalDate.of(1990, 1, 1)))
+                    .post("/api/clients")
+                    .then()
+                    .statusCode(201)
+                    .extract().jsonPath().getLong("id");
+            assertThat(shardRouter.shardOf(id)).isEqualTo(shardRouter.shardOfKey(email));
+            clientIds.add(id);
+        }
+
+        for (int shard = 0; shard < SHARDS; shard++) {
+            List<Long> ids = shard(shard).queryForList("SELECT id FROM clients", Long.class);
+            int expectedShard = shard;
+            assertThat(ids).isNotEmpty().allMatch(id -> shardRouter.shardOf(id) == expectedShard);
+        }
+        assertThat(countOnAllShards("clients")).isEqualTo(8);
+    }
+
+    @Test
+    @Order(2)
+    @DisplayName("Should keep upserts of the same client on its shard")
+    void shouldUpsertOnOwningShard() {
+        given()
+                .contentType(ContentType.JSON)
+                .body(new PersonDTO(null, "Renamed Client", "CLIENT0@example.com", "+351912345678",
+                        LocalDate.of(1990, 1, 1)))
+                .post("/api/clients?upsert=true")
+                .then()
+                .statusCode(200)
+                .body("id", equalTo(clientIds.getFirst().intValue()));
+
+        List<PersonDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            batch.add(new PersonDTO(null, "Bulk Client " + i, "client" + (i + 4) + "@example.com",
+                    "+351912345678", LocalDate.of(1990, 1, 1)));
+        }
+        given()
+                .contentType(ContentType.JSON)
+                .body(new ClientBatchDTO(List.copyOf(batch)))
+                .post("/api/clients/bulk")
+                .then()
+                .statusCode(200)
+                .body("created", equalTo(4))
+                .body("updated", equalTo(4));
+
+        assertThat(countOnAllShards("clients")).isEqualTo(12);
+    }
+
+    @Test
+    @Order(3)
+    @DisplayName("Should keep contracts on the shard of their client")
+    void shouldCreateContractsOnClientShard() {
+        for (Long clientId : clientIds) {
+            long contractId = given()
+                    .contentType(ContentType.JSON)
+                    .body(new ContractDTO(null, clientId, LocalDate.now().minusDays(1), null,
+                            new BigDecimal("100.00")))
+                    .post("/api/contracts")
+                    .then()
+                    .statusCode(201)
+                    .extract().jsonPath().getLong("id");
+            assertThat(shardRouter.shardOf(contractId)).isEqualTo(shardRouter.shardOf(clientId));
+            contractIds.add(contractId);
+        }
+
+        Long clientId = clientIds.get(1);
+        given()
+                .contentType(ContentType.JSON)
+                .body(new ContractUpdateDTO(new BigDecimal("150.00")))
+                .patch("/api/contracts/" + contractIds.get(1) + "/cost")
+                .then()
+                .statusCode(200)
+                .body("costAmount", equalTo(150.0f));
+        given()
+                .get("/api/contracts/client/" + clientId + "/sum")
+                .then()
+                .statusCode(200)
+                .body("totalCostAmount", equalTo(150.0f));
+    }
+
+    @Test
+    @Order(4)
+    @DisplayName("Should sum the portfolio and search clients across shards")
+    void shouldFanOutAcrossShards() {
+        given()
+                .get("/api/contracts/sum")
+                .then()
+                .statusCode(200)
+                .body("totalCostAmount", equalTo(850.0f));
+
+        List<Long> found = new ArrayList<>();
+        Long after = null;
+        do {
+            var page = given()
+                    .queryParam("nameContains", "client")
+                    .queryParam("size", 5)
+                    .queryParams(after == null ? Map.of() : Map.of("after", after))
+                    .get("/api/clients/search")
+                    .then()
+                    .statusCode(200)
+                    .extract().jsonPath();
+            found.addAll(page.getList("clients.id", Long.class));
+            after = page.getObject("nextAfter", Long.class);
+        } while (after != null);
+
+        assertThat(found).hasSize(12).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    @Order(5)
+    @DisplayName("Should export every shard into one file with a single header")
+    void shouldExportAllShards() throws Exception {
+        String name = given()
+                .post("/api/exports?dataset=contracts&format=csv")
+                .then()
+                .statusCode(202)
+                .extract().jsonPath().getString("name");
+        awaitCompleted(name);
+
+        byte[] file = given().get("/api/exports/" + name).then().statusCode(200).extract().asByteArray();
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(file))) {
+            List<String> lines = new String(in.readAllBytes(), StandardCharsets.UTF_8).lines().toList();
+            assertThat(lines.getFirst()).startsWith("id,client_id");
+            assertThat(lines).hasSize(1 + contractIds.size())
+                    .filteredOn(line -> line.startsWith("id,")).hasSize(1);
+        }
+    }
+
+    @Test
+    @Order(6)
+    @DisplayName("Should delete a client and its contracts on its shard")
+    void shouldDeleteOnOwningShard() {
+        Long clientId = clientIds.get(1);
+        given().delete("/api/clients/" + clientId).then().statusCode(204);
+
+        given().get("/api/clients/" + clientId).then().statusCode(404);
+        int shard = shardRouter.shardOf(clientId);
+        assertThat(shard(shard).queryForObject(
+                "SELECT COUNT(*) FROM contracts WHERE client_id = ?", Long.class, clientId)).isZero();
+        assertThat(countOnAllShards("clients")).isEqualTo(11);
+    }
+
+    @Test
+    @Order(7)
+    @DisplayName("Should run a bulk job over the contracts of every shard")
+    void shouldRunJobOnEveryShard() throws InterruptedException {
+        long active = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            active += shard(shard).queryForObject(
+                    "SELECT COUNT(*) FROM contracts WHERE end_date IS NULL OR end_date > CURRENT_DATE", Long.class);
+        }
+        float sum = given().get("/api/contracts/sum").then().statusCode(200)
+                .extract().jsonPath().getFloat("totalCostAmount");
+
+        int jobId = given()
+                .contentType(ContentType.JSON)
+                .body(new JobRequestDTO(JobType.REPRICE_CONTRACTS, new BigDecimal("2"), null, null))
+                .post("/api/jobs")
+                .then()
+                .statusCode(202)
+                .extract().path("id");
+        for (int attempt = 0; attempt < 100
+                && !"COMPLETED".equals(given().get("/api/jobs/" + jobId).path("status")); attempt++) {
+            Thread.sleep(100);
+        }
+
+        given().get("/api/jobs/" + jobId).then().statusCode(200)
+                .body("status", equalTo("COMPLETED"))
+                .body("processed", equalTo((int) active));
+        given().get("/api/contracts/sum").then().statusCode(200).body("totalCostAmount", equalTo(sum * 2));
+        assertThat(shard(JobRunner.JOBS_SHARD).queryForObject("SELECT COUNT(*) FROM jobs", Long.class)).isEqualTo(1);
+        assertThat(countOnAllShards("job_checkpoints")).isEqualTo(SHARDS);
+    }
+
+    @Test
+    @Order(8)
+    @DisplayName("Should fetch clients by ids from every shard")
+    void shouldGetClientsByIdsAcrossShards() {
+        // Client 1 was deleted.
+        List<Integer> ids = clientIds.stream().map(Long::intValue).toList();
+        String query = clientIds.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        given().get("/api/clients?ids=" + query)
+                .then()
+                .statusCode(200)
+                .body("clients.id", contains(ids.stream().filter(id -> id != ids.get(1)).toArray()))
+                .body("missingIds", contains(ids.get(1)));
+    }
+
+    @Test
+    @Order(9)
+    @DisplayName("Should list clients of every shard in one order, page by page")
+    void shouldListClientsAcrossShards() {
+        for (String sort : List.of("id", "name")) {
+            List<Integer> ids = new ArrayList<>();
+            List<String> names = new ArrayList<>();
+            String cursor = null;
+            do {
+                var page = given().queryParam("sort", sort).queryParam("size", 2)
+                        .queryParams(cursor != null ? Map.of("cursor", cursor) : Map.of())
+                        .get("/api/clients")
+                        .then().statusCode(200).extract().jsonPath();
+                ids.addAll(page.getList("clients.id"));
+                names.addAll(page.getList("clients.name", String.class).stream()
+                        .map(name -> name.toLowerCase(Locale.ROOT)).toList());
+                cursor = page.getString("nextCursor");
+            } while (cursor != null);
+
+            assertThat(ids).doesNotHaveDuplicates().hasSize((int) countOnAllShards("clients"));
+            if (sort.equals("id")) {
+                assertThat(ids).isSorted();
+            } else {
+                assertThat(names).isSorted();
+            }
+        }
+    }
+
+    @Test
+    @Order(10)
+    @DisplayName("Should recount the premium leaderboard from the top clients of every shard")
+    void shouldRecountLeaderboardAcrossShards() throws InterruptedException {
+        for (int i = 0; i < clientIds.size(); i++) {
+            given().contentType(ContentType.JSON)
+                    .body(new ContractDTO(null, clientIds.get(i), null, null, new BigDecimal(1000 + i * 10)))
+                    .post("/api/contracts")
+                    // Client 1 was deleted.
+                    .then().statusCode(anyOf(is(201), is(404)));
+        }
+        Map<Long, BigDecimal> premiums = new HashMap<>();
+        for (int shard = 0; shard < SHARDS; shard++) {
+            shard(shard).query("SELECT client_id, SUM(cost_amount) FROM contracts"
+                            + " WHERE end_date IS NULL OR end_date > CURRENT_DATE GROUP BY client_id",
+                    row -> {
+                        premiums.put(row.getLong(1), row.getBigDecimal(2));
+                    });
+        }
+        List<Long> expected = premiums.keySet().stream()
+                .sorted(Comparator.comparing((Long clientId) -> premiums.get(clientId), Comparator.reverseOrder())
+                        .thenComparing(Comparator.naturalOrder()))
+                .limit(5)
+                .toList();
+
+        var before = leaderboard.reconciledAt();
+        leaderboard.requestReconcile();
+        for (int attempt = 0; attempt < 100 && leaderboard.reconciledAt().equals(before); attempt++) {
+            Thread.sleep(100);
+        }
+
+        List<Long> ranked = given().queryParam("size", 5).get("/api/clients/leaderboard")
+                .then().statusCode(200).extract().jsonPath().getList("clients.clientId", Long.class);
+        assertThat(ranked).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @Order(11)
+    @DisplayName("Should keep a person on the shard of its email when the email changes")
+    void shouldRejectEmailChangeToAnotherShard() {
+        String email = emailOnShard(0, "mover");
+        long id = given().contentType(ContentType.JSON)
+                .body(new PersonDTO(null, "Moving Client", email, "+351912345678", LocalDate.of(1990, 1, 1)))
+                .post("/api/clients")
+                .then().statusCode(201).extract().jsonPath().getLong("id");
+
+        given().contentType(ContentType.JSON)
+                .body(new ClientUpdateDTO("Moving Client", emailOnShard(1, "moved"), "+351912345678"))
+                .put("/api/clients/{id}", id)
+                .then().statusCode(409);
+
+        String sameShard = emailOnShard(0, "moved");
+        given().contentType(ContentType.JSON)
+                .body(new ClientUpdateDTO("Moving Client", sameShard, "+351912345678"))
+                .put("/api/clients/{id}", id)
+                .then().statusCode(200).body("email", equalTo(sameShard));
+        // The new email is on the shard that enforces its uniqueness.
+        given().contentType(ContentType.JSON)
+                .body(new PersonDTO(null, "Other Client", sameShard, "+351912345678", LocalDate.of(1990, 1, 1)))
+                .post("/api/clients")
+                .then().statusCode(409);
+    }
+
+    @Test
+    @Order(12)
+    @DisplayName("Should report a bulk upsert rolled back on one shard and keep the other shard's clients")
+    void shouldReportPartialBulkUpsert() {
+        String kept = emailOnShard(0, "kept");
+        String broken = emailOnShard(1, "broken");
+        shard(1).execute("ALTER TABLE clients ADD CONSTRAINT clients_not_broken CHECK (name <> 'Broken Client')");
+        try {
+            given().contentType(ContentType.JSON)
+                    .body(new ClientBatchDTO(List.of(
+                            new PersonDTO(null, "Kept Client", kept, "+351912345678", LocalDate.of(1990, 1, 1)),
+                            new PersonDTO(null, "Broken Client", broken, "+351912345678", LocalDate.of(1990, 1, 1)))))
+                    .post("/api/clients/bulk")
+                    .then()
+                    .statusCode(200)
+                    .body("created", equalTo(1))
+                    .body("rejected", equalTo(1))
+                    .body("shards.shard", contains(0, 1))
+                    .body("shards.error", contains(nullValue(), equalTo("Rejected by the database")));
+        } finally {
+            shard(1).execute("ALTER TABLE clients DROP CONSTRAINT clients_not_broken");
+        }
+
+        assertThat(shard(0).queryForObject("SELECT COUNT(*) FROM clients WHERE email_key = ?", Long.class, kept))
+                .isEqualTo(1);
+        assertThat(shard(1).queryForObject("SELECT COUNT(*) FROM clients WHERE email_key = ?", Long.class, broken))
+                .isZero();
+    }
+
+    private String emailOnShard(int shard, String prefix) {
+        for (int i = 0; ; i++) {
+            String email = prefix + i + "@example.com";
+            if (shardRouter.shardOfKey(email) == shard) {
+                return email;
+            }
+        }
+    }
+
+    private static void awaitCompleted(String exportName) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            String status = given().get("/api/exports").jsonPath()
+                    .getString("find { it.name == '" + exportName + "' }.status");
+            if ("COMPLETED".equals(status)) {
+                return;
+            }
+            Thread.sleep(100);
+        }
+        throw new AssertionError("Export " + exportName + " did not complete");
+    }
+
+    private static long countOnAllShards(String table) {
+        long count = 0;
+        for (int shard = 0; shard < SHARDS; shard++) {
+            count += shard(shard).queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+        }
+        return count;
+    }
+
+    private static JdbcTemplate shard(int shard) {
+        return new JdbcTemplate(new DriverManagerDataSource(
+                shardUrl("shard_" + shard), postgres.getUsername(), postgres.getPassword()));
+    }
+
+    private static String shardUrl(String schema) {
+        String url = postgres.getJdbcUrl();
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + schema + ",public";
+    }
+}
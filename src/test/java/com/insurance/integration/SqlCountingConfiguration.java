@@ -0,0 +1,43 @@
+package com.insurance.integration;
+
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes the application's DataSource through a {@link SqlStatementCounter} so that integration tests can
+ * assert SQL budgets per endpoint.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class SqlCountingConfiguration {
+
+    @Bean
+    SqlStatementCounter sqlStatementCounter() {
+        return new SqlStatementCounter();
+    }
+
+    @Bean
+    static BeanPostProcessor sqlCountingDataSourcePostProcessor(
+            ObjectProvider<SqlStatementCounter> counter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                // Only the DataSource the application uses; wrapping the pools behind it would count twice.
+                if ("dataSource".equals(beanName) && bean instanceof DataSource dataSource) {
+                    SqlStatementCounter listener = counter.getObject();
+                    return ProxyDataSourceBuilder.create(dataSource)
+                            .name(beanName)
+                            .listener(listener)
+                            .methodListener(listener)
+                            .proxyResultSet()
+                            .build();
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,69 @@
+package com.insurance.integration;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts the statements executed and the result-set rows read through the application's DataSource, on
+ * every thread, so a test can measure what one HTTP request costs in database round trips. A JDBC batch
+ * counts as one statement.
+ */
+public class SqlStatementCounter implements QueryExecutionListener, MethodExecutionListener {
+
+    private final AtomicLong statements = new AtomicLong();
+    private final AtomicLong rows = new AtomicLong();
+    private final Queue<String> queries = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Runs the request and returns what it executed. Requests must not overlap with other database work.
+     */
+    public Counts measure(Runnable request) {
+        statements.set(0);
+        rows.set(0);
+        queries.clear();
+        request.run();
+        return new Counts(statements.get(), rows.get(), List.copyOf(queries));
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        statements.incrementAndGet();
+        queryInfoList.forEach(query -> queries.add(query.getQuery()));
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            rows.incrementAndGet();
+        }
+    }
+
+    /**
+     * @param queries the SQL of each statement, for assertion messages
+     */
+    public record Counts(long statements, long rows, List<String> queries) {
+        @Override
+        public String toString() {
+            return statements + " statements, " + rows + " rows:\n  " + String.join("\n  ", queries);
+        }
+    }
+}
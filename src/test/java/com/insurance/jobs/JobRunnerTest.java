@@ -0,0 +1,145 @@
+package com.insurance.jobs;
+
+import com.insurance.models.Job;
+import com.insurance.models.JobCheckpoint;
+import com.insurance.models.JobStatus;
+import com.insurance.models.JobType;
+import com.insurance.repository.ContractBulkRepository.BulkChunk;
+import com.insurance.repository.JobCheckpointRepository;
+import com.insurance.repository.JobRepository;
+import com.insurance.services.ContractService;
+import com.insurance.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Job Runner Unit Tests")
+class JobRunnerTest {
+
+    private static final Job.Parameters PARAMETERS = new Job.Parameters(new BigDecimal("1.1"), null, null);
+
+    private JobRepository jobRepository;
+    private JobCheckpointRepository checkpointRepository;
+    private ContractService contractService;
+    private JobRunner jobRunner;
+
+    @BeforeEach
+    void setUp() {
+        jobRepository = mock(JobRepository.class);
+        checkpointRepository = mock(JobCheckpointRepository.class);
+        contractService = mock(ContractService.class);
+        JobProperties properties = new JobProperties();
+        properties.setChunkSize(2);
+        jobRunner = new JobRunner(jobRepository, checkpointRepository, contractService, ShardRouter.unsharded(),
+                mock(PlatformTransactionManager.class), properties);
+
+        when(jobRepository.claim(eq(1L), anyString(), any(), any())).thenReturn(1);
+        when(jobRepository.findById(1L)).thenReturn(Optional.of(job(1L, JobType.REPRICE_CONTRACTS)));
+        when(jobRepository.heartbeat(eq(1L), anyString(), anyLong(), any())).thenReturn(1);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        jobRunner.destroy();
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpoint and complete once a chunk comes back short")
+    void shouldResumeFromCheckpoint() {
+        JobCheckpoint checkpoint = new JobCheckpoint(1L, 40L, 2L);
+        when(checkpointRepository.lockByJobId(1L)).thenReturn(Optional.of(checkpoint));
+        when(contractService.processBulkChunk(JobType.REPRICE_CONTRACTS, PARAMETERS, 40L, 2))
+                .thenReturn(new BulkChunk(2, 45L));
+        when(contractService.processBulkChunk(JobType.REPRICE_CONTRACTS, PARAMETERS, 45L, 2))
+                .thenReturn(new BulkChunk(1, 47L));
+
+        assertThat(jobRunner.run(1L)).isTrue();
+
+        assertThat(checkpoint).isEqualTo(new JobCheckpoint(1L, 47L, 5L));
+        verify(jobRepository).heartbeat(eq(1L), anyString(), eq(4L), any());
+        verify(jobRepository).heartbeat(eq(1L), anyString(), eq(5L), any());
+        verify(jobRepository).finish(eq(1L), anyString(), eq(JobStatus.COMPLETED), eq(5L), isNull(), any());
+    }
+
+    @Test
+    @DisplayName("Should stop without finishing the job once its lease is lost")
+    void shouldStopWhenLeaseLost() {
+        when(checkpointRepository.lockByJobId(1L)).thenReturn(Optional.empty());
+        when(contractService.processBulkChunk(any(), any(), anyLong(), anyInt())).thenReturn(new BulkChunk(2, 2L));
+        when(jobRepository.heartbeat(eq(1L), anyString(), anyLong(), any())).thenReturn(0);
+
+        assertThat(jobRunner.run(1L)).isTrue();
+
+        verify(contractService, times(1)).processBulkChunk(any(), any(), anyLong(), anyInt());
+        verify(checkpointRepository).save(new JobCheckpoint(1L, 2L, 2L));
+        verify(jobRepository, never()).finish(any(), any(), any(), anyLong(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Should record the failure of a chunk on the job")
+    void shouldMarkFailedJob() {
+        when(checkpointRepository.lockByJobId(1L)).thenReturn(Optional.empty());
+        when(contractService.processBulkChunk(any(), any(), anyLong(), anyInt()))
+                .thenThrow(new IllegalStateException("constraint violated"));
+
+        jobRunner.run(1L);
+
+        verify(jobRepository).finish(eq(1L), anyString(), eq(JobStatus.FAILED), eq(0L),
+                eq("constraint violated"), any());
+    }
+
+    @Test
+    @DisplayName("Should not run a job another instance holds")
+    void shouldSkipLeasedJob() {
+        when(jobRepository.claim(eq(1L), anyString(), any(), any())).thenReturn(0);
+
+        assertThat(jobRunner.run(1L)).isFalse();
+
+        verifyNoInteractions(contractService);
+    }
+
+    @Test
+    @DisplayName("Should run one job of a type at a time and leave the others to the next poll")
+    void shouldLimitConcurrencyPerType() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(checkpointRepository.lockByJobId(anyLong())).thenReturn(Optional.empty());
+        when(contractService.processBulkChunk(any(), any(), anyLong(), anyInt())).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return new BulkChunk(0, 0L);
+        });
+
+        jobRunner.dispatch(1L, JobType.REPRICE_CONTRACTS);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        jobRunner.dispatch(2L, JobType.REPRICE_CONTRACTS);
+        jobRunner.dispatch(1L, JobType.END_CONTRACTS);
+        release.countDown();
+
+        verify(jobRepository, timeout(5000)).finish(eq(1L), anyString(), eq(JobStatus.COMPLETED), eq(0L), isNull(),
+                any());
+        verify(jobRepository, never()).claim(eq(2L), anyString(), any(), any());
+        // The same job is never run twice by one instance, whatever its type permits.
+        verify(jobRepository, times(1)).claim(eq(1L), anyString(), any(), any());
+    }
+
+    private static Job job(Long id, JobType type) {
+        Job job = new Job();
+        job.setId(id);
+        job.setType(type);
+        job.setStatus(JobStatus.RUNNING);
+        job.setParameters(PARAMETERS);
+        return job;
+    }
+}
@@ -0,0 +1,120 @@
+package com.insurance.leaderboard;
+
+import com.insurance.dto.ClientPremiumDTO;
+import com.insurance.repository.ContractRepository;
+import com.insurance.sharding.ShardRouter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Premium Leaderboard Unit Tests")
+class PremiumLeaderboardTest {
+
+    private ContractRepository contractRepository;
+    private PremiumLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        contractRepository = mock(ContractRepository.class);
+        LeaderboardProperties properties = new LeaderboardProperties();
+        properties.setSize(2);
+        properties.setCapacity(3);
+        leaderboard = new PremiumLeaderboard(contractRepository, ShardRouter.unsharded(),
+                mock(PlatformTransactionManager.class), properties);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        leaderboard.destroy();
+    }
+
+    @Test
+    @DisplayName("Should move clients by the premium their writes add or remove")
+    void shouldApplyWrites() {
+        recount(premium(1L, "300"), premium(2L, "200"));
+
+        leaderboard.apply(2L, new BigDecimal("150"));
+        leaderboard.apply(3L, new BigDecimal("50"));
+        leaderboard.remove(1L);
+
+        // Every client with a premium fits: a client not on the board had none.
+        assertThat(leaderboard.top(5)).containsExactly(premium(2L, "350"), premium(3L, "50"));
+        assertThat(leaderboard.reconciledAt()).isNotNull();
+        verify(contractRepository, never()).sumActivePremiumsByClientIds(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should sum a client below the threshold again when its premium grows")
+    void shouldRefreshClientsBelowThreshold() {
+        recount(premium(1L, "400"), premium(2L, "300"), premium(3L, "200"), premium(4L, "100"));
+        when(contractRepository.sumActivePremiumsByClientIds(eq(List.of(5L)), any()))
+                .thenReturn(List.of(premium(5L, "350")));
+
+        leaderboard.apply(5L, new BigDecimal("250"));
+        leaderboard.apply(6L, new BigDecimal("-10"));
+
+        verify(contractRepository, timeout(1000)).sumActivePremiumsByClientIds(eq(List.of(5L)), any());
+        await(() -> assertThat(leaderboard.top(2)).containsExactly(premium(1L, "400"), premium(5L, "350")));
+        verify(contractRepository, times(1)).sumActivePremiumsByClientIds(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should recount once fewer clients than served are left above the threshold")
+    void shouldRecountWhenBoardRunsShort() {
+        recount(premium(1L, "400"), premium(2L, "300"), premium(3L, "200"), premium(4L, "100"));
+
+        leaderboard.apply(1L, new BigDecimal("-350"));
+        leaderboard.apply(2L, new BigDecimal("-250"));
+
+        verify(contractRepository, timeout(1000).times(2)).findTopActivePremiums(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should sum again the clients written during a recount instead of keeping their count")
+    void shouldRefreshClientsWrittenDuringRecount() {
+        when(contractRepository.findTopActivePremiums(any(), any())).thenAnswer(invocation -> {
+            // Committed after the count read client 1.
+            leaderboard.apply(1L, new BigDecimal("100"));
+            return List.of(premium(1L, "300"), premium(2L, "200"));
+        });
+        when(contractRepository.sumActivePremiumsByClientIds(eq(List.of(1L)), any()))
+                .thenReturn(List.of(premium(1L, "400")));
+
+        leaderboard.reconcile();
+
+        await(() -> assertThat(leaderboard.top(2)).containsExactly(premium(1L, "400"), premium(2L, "200")));
+    }
+
+    private void recount(ClientPremiumDTO... top) {
+        when(contractRepository.findTopActivePremiums(any(), any())).thenReturn(List.of(top));
+        leaderboard.reconcile();
+    }
+
+    private static ClientPremiumDTO premium(Long clientId, String activePremium) {
+        return new ClientPremiumDTO(clientId, new BigDecimal(activePremium));
+    }
+
+    private static void await(Runnable assertion) {
+        long deadline = System.nanoTime() + 1_000_000_000L;
+        while (true) {
+            try {
+                assertion.run();
+                return;
+            } catch (AssertionError e) {
+                if (System.nanoTime() > deadline) {
+                    throw e;
+                }
+                Thread.onSpinWait();
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.insurance.limiter;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Adaptive Concurrency Limiter Unit Tests")
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long FAST = 2_000_000L;
+    private static final long SLOW = 50_000_000L;
+
+    @Test
+    @DisplayName("Should reject requests beyond the current limit")
+    void shouldRejectBeyondLimit() {
+        var limiter = new AdaptiveConcurrencyLimiter("read", 2, 1, 10, 2.0, 0.2, 100);
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isTrue();
+        assertThat(limiter.tryAcquire()).isFalse();
+        assertThat(limiter.getRejected()).isEqualTo(1);
+
+        limiter.release();
+        assertThat(limiter.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should shrink the limit when database latency rises")
+    void shouldShrinkWhenLatencyRises() {
+        var limiter = new AdaptiveConcurrencyLimiter("read", 50, 4, 100, 2.0, 0.5, 10_000);
+        saturate(limiter, FAST, 20);
+        int healthyLimit = limiter.getLimit();
+
+        saturate(limiter, SLOW, 3);
+
+        assertThat(limiter.getLimit()).isLessThan(healthyLimit).isGreaterThanOrEqualTo(4);
+        assertThat(limiter.retryAfterSeconds()).isGreaterThanOrEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should grow the limit while latency stays at baseline under full load")
+    void shouldGrowWhileLatencyIsHealthy() {
+        var limiter = new AdaptiveConcurrencyLimiter("write", 10, 2, 100, 2.0, 0.5, 100);
+
+        saturate(limiter, FAST, 20);
+
+        assertThat(limiter.getLimit()).isGreaterThan(10).isLessThanOrEqualTo(100);
+    }
+
+    @Test
+    @DisplayName("Should reject inconsistent limits")
+    void shouldRejectInvalidLimits() {
+        assertThatThrownBy(() -> new AdaptiveConcurrencyLimiter("read", 1, 5, 10, 2.0, 0.2, 100))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void saturate(AdaptiveConcurrencyLimiter limiter, long latencyNanos, int rounds) {
+        for (int round = 0; round < rounds; round++) {
+            int acquired = 0;
+            while (limiter.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limiter.release(latencyNanos);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package com.insurance.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.insurance.dto.BulkUpsertResultDTO;
+import com.insurance.dto.ClientDTO;
+import com.insurance.dto.ClientImportResultDTO;
+import com.insurance.dto.CompanyDTO;
+import com.insurance.dto.PersonDTO;
+import com.insurance.dto.ShardUpsertResultDTO;
+import com.insurance.services.ClientImportService;
+import com.insurance.services.ClientService;
+import com.insurance.sharding.ShardRouter;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Client Import Service Unit Tests")
+class ClientImportServiceTest {
+
+    private ClientService clientService;
+    private ShardRouter shardRouter;
+    private ClientImportService importService;
+
+    @BeforeEach
+    void setUp() {
+        clientService = mock(ClientService.class);
+        shardRouter = mock(ShardRouter.class);
+        when(clientService.upsertClients(anyList())).thenAnswer(invocation -> {
+            List<ClientDTO> clients = invocation.getArgument(0);
+            return new BulkUpsertResultDTO(clients.size(), 0, clients.size(), 0, 0, List.of());
+        });
+        importService = new ClientImportService(clientService, shardRouter,
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    @Test
+    @DisplayName("Should import valid CSV rows and report invalid ones by line")
+    @SuppressWarnings("unchecked")
+    void shouldImportCsv() throws Exception {
+        String csv = """
+                companyIdentifier,type,name,email,phone,birthdate
+                ,PERSON,"Doe, John",john@example.com,+33612345678,1990-05-15
+                abc-123,company,Tech Corp,contact@techcorp.com,+33698765432,
+                ,PERSON,X,not-an-email,+33612345679,1990-05-15
+                ,ROBOT,R2,r2@example.com,+33612345670,
+                ,PERSON,Jane,jane@example.com,+33612345671,15/05/1990
+                """;
+
+        ClientImportResultDTO result = importService.importCsv(stream(csv));
+
+        assertThat(result.received()).isEqualTo(5);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.invalid()).isEqualTo(3);
+        assertThat(result.errors()).extracting(ClientImportResultDTO.RowError::line).containsExactly(4L, 5L, 6L);
+        assertThat(result.errors().getFirst().errors())
+                .containsExactly("email: Email must be valid", "name: Name must be between 2 and 100 characters");
+        assertThat(result.errors().get(1).errors()).containsExactly("type: Type must be PERSON or COMPANY");
+        assertThat(result.errors().get(2).errors()).containsExactly("birthdate: Birthdate must be a date (yyyy-MM-dd)");
+
+        ArgumentCaptor<List<ClientDTO>> imported = ArgumentCaptor.forClass(List.class);
+        verify(clientService).upsertClients(imported.capture());
+        assertThat(imported.getValue()).containsExactly(
+                new PersonDTO(null, "Doe, John", "john@example.com", "+33612345678", LocalDate.of(1990, 5, 15)),
+                new CompanyDTO(null, "Tech Corp", "contact@techcorp.com", "+33698765432", "abc-123"));
+    }
+
+    @Test
+    @DisplayName("Should reject a CSV without the required columns")
+    void shouldRejectMissingColumns() {
+        assertThatThrownBy(() -> importService.importCsv(stream("name,email\nJohn,john@example.com\n")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("CSV header is missing columns: type, phone");
+        verifyNoInteractions(clientService);
+    }
+
+    @Test
+    @DisplayName("Should import NDJSON in chunks and keep going past malformed lines")
+    void shouldImportNdjsonInChunks() throws Exception {
+        StringBuilder ndjson = new StringBuilder();
+        for (int i = 0; i < 12_000; i++) {
+            ndjson.append("{\"type\":\"PERSON\",\"name\":\"Person ").append(i).append("\",\"email\":\"p")
+                    .append(i).append("@example.com\",\"phone\":\"+336").append(10_000_000 + i)
+                    .append("\",\"birthdate\":\"1990-01-01\"}\n");
+        }
+        ndjson.append("\n{\"type\":\"PERSON\",\n");
+
+        ClientImportResultDTO result = importService.importNdjson(stream(ndjson.toString()));
+
+        assertThat(result.received()).isEqualTo(12_001);
+        assertThat(result.created()).isEqualTo(12_000);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(12_002);
+            assertThat(error.errors().getFirst()).startsWith("Malformed row");
+        });
+        verify(clientService, times(3)).upsertClients(anyList());
+    }
+
+    @Test
+    @DisplayName("Should upsert a rejected chunk row by row and report the rows the database rejects")
+    void shouldReportRowsRejectedByDatabase() throws Exception {
+        DataIntegrityViolationException uniqueViolation = new DataIntegrityViolationException("duplicate key",
+                new SQLException("duplicate key value violates unique constraint", "23505"));
+        when(clientService.upsertClients(anyList())).thenAnswer(invocation -> {
+            List<ClientDTO> clients = invocation.getArgument(0);
+            if (clients.stream().anyMatch(client -> client.email().equals("taken@example.com"))) {
+                throw uniqueViolation;
+            }
+            return new BulkUpsertResultDTO(clients.size(), 0, clients.size(), 0, 0, List.of());
+        });
+        String ndjson = """
+                {"type":"PERSON","name":"First","email":"first@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                {"type":"PERSON","name":"Taken","email":"taken@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                {"type":"PERSON","name":"Last","email":"last@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                """;
+
+        ClientImportResultDTO result = importService.importNdjson(stream(ndjson));
+
+        assertThat(result.received()).isEqualTo(3);
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(2);
+            assertThat(error.errors()).containsExactly("Conflicts with an existing client");
+        });
+        verify(clientService, times(4)).upsertClients(anyList());
+    }
+
+    @Test
+    @DisplayName("Should upsert again only the rows of a shard that rolled the chunk back")
+    void shouldRetryRowsOfFailedShard() throws Exception {
+        when(shardRouter.shardOfKey(anyString())).thenAnswer(invocation ->
+                invocation.<String>getArgument(0).equals("broken@example.com") ? 1 : 0);
+        when(clientService.upsertClients(anyList())).thenAnswer(invocation -> {
+            List<ClientDTO> clients = invocation.getArgument(0);
+            if (clients.size() == 1) {
+                throw new DataIntegrityViolationException("check violated",
+                        new SQLException("new row violates check constraint", "23514"));
+            }
+            return new BulkUpsertResultDTO(3, 0, 2, 0, 1, List.of(
+                    new ShardUpsertResultDTO(0, 2, 0, 2, 0, 0, null),
+                    new ShardUpsertResultDTO(1, 1, 0, 0, 0, 1, "Rejected by the database")));
+        });
+        String ndjson = """
+                {"type":"PERSON","name":"First","email":"first@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                {"type":"PERSON","name":"Broken","email":"broken@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                {"type":"PERSON","name":"Last","email":"last@example.com","phone":"+33612345678","birthdate":"1990-01-01"}
+                """;
+
+        ClientImportResultDTO result = importService.importNdjson(stream(ndjson));
+
+        assertThat(result.created()).isEqualTo(2);
+        assertThat(result.rejected()).isEqualTo(1);
+        assertThat(result.errors()).singleElement().satisfies(error -> {
+            assertThat(error.line()).isEqualTo(2);
+            assertThat(error.errors()).containsExactly("Rejected by the database");
+        });
+        verify(clientService).upsertClients(List.of(
+                new PersonDTO(null, "Broken", "broken@example.com", "+33612345678", LocalDate.of(1990, 1, 1))));
+        verify(clientService, times(2)).upsertClients(anyList());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,11 +1,19 @@
 package com.insurance.service;
 
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.datasource.ReadYourWritesTracker;
 import com.insurance.dto.*;
+import com.insurance.exception.ResourceConflictException;
 import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.leaderboard.PremiumLeaderboard;
 import com.insurance.models.*;
 import com.insurance.repository.ClientRepository;
+import com.insurance.repository.ClientSearchRepository.ListedClient;
+import com.insurance.repository.ClientUpsertRepository.UpsertedClient;
 import com.insurance.repository.ContractRepository;
 import com.insurance.services.ClientService;
+import com.insurance.sharding.ShardResult;
+import com.insurance.sharding.ShardRouter;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
@@ -14,12 +22,17 @@ import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
 
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.util.Collections;
+import java.util.Base64;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.IntFunction;
 import java.util.stream.Stream;
 
 import static com.insurance.TestHelper.*;
@@ -38,6 +51,18 @@ class ClientServiceTest {
     @Mock
     private ContractRepository contractRepository;
 
+    @Mock
+    private ReadYourWritesTracker readYourWrites;
+
+    @Spy
+    private ShardRouter shardRouter = ShardRouter.unsharded();
+
+    @Mock
+    private PremiumLeaderboard leaderboard;
+
+    @Mock
+    private LiveClientIds liveClientIds;
+
     @InjectMocks
     private ClientService clientService;
 
@@ -204,6 +229,71 @@ class ClientServiceTest {
             verify(clientRepository).findById(invalidId);
         }
 
+        @Test
+        @Order(4)
+        @DisplayName("Should get clients by ids in request order and list the missing ones")
+        void shouldGetClientsByIds() {
+            var person = createPersonEntity();
+            var company = createCompanyEntity();
+            company.setId(3L);
+            when(clientRepository.findAllByIds(List.of(3L, 2L, 1L))).thenReturn(List.of(person, company));
+
+            var result = clientService.getClients(List.of(3L, 2L, 1L, 3L));
+
+            assertThat(result.clients()).extracting(ClientDTO::id).containsExactly(3L, 1L);
+            assertThat(result.clients().getFirst()).isInstanceOf(CompanyDTO.class);
+            assertThat(result.clients().getLast()).isInstanceOf(PersonDTO.class);
+            assertThat(result.missingIds()).containsExactly(2L);
+            verify(clientRepository, times(1)).findAllByIds(any());
+        }
+
+        @Test
+        @Order(5)
+        @DisplayName("Should reject empty or oversized id lists")
+        void shouldRejectInvalidIdLists() {
+            var tooMany = Stream.iterate(1L, id -> id + 1).limit(ClientService.MAX_BATCH_IDS + 1).toList();
+
+            assertThatThrownBy(() -> clientService.getClients(List.of()))
+                    .isInstanceOf(IllegalArgumentException.class);
+            assertThatThrownBy(() -> clientService.getClients(tooMany))
+                    .isInstanceOf(IllegalArgumentException.class);
+            verifyNoInteractions(clientRepository);
+        }
+
+        @Test
+        @Order(6)
+        @DisplayName("Should serve the premium leaderboard from memory")
+        void shouldGetPremiumLeaderboard() {
+            var top = List.of(new ClientPremiumDTO(TEST_CLIENT_ID, new BigDecimal("300.00")));
+            when(leaderboard.maxSize()).thenReturn(100);
+            when(leaderboard.top(10)).thenReturn(top);
+
+            var result = clientService.getPremiumLeaderboard(10);
+
+            assertThat(result.clients()).isEqualTo(top);
+            assertThatThrownBy(() -> clientService.getPremiumLeaderboard(101))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining("size must be between 1 and 100");
+            verifyNoInteractions(clientRepository);
+        }
+
+        @Test
+        @Order(7)
+        @DisplayName("Should reject clients known to be absent without querying them")
+        void shouldRejectKnownAbsentClients() {
+            when(liveClientIds.isKnownAbsent(2L)).thenReturn(true);
+            when(clientRepository.findAllByIds(List.of(1L))).thenReturn(List.of(createPersonEntity()));
+
+            assertThatThrownBy(() -> clientService.getClient(2L))
+                    .isInstanceOf(ResourceNotFoundException.class)
+                    .hasMessageContaining("Client not found with id: 2");
+            var result = clientService.getClients(List.of(1L, 2L));
+
+            assertThat(result.clients()).extracting(ClientDTO::id).containsExactly(TEST_CLIENT_ID);
+            assertThat(result.missingIds()).containsExactly(2L);
+            verify(clientRepository, never()).findById(any());
+        }
+
         static Stream<Arguments> invalidClientIds() {
             return Stream.of(
                     Arguments.of(999L, "Client not found with id: 999"),
@@ -326,6 +416,23 @@ class ClientServiceTest {
                             client.getEmail().equals(existingPerson.getEmail())
             ));
         }
+
+        @Test
+        @Order(5)
+        @DisplayName("Should reject an email that would place the person on another shard")
+        void shouldRejectEmailOfAnotherShard() {
+
+            var updateDTO = new ClientUpdateDTO("John Doe", "Moved@Example.com", TEST_PHONE);
+            when(clientRepository.findById(TEST_CLIENT_ID)).thenReturn(Optional.of(createPersonEntity()));
+            doReturn(1).when(shardRouter).shardOfKey("moved@example.com");
+
+
+            assertThatThrownBy(() -> clientService.updateClient(TEST_CLIENT_ID, updateDTO))
+                    .isInstanceOf(ResourceConflictException.class)
+                    .hasMessageContaining("another shard");
+
+            verify(clientRepository, never()).save(any());
+        }
     }
 
     @Nested
@@ -335,31 +442,21 @@ class ClientServiceTest {
 
         @Test
         @Order(1)
-        @DisplayName("Should delete client and update active contract end dates")
+        @DisplayName("Should delete client and its contracts in one statement")
         void shouldDeleteClientAndUpdateContractEndDates() {
             
             var client = createPersonEntity();
-            var activeContract1 = createContract(1L, client, null); // No end date
-            var activeContract2 = createContract(2L, client, LocalDate.now().plusMonths(6));
-            var expiredContract = createContract(3L, client, LocalDate.now().minusDays(1));
-
-            var contracts = List.of(activeContract1, activeContract2, expiredContract);
 
             when(clientRepository.findById(TEST_CLIENT_ID)).thenReturn(Optional.of(client));
-            when(contractRepository.findByClientId(TEST_CLIENT_ID)).thenReturn(contracts);
-            doNothing().when(clientRepository).delete(client);
 
             
             clientService.deleteClient(TEST_CLIENT_ID);
 
             
-            assertThat(activeContract1.getEndDate()).isEqualTo(LocalDate.now());
-            assertThat(activeContract2.getEndDate()).isEqualTo(LocalDate.now());
-            assertThat(expiredContract.getEndDate()).isEqualTo(LocalDate.now().minusDays(1)); // Unchanged
-
-            verify(clientRepository).findById(TEST_CLIENT_ID);
-            verify(contractRepository).findByClientId(TEST_CLIENT_ID);
-            verify(clientRepository).delete(client);
+            verify(clientRepository).deleteWithContracts(TEST_CLIENT_ID);
+            verify(leaderboard).clientDeleted(TEST_CLIENT_ID);
+            verifyNoInteractions(contractRepository);
+            verify(clientRepository, never()).delete(any());
         }
 
         @Test
@@ -370,14 +467,13 @@ class ClientServiceTest {
             var client = createPersonEntity();
 
             when(clientRepository.findById(TEST_CLIENT_ID)).thenReturn(Optional.of(client));
-            when(contractRepository.findByClientId(TEST_CLIENT_ID)).thenReturn(Collections.emptyList());
 
             
             assertThatCode(() -> clientService.deleteClient(TEST_CLIENT_ID))
                     .doesNotThrowAnyException();
 
             
-            verify(clientRepository).delete(client);
+            verify(clientRepository).deleteWithContracts(TEST_CLIENT_ID);
         }
 
         @Test
@@ -392,32 +488,270 @@ class ClientServiceTest {
                     .isInstanceOf(ResourceNotFoundException.class)
                     .hasMessageContaining("Client not found with id: 999");
 
-            verify(clientRepository, never()).delete(any());
+            verify(clientRepository, never()).deleteWithContracts(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Upsert Client Tests")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    class UpsertClientTests {
+
+        @Test
+        @Order(1)
+        @DisplayName("Should report whether the upserted client was created")
+        void shouldUpsertPerson() {
+
+            var person = createPersonEntity();
+            when(clientRepository.upsertPersons(anyList())).thenReturn(List.of(new UpsertedClient(person, false)));
+
+
+            var result = clientService.upsertClient(createValidPersonDTO(null));
+
+
+            assertThat(result.created()).isFalse();
+            assertThat(result.client().id()).isEqualTo(TEST_CLIENT_ID);
+            verify(clientRepository, never()).save(any());
+            verify(readYourWrites).recordWrite(TEST_CLIENT_ID);
+        }
+
+        @Test
+        @Order(3)
+        @DisplayName("Should collapse duplicate keys of a batch before upserting")
+        void shouldDeduplicateBatch() {
+
+            var first = new PersonDTO(null, "First", "Same@Example.com", TEST_PHONE, LocalDate.of(1990, 1, 1));
+            var last = new PersonDTO(null, "Last", "same@example.com", TEST_PHONE, LocalDate.of(1990, 1, 1));
+            var company = createValidCompanyDTO(null);
+            var sameCompany = createValidCompanyDTO(null);
+
+            when(clientRepository.upsertPersons(anyList())).thenAnswer(invocation -> {
+                List<Person> persons = invocation.getArgument(0);
+                return persons.stream().map(person -> new UpsertedClient(person, true)).toList();
+            });
+            when(clientRepository.upsertCompanies(anyList())).thenAnswer(invocation -> {
+                List<Company> companies = invocation.getArgument(0);
+                return companies.stream().map(c -> new UpsertedClient(c, false)).toList();
+            });
+
+
+            var result = clientService.upsertClients(List.of(first, company, last, sameCompany));
+
+
+            assertThat(result).isEqualTo(new BulkUpsertResultDTO(4, 2, 1, 1, 0,
+                    List.of(new ShardUpsertResultDTO(0, 4, 2, 1, 1, 0, null))));
+            verify(clientRepository).upsertPersons(argThat(persons ->
+                    persons.size() == 1 && persons.getFirst().getName().equals("Last")));
+            verify(clientRepository).upsertCompanies(argThat(companies -> companies.size() == 1));
         }
 
         @Test
         @Order(4)
-        @DisplayName("Should only update contracts with future or null end dates")
-        void shouldOnlyUpdateActiveContracts() {
-            
-            var client = createPersonEntity();
-            var futureContract = createContract(1L, client, LocalDate.now().plusYears(1));
-            var pastContract = createContract(2L, client, LocalDate.now().minusYears(1));
-            var todayContract = createContract(3L, client, LocalDate.now());
+        @DisplayName("Should report a failed shard and keep the clients of the others")
+        void shouldReportFailedShard() {
+
+            var kept = new PersonDTO(null, "Kept", "kept@example.com", TEST_PHONE, LocalDate.of(1990, 1, 1));
+            var lost = new PersonDTO(null, "Lost", "lost@example.com", TEST_PHONE, LocalDate.of(1990, 1, 1));
+            var keptPerson = createPersonEntity();
+            doReturn(2).when(shardRouter).shardCount();
+            doReturn(0).when(shardRouter).shardOfKey("kept@example.com");
+            doReturn(1).when(shardRouter).shardOfKey("lost@example.com");
+            when(clientRepository.upsertPersons(anyList())).thenReturn(List.of(new UpsertedClient(keptPerson, true)));
+            doAnswer(invocation -> {
+                IntFunction<List<UpsertedClient>> work = invocation.getArgument(1);
+                return List.of(new ShardResult<>(0, work.apply(0), null),
+                        new ShardResult<>(1, null, new DataIntegrityViolationException("check violated")));
+            }).when(shardRouter).onEachShardSettled(eq(false), any());
+
+
+            var result = clientService.upsertClients(List.of(kept, lost));
+
+
+            assertThat(result).isEqualTo(new BulkUpsertResultDTO(2, 0, 1, 0, 1, List.of(
+                    new ShardUpsertResultDTO(0, 1, 0, 1, 0, 0, null),
+                    new ShardUpsertResultDTO(1, 1, 0, 0, 0, 1, "Rejected by the database"))));
+            verify(clientRepository).upsertPersons(argThat(persons ->
+                    persons.size() == 1 && persons.getFirst().getName().equals("Kept")));
+            verify(readYourWrites).recordWrite(TEST_CLIENT_ID);
+            verify(liveClientIds).clientCreated(TEST_CLIENT_ID);
+        }
 
-            when(clientRepository.findById(TEST_CLIENT_ID)).thenReturn(Optional.of(client));
-            when(contractRepository.findByClientId(TEST_CLIENT_ID))
-                    .thenReturn(List.of(futureContract, pastContract, todayContract));
+        @Test
+        @Order(5)
+        @DisplayName("Should throw when every shard holding clients of the batch failed")
+        void shouldThrowWhenNothingWasWritten() {
 
-            
-            clientService.deleteClient(TEST_CLIENT_ID);
+            var lost = new PersonDTO(null, "Lost", "lost@example.com", TEST_PHONE, LocalDate.of(1990, 1, 1));
+            doReturn(2).when(shardRouter).shardCount();
+            doReturn(1).when(shardRouter).shardOfKey("lost@example.com");
+            doReturn(List.of(new ShardResult<>(0, List.of(), null),
+                    new ShardResult<>(1, null, new DataIntegrityViolationException("check violated"))))
+                    .when(shardRouter).onEachShardSettled(eq(false), any());
 
-            
-            assertThat(futureContract.getEndDate()).isEqualTo(LocalDate.now());
-            assertThat(pastContract.getEndDate()).isEqualTo(LocalDate.now().minusYears(1));
-            assertThat(todayContract.getEndDate()).isEqualTo(LocalDate.now());
+
+            assertThatThrownBy(() -> clientService.upsertClients(List.of(lost)))
+                    .isInstanceOf(DataIntegrityViolationException.class)
+                    .hasMessage("check violated");
+
+            verifyNoInteractions(readYourWrites, liveClientIds);
         }
     }
 
+    @Nested
+    @DisplayName("Search Client Tests")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    class SearchClientTests {
+
+        @Test
+        @Order(1)
+        @DisplayName("Should return a page and the cursor of the next one")
+        void shouldReturnPageWithNextCursor() {
+
+            var criteria = new ClientSearchCriteria(null, null, null, "jo", null);
+            var first = createPersonEntity();
+            var second = createCompanyEntity();
+            second.setId(2L);
+            var third = createPersonEntity();
+            third.setId(3L);
+
+            when(clientRepository.search(criteria, null, 3)).thenReturn(List.of(first, second, third));
+
+
+            var result = clientService.searchClients(criteria, null, 2);
+
 
+            assertThat(result.clients())
+                    .extracting(ClientDTO::id)
+                    .containsExactly(TEST_CLIENT_ID, 2L);
+            assertThat(result.nextAfter()).isEqualTo(2L);
+        }
+
+        @Test
+        @Order(2)
+        @DisplayName("Should not return a cursor on the last page")
+        void shouldNotReturnCursorOnLastPage() {
+
+            var criteria = new ClientSearchCriteria(TEST_EMAIL, null, null, null, null);
+            when(clientRepository.search(criteria, 10L, 21)).thenReturn(List.of(createPersonEntity()));
+
+
+            var result = clientService.searchClients(criteria, 10L, 20);
+
+
+            assertThat(result.clients()).hasSize(1);
+            assertThat(result.nextAfter()).isNull();
+        }
+
+        @ParameterizedTest
+        @MethodSource("invalidSearches")
+        @DisplayName("Should reject searches the indexes cannot serve")
+        void shouldRejectInvalidSearches(ClientSearchCriteria criteria, int size, String expectedMessage) {
+
+            assertThatThrownBy(() -> clientService.searchClients(criteria, null, size))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(expectedMessage);
+
+            verifyNoInteractions(clientRepository);
+        }
+
+        static Stream<Arguments> invalidSearches() {
+            return Stream.of(
+                    Arguments.of(new ClientSearchCriteria(null, null, null, null, null), 20,
+                            "At least one search criterion is required"),
+                    Arguments.of(new ClientSearchCriteria(null, null, null, null, "ab"), 20,
+                            "nameContains must have at least 3 characters"),
+                    Arguments.of(new ClientSearchCriteria(null, TEST_PHONE, null, null, null), 0,
+                            "size must be between 1 and 100"),
+                    Arguments.of(new ClientSearchCriteria(null, TEST_PHONE, null, null, null), 101,
+                            "size must be between 1 and 100")
+            );
+        }
+    }
+
+    @Nested
+    @DisplayName("List Client Tests")
+    @TestMethodOrder(MethodOrderer.OrderAnnotation.class)
+    class ListClientTests {
+
+        @Test
+        @Order(1)
+        @DisplayName("Should page by name and resume after the last client of the page")
+        void shouldPageByName() {
+
+            var criteria = new ClientListCriteria("company", "a", true);
+            var expected = new ClientListCriteria("COMPANY", "a", true);
+            var first = createCompanyEntity();
+            first.setId(7L);
+            first.setName("Acme");
+            var second = createCompanyEntity();
+            second.setId(3L);
+            second.setName("acme");
+            var third = createCompanyEntity();
+            third.setId(5L);
+            third.setName("Ajax");
+            when(clientRepository.list(eq(expected), eq(ClientListCriteria.Sort.NAME), isNull(), isNull(),
+                    any(LocalDate.class), eq(3))).thenReturn(List.of(
+                    new ListedClient(first, "acme"), new ListedClient(second, "acme"), new ListedClient(third, "ajax")));
+            when(clientRepository.list(eq(expected), eq(ClientListCriteria.Sort.NAME), eq(7L), eq("Acme"),
+                    any(LocalDate.class), eq(3))).thenReturn(List.of(new ListedClient(third, "ajax")));
+
+
+            var page = clientService.listClients(criteria, "name", null, 2);
+            var next = clientService.listClients(criteria, "NAME", page.nextCursor(), 2);
+
+
+            assertThat(page.clients()).extracting(ClientDTO::id).containsExactly(3L, 7L);
+            assertThat(page.nextCursor()).isNotNull();
+            assertThat(next.clients()).extracting(ClientDTO::id).containsExactly(5L);
+            assertThat(next.nextCursor()).isNull();
+        }
+
+        @Test
+        @Order(2)
+        @DisplayName("Should merge pages by the name key the database sorted by")
+        void shouldMergeByDatabaseNameKey() {
+
+            var upper = createPersonEntity();
+            upper.setId(1L);
+            upper.setName("Ézio");
+            var lower = createPersonEntity();
+            lower.setId(2L);
+            lower.setName("éb");
+            // With an ASCII-only LC_CTYPE, lower() leaves 'É' as is, and 'É' sorts before 'é' in the C collation.
+            when(clientRepository.list(any(), eq(ClientListCriteria.Sort.NAME), isNull(), isNull(),
+                    any(LocalDate.class), eq(3))).thenReturn(List.of(
+                    new ListedClient(upper, "Ézio"), new ListedClient(lower, "éb")));
+
+
+            var page = clientService.listClients(new ClientListCriteria(null, null, null), "name", null, 2);
+
+
+            assertThat(page.clients()).extracting(ClientDTO::id).containsExactly(1L, 2L);
+        }
+
+        @ParameterizedTest
+        @MethodSource("invalidListings")
+        @DisplayName("Should reject unknown types, sorts and cursors")
+        void shouldRejectInvalidListings(String type, String sort, String cursor, int size, String expectedMessage) {
+
+            var criteria = new ClientListCriteria(type, null, null);
+
+            assertThatThrownBy(() -> clientService.listClients(criteria, sort, cursor, size))
+                    .isInstanceOf(IllegalArgumentException.class)
+                    .hasMessageContaining(expectedMessage);
+
+            verifyNoInteractions(clientRepository);
+        }
+
+        static Stream<Arguments> invalidListings() {
+            String idCursor = Base64.getUrlEncoder().encodeToString("i:10".getBytes(StandardCharsets.UTF_8));
+            return Stream.of(
+                    Arguments.of("ROBOT", "id", null, 20, "type must be PERSON or COMPANY"),
+                    Arguments.of(null, "email", null, 20, "sort must be id or name"),
+                    Arguments.of(null, "id", null, 101, "size must be between 1 and 100"),
+                    Arguments.of(null, "id", "not base64!", 20, "Invalid cursor"),
+                    Arguments.of(null, "name", idCursor, 20, "cursor does not belong to a listing sorted by name")
+            );
+        }
+    }
 }
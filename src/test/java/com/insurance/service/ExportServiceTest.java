@@ -0,0 +1,138 @@
+package com.insurance.service;
+
+import com.insurance.dto.ExportDTO;
+import com.insurance.dto.ExportDTO.Dataset;
+import com.insurance.dto.ExportDTO.Format;
+import com.insurance.dto.ExportDTO.Status;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.repository.ExportRepository;
+import com.insurance.repository.ScheduledRunRepository;
+import com.insurance.services.ExportService;
+import com.insurance.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Export Service Unit Tests")
+class ExportServiceTest {
+
+    @TempDir
+    Path directory;
+
+    private ExportRepository exportRepository;
+    private ScheduledRunRepository scheduledRunRepository;
+    private ExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        exportRepository = mock(ExportRepository.class);
+        scheduledRunRepository = mock(ScheduledRunRepository.class);
+        exportService = new ExportService(exportRepository, scheduledRunRepository, ShardRouter.unsharded(),
+                mock(PlatformTransactionManager.class), directory, Duration.ofDays(7), Duration.ofHours(1));
+    }
+
+    @Test
+    @DisplayName("Should write a compressed export and list it as completed")
+    void shouldWriteCompressedExport() throws Exception {
+        when(exportRepository.copyCsv(eq(Dataset.CONTRACTS), eq(true), any())).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(2);
+            out.write("id,client_id\n1,1\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        });
+
+        ExportDTO export = exportService.startExport(Dataset.CONTRACTS, Format.CSV);
+        assertThat(export.status()).isEqualTo(Status.RUNNING);
+        assertThat(export.name()).matches("contracts-\\d{8}T\\d{9}\\.csv\\.gz");
+
+        ExportDTO completed = awaitStatus(export.name(), Status.COMPLETED);
+        Path file = exportService.getExportFile(export.name());
+        assertThat(completed.sizeBytes()).isEqualTo(Files.size(file));
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo("id,client_id\n1,1\n");
+        }
+    }
+
+    @Test
+    @DisplayName("Should report a failed export and leave no partial file")
+    void shouldReportFailedExport() throws Exception {
+        when(exportRepository.writeNdjson(eq(Dataset.CLIENTS), any())).thenThrow(new IOException("disk full"));
+
+        ExportDTO export = exportService.startExport(Dataset.CLIENTS, Format.NDJSON);
+
+        assertThat(awaitStatus(export.name(), Status.FAILED).error()).isEqualTo("disk full");
+        try (var files = Files.list(directory)) {
+            assertThat(files).isEmpty();
+        }
+        assertThatThrownBy(() -> exportService.getExportFile(export.name()))
+                .isInstanceOf(ResourceNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Should only serve export files from the export directory")
+    void shouldRejectOtherFiles() throws Exception {
+        Files.writeString(directory.resolve("notes.txt"), "secret");
+
+        assertThatThrownBy(() -> exportService.getExportFile("notes.txt"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> exportService.getExportFile("../contracts-20240101T000000000.csv.gz"))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(exportService.listExports()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should run the nightly export only on the instance that records it")
+    void shouldRunNightlyExportOnce() throws Exception {
+        when(scheduledRunRepository.claim(eq("nightly-export"), any(), any(), any())).thenReturn(0);
+
+        exportService.nightlyExport();
+
+        assertThat(exportService.listExports()).isEmpty();
+        verifyNoInteractions(exportRepository);
+
+        when(scheduledRunRepository.claim(eq("nightly-export"), any(), any(), any())).thenReturn(1);
+
+        exportService.nightlyExport();
+
+        verify(exportRepository, timeout(1000)).copyCsv(eq(Dataset.CLIENTS), eq(true), any());
+        verify(exportRepository, timeout(1000)).copyCsv(eq(Dataset.CONTRACTS), eq(true), any());
+    }
+
+    @Test
+    @DisplayName("Should parse dataset and format case-insensitively")
+    void shouldParseEnums() {
+        assertThat(ExportDTO.parse(Dataset.class, "Contracts")).isEqualTo(Dataset.CONTRACTS);
+        assertThatThrownBy(() -> ExportDTO.parse(Format.class, "xml"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("expected one of [csv, ndjson]");
+    }
+
+    private ExportDTO awaitStatus(String name, Status status) throws InterruptedException {
+        for (int attempt = 0; attempt < 100; attempt++) {
+            List<ExportDTO> exports = exportService.listExports();
+            for (ExportDTO export : exports) {
+                if (export.name().equals(name) && export.status() == status) {
+                    return export;
+                }
+            }
+            Thread.sleep(50);
+        }
+        throw new AssertionError("Export " + name + " did not reach " + status);
+    }
+}
@@ -0,0 +1,113 @@
+package com.insurance.service;
+
+import com.insurance.clientids.LiveClientIds;
+import com.insurance.dto.PremiumScheduleDTO;
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.models.Person;
+import com.insurance.repository.ClientRepository;
+import com.insurance.repository.PremiumScheduleRepository;
+import com.insurance.repository.PremiumScheduleRepository.ClientIdRange;
+import com.insurance.services.PremiumScheduleService;
+import com.insurance.sharding.ShardRouter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Premium Schedule Service Unit Tests")
+class PremiumScheduleServiceTest {
+
+    private PremiumScheduleRepository scheduleRepository;
+    private ClientRepository clientRepository;
+    private PremiumScheduleService scheduleService;
+
+    @BeforeEach
+    void setUp() {
+        scheduleRepository = mock(PremiumScheduleRepository.class);
+        clientRepository = mock(ClientRepository.class);
+        scheduleService = new PremiumScheduleService(scheduleRepository, clientRepository,
+                ShardRouter.unsharded(), mock(LiveClientIds.class), mock(PlatformTransactionManager.class), 3);
+    }
+
+    @Test
+    @DisplayName("Should turn month ranges into premiums per month")
+    void shouldAccumulateMonthRanges() {
+        when(clientRepository.findById(1L)).thenReturn(Optional.of(new Person()));
+        doAnswer(invocation -> {
+            long[] deltas = invocation.getArgument(4);
+            // 10.00 from the first month on, 5.00 in months 2 and 3.
+            deltas[0] += 1000;
+            deltas[6] -= 1000;
+            deltas[2] += 500;
+            deltas[4] -= 500;
+            return null;
+        }).when(scheduleRepository).accumulate(eq(1L), eq(1L), any(), eq(6), any());
+
+        PremiumScheduleDTO schedule = scheduleService.getClientSchedule(1L, 6);
+
+        assertThat(schedule.months())
+                .extracting(PremiumScheduleDTO.MonthlyPremium::premium)
+                .containsExactly(new BigDecimal("10.00"), new BigDecimal("10.00"), new BigDecimal("15.00"),
+                        new BigDecimal("15.00"), new BigDecimal("10.00"), new BigDecimal("10.00"));
+        assertThat(schedule.months().getFirst().month()).isEqualTo(YearMonth.now());
+        assertThat(schedule.months().getLast().month()).isEqualTo(YearMonth.now().plusMonths(5));
+        assertThat(schedule.totalPremium()).isEqualByComparingTo("70.00");
+    }
+
+    @Test
+    @DisplayName("Should read the book in parallel client id ranges and merge them")
+    void shouldMergeClientIdRanges() {
+        when(scheduleRepository.findClientIdRange()).thenReturn(Optional.of(new ClientIdRange(1, 10)));
+        List<ClientIdRange> ranges = new CopyOnWriteArrayList<>();
+        doAnswer(invocation -> {
+            ranges.add(new ClientIdRange(invocation.getArgument(0), invocation.getArgument(1)));
+            long[] deltas = invocation.getArgument(4);
+            deltas[0] += 100;
+            deltas[12] -= 100;
+            return null;
+        }).when(scheduleRepository).accumulate(anyLong(), anyLong(), any(), eq(12), any());
+
+        PremiumScheduleDTO schedule = scheduleService.getBookSchedule(12);
+
+        assertThat(ranges).containsExactlyInAnyOrder(
+                new ClientIdRange(1, 4), new ClientIdRange(5, 8), new ClientIdRange(9, 10));
+        assertThat(schedule.months()).hasSize(12)
+                .allSatisfy(month -> assertThat(month.premium()).isEqualByComparingTo("3.00"));
+        assertThat(schedule.totalPremium()).isEqualByComparingTo("36.00");
+    }
+
+    @Test
+    @DisplayName("Should return an empty schedule for a book without contracts")
+    void shouldHandleEmptyBook() {
+        when(scheduleRepository.findClientIdRange()).thenReturn(Optional.empty());
+
+        PremiumScheduleDTO schedule = scheduleService.getBookSchedule(3);
+
+        assertThat(schedule.months()).hasSize(3)
+                .allSatisfy(month -> assertThat(month.premium()).isEqualByComparingTo("0"));
+        verify(scheduleRepository, never()).accumulate(anyLong(), anyLong(), any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("Should reject unknown clients and out-of-range horizons")
+    void shouldValidateRequest() {
+        when(clientRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> scheduleService.getClientSchedule(99L, 12))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> scheduleService.getBookSchedule(0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> scheduleService.getClientSchedule(1L, PremiumScheduleService.MAX_MONTHS + 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,142 @@
+package com.insurance.service;
+
+import com.insurance.exception.ResourceNotFoundException;
+import com.insurance.services.QueryCoalescer;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.AbstractPlatformTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("Query Coalescer Unit Tests")
+class QueryCoalescerTest {
+
+    private SimpleMeterRegistry registry;
+    private QueryCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        coalescer = new QueryCoalescer(new NoOpTransactionManager(), registry, 100, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @DisplayName("Should share one execution between concurrent identical queries")
+    void shouldShareOneExecution() throws Exception {
+        var executions = new AtomicInteger();
+        var release = new CountDownLatch(1);
+        int callers = 8;
+        var joined = new CountDownLatch(callers - 1);
+        registry = new FollowerCountingRegistry(joined);
+        coalescer = new QueryCoalescer(new NoOpTransactionManager(), registry, 100, Duration.ofSeconds(5));
+
+        try (var executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<String>> results = IntStream.range(0, callers)
+                    .mapToObj(i -> executor.submit(() -> coalescer.execute("client-1", () -> {
+                        executions.incrementAndGet();
+                        await(release);
+                        return "sum";
+                    })))
+                    .toList();
+
+            // The leader's query completes only once every other caller has joined it.
+            assertThat(joined.await(5, TimeUnit.SECONDS)).isTrue();
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("sum");
+            }
+        }
+
+        assertThat(executions.get()).isEqualTo(1);
+        assertThat(registry.get("insurance.coalescing.requests").tag("role", "follower").counter().count())
+                .isEqualTo(callers - 1);
+    }
+
+    @Test
+    @DisplayName("Should propagate the leader's exception and not cache it")
+    void shouldPropagateExceptionsWithoutCaching() {
+        assertThatThrownBy(() -> coalescer.execute("client-2", () -> {
+            throw new ResourceNotFoundException("Client not found with id: 2");
+        })).isInstanceOf(ResourceNotFoundException.class);
+
+        assertThat(coalescer.execute("client-2", () -> "found")).isEqualTo("found");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Counts down the latch each time a caller joins an in-flight query as a follower.
+    private static class FollowerCountingRegistry extends SimpleMeterRegistry {
+        private final CountDownLatch joined;
+
+        FollowerCountingRegistry(CountDownLatch joined) {
+            this.joined = joined;
+        }
+
+        @Override
+        protected Counter newCounter(Meter.Id id) {
+            Counter counter = super.newCounter(id);
+            if (!"follower".equals(id.getTag("role"))) {
+                return counter;
+            }
+            return new Counter() {
+                @Override
+                public void increment(double amount) {
+                    counter.increment(amount);
+                    joined.countDown();
+                }
+
+                @Override
+                public double count() {
+                    return counter.count();
+                }
+
+                @Override
+                public Meter.Id getId() {
+                    return counter.getId();
+                }
+            };
+        }
+    }
+
+    private static class NoOpTransactionManager extends AbstractPlatformTransactionManager {
+        @Override
+        protected Object doGetTransaction() {
+            return new Object();
+        }
+
+        @Override
+        protected void doBegin(Object transaction, TransactionDefinition definition) {
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+        }
+
+        @Override
+        protected void doRollback(DefaultTransactionStatus status) {
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.insurance.sharding;
+
+import org.junit.jupiter.api.*;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Shard Router Unit Tests")
+class ShardRouterTest {
+
+    private ShardRouter router;
+
+    @AfterEach
+    void tearDown() {
+        router.destroy();
+    }
+
+    @Test
+    @DisplayName("Should find the shard of an id and place keys deterministically")
+    void shouldMapIdsAndKeysToShards() {
+        router = new ShardRouter(3, mock(DataSourceTransactionManager.class));
+
+        assertThat(router.shardOf(9)).isZero();
+        assertThat(router.shardOf(10)).isEqualTo(1);
+        assertThat(router.shardOf(11)).isEqualTo(2);
+        assertThat(router.shardOfKey("ann@example.com")).isEqualTo(router.shardOfKey("ann@example.com"))
+                .isBetween(0, 2);
+        assertThat(List.of("a@x.pt", "b@x.pt", "c@x.pt", "d@x.pt", "e@x.pt", "f@x.pt", "g@x.pt", "h@x.pt")
+                .stream().map(router::shardOfKey).distinct()).hasSize(3);
+    }
+
+    @Test
+    @DisplayName("Should run unsharded work once in the caller's transaction")
+    void shouldRunUnshardedInline() {
+        router = ShardRouter.unsharded();
+        Thread caller = Thread.currentThread();
+
+        List<Integer> shards = router.onEachShard(true, shard -> {
+            assertThat(Thread.currentThread()).isSameAs(caller);
+            return shard;
+        });
+
+        assertThat(shards).containsExactly(0);
+        assertThat(router.shardOfKey("ann@example.com")).isZero();
+        assertThatCode(() -> router.routeById(7L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    @DisplayName("Should run work on every shard in its own transaction and keep shard order")
+    void shouldFanOutInTransactions() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        router = new ShardRouter(4, new DataSourceTransactionManager(dataSource));
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+        List<Integer> selected = router.onEachShard(true, shard -> {
+            threads.add(Thread.currentThread());
+            return ShardContext.current();
+        });
+
+        assertThat(selected).containsExactly(0, 1, 2, 3);
+        assertThat(threads).doesNotContain(Thread.currentThread());
+        verify(dataSource, times(4)).getConnection();
+    }
+
+    @Test
+    @DisplayName("Should rethrow the failure of a shard")
+    void shouldRethrowShardFailure() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        router = new ShardRouter(2, new DataSourceTransactionManager(dataSource));
+
+        assertThatThrownBy(() -> router.onEachShard(false, shard -> {
+            if (shard == 1) {
+                throw new IllegalArgumentException("shard 1 failed");
+            }
+            return shard;
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("shard 1 failed");
+    }
+
+    @Test
+    @DisplayName("Should return the failure of a shard next to the results of the others")
+    void shouldSettleShardFailures() throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        router = new ShardRouter(3, new DataSourceTransactionManager(dataSource));
+
+        List<ShardResult<Integer>> results = router.onEachShardSettled(false, shard -> {
+            if (shard == 1) {
+                throw new IllegalArgumentException("shard 1 failed");
+            }
+            return shard * 10;
+        });
+
+        assertThat(results).extracting(ShardResult::shard).containsExactly(0, 1, 2);
+        assertThat(results).extracting(ShardResult::failed).containsExactly(false, true, false);
+        assertThat(results.get(0).value()).isZero();
+        assertThat(results.get(1).failure()).isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("shard 1 failed");
+        assertThat(results.get(2).value()).isEqualTo(20);
+    }
+}
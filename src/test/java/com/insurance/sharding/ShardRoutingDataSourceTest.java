@@ -0,0 +1,118 @@
+package com.insurance.sharding;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Shard Routing DataSource Unit Tests")
+class ShardRoutingDataSourceTest {
+
+    @Mock
+    private DataSource shard0;
+
+    @Mock
+    private DataSource shard1;
+
+    @Mock
+    private Connection connection;
+
+    private ShardRoutingDataSource routingDataSource;
+
+    @BeforeEach
+    void setUp() {
+        routingDataSource = new ShardRoutingDataSource(List.of(shard0, shard1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            completeTransaction();
+        }
+    }
+
+    @Test
+    @DisplayName("Should use the selected shard until the transaction completes")
+    void shouldUseSelectedShard() throws SQLException {
+        when(shard1.getConnection()).thenReturn(connection);
+        beginTransaction();
+
+        ShardContext.select(1);
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+        verifyNoInteractions(shard0);
+
+        completeTransaction();
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should use the first shard outside transactions")
+    void shouldUseFirstShardOutsideTransactions() throws SQLException {
+        when(shard0.getConnection()).thenReturn(connection);
+
+        assertThat(routingDataSource.getConnection()).isSameAs(connection);
+    }
+
+    @Test
+    @DisplayName("Should fail a transaction that did not select a shard")
+    void shouldFailWithoutSelection() {
+        beginTransaction();
+
+        assertThatThrownBy(routingDataSource::getConnection)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("No shard selected");
+        verifyNoInteractions(shard0, shard1);
+    }
+
+    @Test
+    @DisplayName("Should not let a transaction switch shards")
+    void shouldRejectSwitchingShards() {
+        beginTransaction();
+        ShardContext.select(0);
+        ShardContext.select(0);
+
+        assertThatThrownBy(() -> ShardContext.select(1))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("bound to shard 0");
+    }
+
+    @Test
+    @DisplayName("Should only select a shard within a transaction")
+    void shouldRequireTransaction() {
+        assertThatThrownBy(() -> ShardContext.select(0)).isInstanceOf(IllegalStateException.class);
+        assertThat(ShardContext.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should allocate the next id of a shard above everything allocated")
+    void shouldAlignIdsToShard() {
+        assertThat(ShardSequences.firstIdAbove(0, 0, 4)).isEqualTo(4);
+        assertThat(ShardSequences.firstIdAbove(0, 1, 4)).isEqualTo(1);
+        assertThat(ShardSequences.firstIdAbove(10, 3, 4)).isEqualTo(11);
+        assertThat(ShardSequences.firstIdAbove(11, 3, 4)).isEqualTo(15);
+        assertThat(ShardSequences.firstIdAbove(12, 0, 4)).isEqualTo(16);
+    }
+
+    private static void beginTransaction() {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+    }
+
+    private static void completeTransaction() {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+}
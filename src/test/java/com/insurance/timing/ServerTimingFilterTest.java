@@ -0,0 +1,152 @@
+package com.insurance.timing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("Server-Timing tests")
+class ServerTimingFilterTest {
+
+    private static final String SUM_SQL = "select coalesce(sum(c1_0.cost_amount),0) from contracts c1_0 "
+            + "where c1_0.client_id=? and (c1_0.end_date is null or c1_0.end_date>?)";
+
+    private final RequestTimingProperties properties = new RequestTimingProperties();
+
+    @Test
+    @DisplayName("Should time pool wait, each statement with its rows, and serialization")
+    void shouldReportStatementsAndSerialization() throws Exception {
+        DataSource dataSource = timedDataSource(2);
+
+        MockHttpServletResponse response = send((request, servletResponse) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                query(connection, "select count(*) from clients where id=?");
+                query(connection, SUM_SQL);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+            RequestTiming.current().serializationStarted();
+            servletResponse.getWriter().write("{\"totalCost\":10}");
+            servletResponse.getWriter().flush();
+        });
+
+        String header = response.getHeader(ServerTimingFilter.SERVER_TIMING);
+        assertThat(header)
+                .startsWith("total;dur=")
+                .contains("pool;dur=", "desc=\"1 connection\"")
+                .contains("desc=\"2 statements, 4 rows\"")
+                .contains("ser;dur=")
+                .contains("sql-1;dur=", "sql-2;dur=", "desc=\"2 rows\"")
+                .doesNotContain("select");
+        assertThat(response.getContentAsString()).isEqualTo("{\"totalCost\":10}");
+    }
+
+    @Test
+    @DisplayName("Should describe statements with normalized SQL only when enabled")
+    void shouldExposeSqlWhenEnabled() throws Exception {
+        properties.setExposeSql(true);
+        DataSource dataSource = timedDataSource(0);
+
+        MockHttpServletResponse response = send((request, servletResponse) -> {
+            try (Connection connection = dataSource.getConnection()) {
+                query(connection, "select * from clients where email = 'a\"b@example.com' and id in (?, ?, ?)");
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(response.getHeader(ServerTimingFilter.SERVER_TIMING))
+                .contains("sql-1;dur=")
+                .contains("desc=\"select * from clients where email = ? and id in (?) (0 rows)\"");
+    }
+
+    @Test
+    @DisplayName("Should not time work done outside a request, nor proxy its result sets")
+    void shouldIgnoreUntimedThreads() throws Exception {
+        try (Connection connection = timedDataSource(1).getConnection();
+             PreparedStatement statement = connection.prepareStatement(SUM_SQL)) {
+            assertThat(Proxy.isProxyClass(statement.getClass())).isTrue();
+            assertThat(Proxy.isProxyClass(statement.executeQuery().getClass())).isFalse();
+        }
+
+        assertThat(RequestTiming.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should group repeated statements by their normalized SQL for the slow-request log")
+    void shouldGroupStatementsByShape() {
+        RequestTiming timing = RequestTiming.begin();
+        for (long id = 1; id <= 3; id++) {
+            timing.statementStarted();
+            timing.statementExecuted("select * from contracts where client_id = " + id);
+            timing.rowRead();
+        }
+        timing.statementStarted();
+        timing.statementExecuted(SUM_SQL);
+        timing.finish();
+
+        assertThat(ServerTimingFilter.groupByShape(timing.statements()))
+                .extracting(shape -> shape.get("sql"), shape -> shape.get("count"), shape -> shape.get("rows"))
+                .containsExactlyInAnyOrder(
+                        tuple("select * from contracts where client_id = ?", 3L, 3L),
+                        tuple(SqlNormalizer.normalize(SUM_SQL), 1L, 0L));
+    }
+
+    private MockHttpServletResponse send(FilterChain chain) throws Exception {
+        properties.setSlowRequestThreshold(Duration.ZERO);
+        ServerTimingFilter filter = new ServerTimingFilter(properties, new ObjectMapper());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("GET", "/api/contracts/client/1/sum"), response, chain);
+        assertThat(RequestTiming.current()).isNull();
+        return response;
+    }
+
+    private static void query(Connection connection, String sql) throws Exception {
+        try (PreparedStatement statement = connection.prepareStatement(sql);
+             ResultSet resultSet = statement.executeQuery()) {
+            while (resultSet.next()) {
+                resultSet.getObject(1);
+            }
+        }
+    }
+
+    /**
+     * A DataSource whose queries each return {@code rows} rows, proxied the way the application proxies its own.
+     */
+    private static DataSource timedDataSource(int rows) throws Exception {
+        DataSource dataSource = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString())).thenAnswer(invocation -> {
+            PreparedStatement statement = mock(PreparedStatement.class);
+            ResultSet resultSet = mock(ResultSet.class);
+            int[] remaining = {rows};
+            when(resultSet.next()).thenAnswer(next -> remaining[0]-- > 0);
+            when(statement.executeQuery()).thenReturn(resultSet);
+            return statement;
+        });
+
+        SqlTimingListener listener = new SqlTimingListener();
+        return ProxyDataSourceBuilder.create(dataSource)
+                .listener(listener)
+                .methodListener(listener)
+                .proxyResultSet()
+                .jdbcProxyFactory(new TimedJdbcProxyFactory())
+                .build();
+    }
+}
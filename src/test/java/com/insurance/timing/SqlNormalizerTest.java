@@ -0,0 +1,38 @@
+package com.insurance.timing;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+@DisplayName("SQL normalization tests")
+class SqlNormalizerTest {
+
+    @Test
+    @DisplayName("Should replace string and numeric literals but keep identifiers")
+    void shouldReplaceLiterals() {
+        assertThat(SqlNormalizer.normalize(
+                "select c1_0.id from contracts c1_0 where c1_0.client_id = 42 and c1_0.cost_amount > 10.5 "
+                        + "and c1_0.note = 'it''s' limit 26"))
+                .isEqualTo("select c1_0.id from contracts c1_0 where c1_0.client_id = ? and c1_0.cost_amount > ? "
+                        + "and c1_0.note = ? limit ?");
+    }
+
+    @Test
+    @DisplayName("Should collapse whitespace and numbered parameters")
+    void shouldCollapseWhitespaceAndParameters() {
+        assertThat(SqlNormalizer.normalize("SELECT *\n  FROM clients\tWHERE id = ?1 AND type = ?2 "))
+                .isEqualTo("SELECT * FROM clients WHERE id = ? AND type = ?");
+    }
+
+    @Test
+    @DisplayName("Should make IN lists and multi-row VALUES independent of their length")
+    void shouldCollapseLists() {
+        String three = SqlNormalizer.normalize("delete from contracts where id in (?, ?, ?)");
+        String five = SqlNormalizer.normalize("delete from contracts where id in (1,2,3,4,5)");
+        assertThat(three).isEqualTo("delete from contracts where id in (?)").isEqualTo(five);
+
+        assertThat(SqlNormalizer.normalize("insert into clients (name, email) values (?, ?), (?, ?), (?, ?)"))
+                .isEqualTo("insert into clients (name, email) values (?), ...");
+    }
+}
@@ -0,0 +1,3 @@
+-- Run by Hibernate after it creates the schema from the entities (ddl-auto=create-drop in the integration tests).
+-- Partial unique indexes cannot be declared on the entities; the person upsert relies on this one.
+CREATE UNIQUE INDEX uq_client_person_email_key ON clients(email_key) WHERE client_type = 'PERSON';
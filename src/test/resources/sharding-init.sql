@@ -0,0 +1,5 @@
+-- Two shards as schemas of one database for ShardingIntegrationTest; the application creates the tables.
+-- pg_trgm is database-wide, so it is installed once in public, which is on the search path of both shards.
+CREATE EXTENSION IF NOT EXISTS pg_trgm SCHEMA public;
+CREATE SCHEMA shard_0;
+CREATE SCHEMA shard_1;